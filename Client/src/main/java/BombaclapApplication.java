@@ -1,9 +1,14 @@
 import config.Constants;
+import javafx.animation.Animation;
+import javafx.animation.AnimationTimer;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
 import javafx.application.Application;
 import javafx.application.Platform;
 import javafx.beans.property.SimpleObjectProperty;
 import javafx.geometry.Pos;
 import javafx.scene.Scene;
+import javafx.scene.control.ProgressBar;
 import javafx.scene.control.TextInputDialog;
 import javafx.scene.input.KeyEvent;
 import javafx.scene.layout.HBox;
@@ -14,62 +19,89 @@ import javafx.scene.media.MediaPlayer;
 import javafx.scene.text.Font;
 import javafx.scene.text.Text;
 import javafx.stage.Stage;
-import views.BlockView;
+import javafx.stage.StageStyle;
+import javafx.util.Duration;
+import views.AssetLoader;
+import views.BlockMapView;
 import views.BorderView;
+import views.CanvasMapView;
+import views.Diagnostics;
+import views.MapRenderLoop;
+import views.MapView;
+import views.MovementPredictor;
+import views.PlayerLayer;
 
-import java.io.File;
 import java.io.IOException;
-import java.util.ArrayList;
+import java.nio.file.Path;
+import java.text.SimpleDateFormat;
+import java.util.Date;
 import java.util.Optional;
 import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * Main application for JavaFx
  */
 public class BombaclapApplication extends Application {
-    private static final ArrayList<BlockView> blockViews = new ArrayList<>();
     private static final SimpleObjectProperty<KeyEvent> keyPressed = new SimpleObjectProperty<>();
     private static final BorderView borderView = new BorderView();
-    private File[] musicList;
+    private static long launchTime;
+    private final AssetLoader assetLoader = new AssetLoader();
+    private final ExecutorService musicExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "Music");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private Media[] songs = new Media[0];
+    private String[] songNames = new String[0];
     private int currentSongIndex = 0;
-    private Thread musicThread = null;
-    private boolean isChangingMusic = false;
+    private volatile boolean isChangingMusic = false;
+    private long splashTime;
 
     private String host;
     private String username;
     private String port;
     private MediaPlayer mediaPlayer;
     private Stage stage;
+    private Client client;
 
     public static void launchBombaclapApplication(String[] args) {
-        for (int i = 0; i < Constants.blocksPerLine * Constants.blocksPerLine; i++) {
-            blockViews.add(new BlockView(i));
-        }
+        launchTime = System.nanoTime();
         launch();
     }
 
+    /**
+     * Creates the map renderer selected with Constants.renderer
+     *
+     * @return MapView rendering the map
+     */
+    private MapView createMapView() {
+        if (Constants.renderer.equals("canvas")) {
+            return new CanvasMapView(Constants.blocksPerLine, Constants.blockSize);
+        }
+        return new BlockMapView(Constants.blocksPerLine);
+    }
+
     /**
      * Setting up layout for bomberman
      *
+     * @param mapView     renderer of the map
+     * @param playerLayer layer of the interpolated players, drawn above the map, or null
      * @return HBox Root component, which holds the bomberman layout.
      */
-    public HBox setupLayout() {
+    public HBox setupLayout(MapView mapView, PlayerLayer playerLayer) {
         HBox root = new HBox();
         VBox vBox = new VBox();
-        HBox hBox = new HBox();
 
         root.getChildren().add(borderView.left);
         vBox.getChildren().add(borderView.top);
-
-
-        for (int i = 0; i < blockViews.size(); i++) {
-            StackPane stackPane = new StackPane();
-            blockViews.get(i).setStackPane(stackPane);
-            hBox.getChildren().add(stackPane);
-            if ((i + 1) % Constants.blocksPerLine == 0) {
-                vBox.getChildren().add(hBox);
-                hBox = new HBox();
-            }
+        if (playerLayer == null) {
+            vBox.getChildren().add(mapView.getNode());
+        } else {
+            StackPane map = new StackPane(mapView.getNode(), playerLayer);
+            map.setAlignment(Pos.TOP_LEFT);
+            vBox.getChildren().add(map);
         }
         vBox.getChildren().add(borderView.bottom);
         root.getChildren().add(vBox);
@@ -94,25 +126,177 @@ public class BombaclapApplication extends Application {
     }
 
     /**
-     * Starting JavaFx application. Also doing some initializing for the bomberman client
+     * Setting up the leaderboard overlay, which is hidden until the server answers a leaderboard query
+     *
+     * @return StackPane holding the leaderboard
+     */
+    private StackPane setupLeaderboard() {
+        Text leaderboardText = new Text();
+        leaderboardText.setId(Constants.leaderboardTextId);
+        leaderboardText.setFont(new Font(24));
+        HBox leaderboardBack = new HBox();
+        leaderboardBack.setMaxHeight(500);
+        leaderboardBack.setMaxWidth(600);
+        leaderboardBack.setStyle("-fx-background-color: lightgrey; -fx-opacity: 75%");
+        StackPane leaderboard = new StackPane(leaderboardBack, leaderboardText);
+        leaderboard.setAlignment(Pos.CENTER);
+        leaderboard.setMouseTransparent(true);
+        leaderboard.setVisible(false);
+        return leaderboard;
+    }
+
+    /**
+     * Setting up the diagnostics overlay, which is hidden until F3 is pressed
+     *
+     * @return StackPane holding the diagnostics
+     */
+    private StackPane setupDiagnostics() {
+        Text diagnosticsText = new Text();
+        diagnosticsText.setFont(Font.font("Monospaced", 14));
+        VBox diagnosticsBack = new VBox(diagnosticsText);
+        diagnosticsBack.setMaxSize(VBox.USE_PREF_SIZE, VBox.USE_PREF_SIZE);
+        diagnosticsBack.setStyle("-fx-background-color: rgba(211, 211, 211, 0.75); -fx-padding: 8");
+        StackPane diagnosticsStack = new StackPane(diagnosticsBack);
+        diagnosticsStack.setAlignment(Pos.TOP_LEFT);
+        diagnosticsStack.setMouseTransparent(true);
+        diagnosticsStack.setVisible(false);
+        return diagnosticsStack;
+    }
+
+    /**
+     * Samples the diagnostics every diagnosticsInterval and shows them while the overlay is visible.
+     * F3 toggles the overlay, F4 exports the kept samples as csv-file.
+     *
+     * @param diagnostics      Diagnostics of the client
+     * @param diagnosticsStack overlay created by setupDiagnostics
+     */
+    private void startDiagnostics(Diagnostics diagnostics, StackPane diagnosticsStack) {
+        Text diagnosticsText = (Text) ((VBox) diagnosticsStack.getChildren().get(0)).getChildren().get(0);
+        Timeline sampling = new Timeline(new KeyFrame(Duration.millis(Constants.diagnosticsInterval), event -> {
+            diagnostics.sample(System.nanoTime());
+            if (diagnosticsStack.isVisible()) {
+                diagnosticsText.setText(diagnostics.format());
+            }
+        }));
+        sampling.setCycleCount(Animation.INDEFINITE);
+        sampling.play();
+        keyPressed.addListener((observable, oldValue, newValue) -> {
+            if (newValue == null) return;
+            switch (newValue.getCode()) {
+                case F3 -> {
+                    diagnosticsText.setText(diagnostics.format());
+                    diagnosticsStack.setVisible(!diagnosticsStack.isVisible());
+                }
+                case F4 -> exportDiagnostics(diagnostics);
+            }
+        });
+    }
+
+    /**
+     * Writes the kept diagnostics into a new csv-file in the diagnosticsFolder
+     *
+     * @param diagnostics Diagnostics of the client
+     */
+    private void exportDiagnostics(Diagnostics diagnostics) {
+        Path file = Path.of(Constants.diagnosticsFolder,
+                "diagnostics-" + new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date()) + ".csv");
+        Thread export = new Thread(() -> {
+            try {
+                diagnostics.writeCsv(file);
+                System.out.println("Diagnostics exported to " + file);
+            } catch (IOException e) {
+                System.out.println("Failed to export diagnostics. " + e.getMessage());
+            }
+        });
+        export.setDaemon(true);
+        export.start();
+    }
+
+    /**
+     * Setting up the splash, which shows the progress of the AssetLoader while the connection dialogs are open
+     *
+     * @return Stage of the splash
+     */
+    private Stage showSplash() {
+        Text splashText = new Text("Bombaclap");
+        splashText.setFont(new Font(30));
+        ProgressBar progressBar = new ProgressBar(0);
+        progressBar.setPrefWidth(300);
+        VBox splashBox = new VBox(20, splashText, progressBar);
+        splashBox.setAlignment(Pos.CENTER);
+        splashBox.setStyle("-fx-background-color: lightgrey; -fx-padding: 40");
+        Stage splash = new Stage(StageStyle.UNDECORATED);
+        splash.setScene(new Scene(splashBox));
+        new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                progressBar.setProgress(assetLoader.getProgress());
+                if (assetLoader.getDuration() >= 0) {
+                    stop();
+                }
+            }
+        }.start();
+        splash.show();
+        splashTime = System.nanoTime();
+        return splash;
+    }
+
+    /**
+     * Starts loading the assets before the first window is shown
+     */
+    @Override
+    public void init() {
+        assetLoader.start();
+    }
+
+    /**
+     * Starting JavaFx application. Shows the splash and the connection dialogs while the assets are loading
+     * and starts the game as soon as both are done.
      *
      * @param stage
-     * @throws IOException
      */
     @Override
-    public void start(Stage stage) throws IOException {
-        HBox rootBox = setupLayout();
+    public void start(Stage stage) {
+        this.stage = stage;
+        Stage splash = showSplash();
+        requestConnectionData();
+        long loginTime = System.nanoTime();
+        assetLoader.start().whenComplete((result, e) -> Platform.runLater(() -> {
+            if (e != null) {
+                System.out.println("Failed to load assets. " + e.getMessage());
+            }
+            startGame(loginTime);
+            splash.close();
+        }));
+    }
+
+    /**
+     * Doing some initializing for the bomberman client, connects to the server and shows the game
+     *
+     * @param loginTime System.nanoTime() when the connection dialogs have been closed
+     */
+    private void startGame(long loginTime) {
+        MapView mapView = createMapView();
+        MovementPredictor predictor = Constants.interpolatePlayers && Constants.predictMovement ?
+                new MovementPredictor() : null;
+        PlayerLayer playerLayer = Constants.interpolatePlayers ?
+                new PlayerLayer(Constants.blocksPerLine, Constants.blockSize, predictor) : null;
+        MapRenderLoop renderLoop = new MapRenderLoop(mapView, playerLayer);
+        Diagnostics diagnostics = new Diagnostics(renderLoop, playerLayer, predictor);
+        HBox rootBox = setupLayout(mapView, playerLayer);
         StackPane root = new StackPane(rootBox);
         Scene scene = new Scene(root, Constants.mapWidth, Constants.mapWidth);
         scene.addEventHandler(KeyEvent.KEY_PRESSED, keyPressed::setValue);
 
-        requestConnectionData();
-
         StackPane timer = setupTimer();
         root.getChildren().add(timer);
+        StackPane leaderboard = setupLeaderboard();
+        root.getChildren().add(leaderboard);
+        StackPane diagnosticsStack = setupDiagnostics();
+        root.getChildren().add(diagnosticsStack);
 
         // Start client thread
-        Client client = new Client(blockViews, borderView, keyPressed, this.host, this.port, this.username, timer);
+        client = new Client(renderLoop, predictor, diagnostics, borderView, keyPressed, this.host, this.port, this.username, timer, leaderboard);
         client.setDaemon(true);
         client.start();
 
@@ -120,71 +304,82 @@ public class BombaclapApplication extends Application {
         stage.setResizable(false);
         stage.setTitle("Bombaclap");
         stage.show();
+        renderLoop.start();
+        startDiagnostics(diagnostics, diagnosticsStack);
+        measureFirstFrame(loginTime);
 
-        this.stage = stage;
         setUpMusic();
     }
 
-    private void setUpMusic() {
-        loadMusicList();
-        startMusicPlayback();
-        addChangeMusicListener();
+    /**
+     * Prints the time to the first frame of the game, measured at the first pulse after the game is shown
+     *
+     * @param loginTime System.nanoTime() when the connection dialogs have been closed
+     */
+    private void measureFirstFrame(long loginTime) {
+        new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                stop();
+                long frameTime = System.nanoTime();
+                System.out.println("Splash after " + (splashTime - launchTime) / 1_000_000 + " ms, assets loaded in "
+                        + assetLoader.getDuration() / 1_000_000 + " ms, first frame "
+                        + (frameTime - loginTime) / 1_000_000 + " ms after the connection dialogs");
+            }
+        }.start();
     }
 
     /**
-     * Starts music for intense gaming action
+     * Closes the connection to the server when the window is closed
      */
-    private void startMusicPlayback() {
-        File musicFile = musicList[currentSongIndex];
-        if (musicFile == null) return;
-        String uri = "file:/" + musicFile.getAbsolutePath().replaceAll("\\\\", "/");
-        uri = uri.replace(" ", "%20");
-        changeMusic(uri, musicFile.getName());
+    @Override
+    public void stop() {
+        if (client != null) {
+            client.shutdown();
+        }
+    }
+
+    private void setUpMusic() {
+        songs = assetLoader.getSongs();
+        songNames = assetLoader.getSongNames();
+        if (songs.length == 0) return;
+        startMusicPlayback();
+        addChangeMusicListener();
     }
 
     /**
-     * Initial loading of music list
+     * Starts music for intense gaming action, the player of the first song has been prepared by the AssetLoader
      */
-    private void loadMusicList() {
-        File musicDir = new File(Constants.musicFolder);
-        this.musicList = musicDir.listFiles();
+    private void startMusicPlayback() {
+        MediaPlayer preparedPlayer = assetLoader.takeFirstSongPlayer();
+        if (preparedPlayer == null) {
+            changeMusic(currentSongIndex);
+            return;
+        }
+        isChangingMusic = true;
+        musicExecutor.execute(() -> playMusic(preparedPlayer, currentSongIndex));
     }
 
     /**
-     * Changes the music to a new song
+     * Replaces the current song, called on the music thread
      *
-     * @param uri
+     * @param player MediaPlayer of the new song
+     * @param index  index of the new song
      */
-    private void changeMusic(String uri, String fileName) {
-        Runnable mediaRunnable = () -> {
-            if (mediaPlayer != null) {
-                mediaPlayer.stop();
-            }
-            mediaPlayer = null;
-            Media media;
-            try {
-                media = new Media(uri);
-            } catch (Exception e) {
-                System.out.println("Failed to load media: " + e.getMessage());
-                isChangingMusic = false;
-                return;
-            }
-
-            mediaPlayer = new MediaPlayer(media);
-            mediaPlayer.setAutoPlay(true);
-            mediaPlayer.setCycleCount(MediaPlayer.INDEFINITE);
-            mediaPlayer.setVolume(0.15);
-            mediaPlayer.setOnEndOfMedia(this::nextSong);
-            mediaPlayer.play();
-
-            setMusicTitle(fileName);
-            isChangingMusic = false;
-        };
+    private void playMusic(MediaPlayer player, int index) {
+        if (mediaPlayer != null) {
+            mediaPlayer.stop();
+            mediaPlayer.dispose();
+        }
+        mediaPlayer = player;
+        mediaPlayer.setAutoPlay(true);
+        mediaPlayer.setCycleCount(MediaPlayer.INDEFINITE);
+        mediaPlayer.setVolume(0.15);
+        mediaPlayer.setOnEndOfMedia(this::nextSong);
+        mediaPlayer.play();
 
-        isChangingMusic = true;
-        musicThread = new Thread(mediaRunnable);
-        musicThread.setDaemon(true);
-        musicThread.start();
+        setMusicTitle(songNames[index]);
+        isChangingMusic = false;
     }
 
     private void setMusicTitle(String fileName) {
@@ -193,24 +388,30 @@ public class BombaclapApplication extends Application {
     }
 
     /**
-     * Changes the music to a new song
+     * Changes the music to a new song, the Media has been created by the AssetLoader
      *
      * @param index
      */
     private void changeMusic(int index) {
         currentSongIndex = index;
-        File musicFile = musicList[index];
-        if (musicFile == null) return;
-        String uri = "file:/" + musicFile.getAbsolutePath().replaceAll("\\\\", "/");
-        uri = uri.replace(" ", "%20");
-        changeMusic(uri, musicFile.getName());
+        Media media = songs[index];
+        if (media == null) return;
+        isChangingMusic = true;
+        musicExecutor.execute(() -> {
+            try {
+                playMusic(new MediaPlayer(media), index);
+            } catch (Exception e) {
+                System.out.println("Failed to load media: " + e.getMessage());
+                isChangingMusic = false;
+            }
+        });
     }
 
     /**
      * Changes music to next song
      */
     private void nextSong() {
-        if (currentSongIndex < musicList.length - 1) {
+        if (currentSongIndex < songs.length - 1) {
             changeMusic(currentSongIndex + 1);
             return;
         }
@@ -222,7 +423,7 @@ public class BombaclapApplication extends Application {
      */
     private void previousSong() {
         if (currentSongIndex == 0) {
-            changeMusic(musicList.length - 1);
+            changeMusic(songs.length - 1);
             return;
         }
         changeMusic(currentSongIndex - 1);
@@ -234,7 +435,7 @@ public class BombaclapApplication extends Application {
     private void randomSong() {
         Random random = new Random();
         int randomSongIndex;
-        while ((randomSongIndex = random.nextInt(musicList.length)) == currentSongIndex) {
+        while ((randomSongIndex = random.nextInt(songs.length)) == currentSongIndex) {
         }
         changeMusic(randomSongIndex);
     }
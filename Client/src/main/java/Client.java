@@ -1,112 +1,174 @@
 import adapters.LoginActionTypeAdapter;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import config.Constants;
 import javafx.beans.property.SimpleObjectProperty;
 import javafx.scene.input.KeyEvent;
 import javafx.scene.layout.StackPane;
 import proxy.LoginAction;
-import views.BlockView;
 import views.BorderView;
+import views.Diagnostics;
+import views.MapRenderLoop;
+import views.MovementPredictor;
 
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.PrintWriter;
+import java.net.InetSocketAddress;
 import java.net.Socket;
-import java.util.ArrayList;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * Client class which handles all networking.
  */
 public class Client extends Thread {
-    private final ArrayList<BlockView> blockViews;
+    private final MapRenderLoop renderLoop;
+    private final MovementPredictor predictor;
+    private final Diagnostics diagnostics;
     private final BorderView borderView;
     private final SimpleObjectProperty<KeyEvent> keyPressed;
     private final String host;
     private final String port;
     private final String username;
     private final StackPane timer;
+    private final StackPane leaderboard;
     private int playerId = -1;
+    private String resumeToken;
+    private volatile boolean running = true;
+    private volatile Socket socket;
 
-    public Client(ArrayList<BlockView> blockViews, BorderView borderView, SimpleObjectProperty<KeyEvent> keyPressed, String host, String port, String username, StackPane timer) {
-        this.blockViews = blockViews;
+    public Client(MapRenderLoop renderLoop, MovementPredictor predictor, Diagnostics diagnostics, BorderView borderView, SimpleObjectProperty<KeyEvent> keyPressed, String host, String port, String username, StackPane timer, StackPane leaderboard) {
+        this.renderLoop = renderLoop;
+        this.predictor = predictor;
+        this.diagnostics = diagnostics;
         this.borderView = borderView;
         this.keyPressed = keyPressed;
         this.host = host;
         this.port = port;
         this.username = username;
         this.timer = timer;
+        this.leaderboard = leaderboard;
     }
 
     /**
-     * Sets up input and output handling for the client.
+     * Connection lifecycle of the client. Connects to the server, logs in and blocks until ClientIn notices
+     * that the connection is lost. Lost or failed connections are retried with exponential backoff between
+     * reconnectDelayMin and reconnectDelayMax, the login requests the previous playerId with the resumeToken
+     * handed out by the server to resume the session.
+     * Runs until shutdown is called.
      */
     public void run() {
-        try {
-            while (true) {
-                try (Socket socket = new Socket(host, Integer.parseInt(port));
-                     BufferedReader serverIn = new BufferedReader(
-                             new InputStreamReader(socket.getInputStream()));
-                     PrintWriter serverOut = new PrintWriter(
-                             socket.getOutputStream(), true)) {
-
-                    setupConnection(serverIn, serverOut);
-
-                    ClientIn clientIn = new ClientIn(serverIn, blockViews, borderView, playerId, timer);
-                    clientIn.setDaemon(true);
-                    clientIn.start();
-
-                    HandlePlayerAction handlePlayerAction = new HandlePlayerAction(serverOut, playerId, keyPressed);
-                    handlePlayerAction.setDaemon(true);
-                    handlePlayerAction.start();
-
-                    // Endless loop to keep garbage collection from collecting the classes
-                    while (true) {
-                    }
-
-                } catch (Exception ignored) {
-                    throw new Exception();
+        long reconnectDelay = Constants.reconnectDelayMin;
+        while (running) {
+            try (Socket socket = new Socket()) {
+                this.socket = socket;
+                socket.connect(new InetSocketAddress(host, Integer.parseInt(port)), Constants.connectTimeout);
+                socket.setSoTimeout(Constants.connectionTimeout);
+                BufferedReader serverIn = new BufferedReader(new InputStreamReader(socket.getInputStream()));
+                PrintWriter serverOut = new PrintWriter(socket.getOutputStream(), true);
+                setupConnection(serverIn, serverOut);
+                reconnectDelay = Constants.reconnectDelayMin;
+                runSession(serverIn, serverOut);
+            } catch (IOException | RuntimeException e) {
+                if (running) {
+                    System.out.println("Connection failed. " + e.getMessage());
                 }
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (!running) {
+                return;
+            }
+            long delay = reconnectDelay / 2 + ThreadLocalRandom.current().nextLong(reconnectDelay / 2 + 1);
+            System.out.println("Reconnecting in " + delay + " ms");
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                return;
             }
-        } catch (Exception ignored) {
+            reconnectDelay = Math.min(reconnectDelay * 2, Constants.reconnectDelayMax);
         }
     }
 
     /**
-     * Handshake when establishing connection with the server. Client sends LoginAction with the player name
-     * and then retrieves the LoginAction from the server with the correct player id.
+     * Stops reconnecting and closes the connection, ClientIn and HandlePlayerAction end with it
+     */
+    public void shutdown() {
+        running = false;
+        interrupt();
+        Socket current = socket;
+        if (current != null) {
+            try {
+                current.close();
+            } catch (IOException e) {
+                System.out.println("Failed to close the connection. " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Starts input and output handling of a logged in connection and waits until ClientIn has ended,
+     * which happens as soon as the connection is closed or no message arrived within connectionTimeout.
      *
      * @param serverIn
      * @param serverOut
+     * @throws InterruptedException thrown if the client is shut down
      */
-    private void setupConnection(BufferedReader serverIn, PrintWriter serverOut) {
+    private void runSession(BufferedReader serverIn, PrintWriter serverOut) throws InterruptedException {
+        if (predictor != null) {
+            predictor.reset(playerId);
+        }
+        diagnostics.connected();
+        ClientIn clientIn = new ClientIn(serverIn, renderLoop, predictor, diagnostics, borderView, playerId, timer, leaderboard);
+        clientIn.setDaemon(true);
+        HandlePlayerAction handlePlayerAction = new HandlePlayerAction(serverOut, username, keyPressed, predictor, diagnostics);
+        handlePlayerAction.setDaemon(true);
+        clientIn.start();
+        handlePlayerAction.start();
+        try {
+            clientIn.join();
+        } finally {
+            handlePlayerAction.close();
+            handlePlayerAction.join();
+        }
+        System.out.println("Connection lost.");
+    }
+
+    /**
+     * Handshake when establishing connection with the server. Client sends LoginAction with the player name,
+     * the playerId and the resumeToken of the previous session and then retrieves the LoginAction from the server
+     * with the correct player id and the resumeToken of the new session.
+     *
+     * @param serverIn
+     * @param serverOut
+     * @throws IOException thrown if the connection is closed or times out before the login is accepted
+     */
+    private void setupConnection(BufferedReader serverIn, PrintWriter serverOut) throws IOException {
         GsonBuilder builder = new GsonBuilder();
         builder.registerTypeAdapter(LoginAction.class, new LoginActionTypeAdapter());
         builder.setPrettyPrinting();
         Gson gson = builder.create();
 
-
         String name = this.username;
-        LoginAction loginRequest = new LoginAction(name, playerId);
+        LoginAction loginRequest = new LoginAction(name, playerId, resumeToken);
         serverOut.println(gson.toJson(loginRequest).replaceAll("\r*\n*", ""));
-        boolean connectionAccepted = false;
-        while (!connectionAccepted) {
+        while (true) {
+            String input = serverIn.readLine();
+            if (input == null) {
+                throw new IOException("Connection closed before the login has been accepted");
+            }
             try {
-                String input;
-                if ((input = serverIn.readLine()) != null) {
-                    LoginAction loginResponse = gson.fromJson(input, LoginAction.class);
-                    if (loginResponse.getPlayerName().equals(name)) {
-                        playerId = loginResponse.getPlayerId();
-                        connectionAccepted = true;
-                        System.out.println("Connection accepted.");
-                    }
+                LoginAction loginResponse = gson.fromJson(input, LoginAction.class);
+                if (loginResponse != null && name.equals(loginResponse.getPlayerName())) {
+                    playerId = loginResponse.getPlayerId();
+                    resumeToken = loginResponse.getResumeToken();
+                    System.out.println("Connection accepted.");
+                    return;
                 }
-            } catch (IOException e) {
-                System.out.println("Didn't get a login response: " + e.getMessage());
             } catch (Exception e) {
                 System.out.println("Failed to log in to the server: " + e.getMessage());
             }
         }
-
     }
 }
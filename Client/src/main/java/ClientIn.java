@@ -1,35 +1,57 @@
 import config.Constants;
+import javafx.animation.PauseTransition;
 import javafx.application.Platform;
 import javafx.scene.Node;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.StackPane;
 import javafx.scene.text.Text;
+import javafx.util.Duration;
 import proxy.Field;
-import views.BlockView;
+import proxy.LeaderboardEntry;
+import proxy.LeaderboardResponse;
+import proxy.enums.LeaderboardQueryType;
 import views.BorderView;
+import views.Diagnostics;
+import views.MapRenderLoop;
+import views.MovementPredictor;
 
 import java.io.BufferedReader;
-import java.util.ArrayList;
+import java.util.Arrays;
 
 /**
  * Handles all input from the server to the client. This includes the map and timer.
  */
 public class ClientIn extends Thread {
     private final BufferedReader serverIn;
-    private final ArrayList<BlockView> blockViews;
+    private final MapRenderLoop renderLoop;
+    private final MovementPredictor predictor;
+    private final Diagnostics diagnostics;
     private final BorderView borderView;
     private final int playerId;
     private final StackPane timerStack;
+    private final StackPane leaderboardStack;
+    private final PauseTransition leaderboardHide;
     private Text timerText;
     private HBox timerBack;
+    private Text leaderboardText;
 
 
-    public ClientIn(BufferedReader serverIn, ArrayList<BlockView> blockViews, BorderView borderView, int playerId, StackPane timer) {
+    public ClientIn(BufferedReader serverIn, MapRenderLoop renderLoop, MovementPredictor predictor, Diagnostics diagnostics, BorderView borderView, int playerId, StackPane timer, StackPane leaderboard) {
         this.serverIn = serverIn;
-        this.blockViews = blockViews;
+        this.renderLoop = renderLoop;
+        this.predictor = predictor;
+        this.diagnostics = diagnostics;
         this.borderView = borderView;
         this.playerId = playerId;
         this.timerStack = timer;
+        this.leaderboardStack = leaderboard;
+        this.leaderboardHide = new PauseTransition(Duration.millis(Constants.leaderboardDisplayDuration));
+        this.leaderboardHide.setOnFinished(event -> leaderboardStack.setVisible(false));
+        for (Node node : leaderboard.getChildren()) {
+            if (node.getId() == Constants.leaderboardTextId) {
+                leaderboardText = (Text) node;
+            }
+        }
         for (Node node : timer.getChildren()) {
             if (node.getId() == Constants.timerTextId) {
                 timerText = (Text) node;
@@ -45,7 +67,7 @@ public class ClientIn extends Thread {
      *
      * @param timer
      */
-    public void setTimer(Long timer) {
+    public void setTimer(long timer) {
         if (timerStack.getChildren().size() == 0) {
             Platform.runLater(() -> {
                 timerStack.getChildren().add(timerBack);
@@ -60,29 +82,76 @@ public class ClientIn extends Thread {
     }
 
     /**
-     * Gets messages from the server and parses them with the MessageParser.
+     * Shows the leaderboard for leaderboardDisplayDuration
+     *
+     * @param response
+     */
+    public void setLeaderboard(LeaderboardResponse response) {
+        StringBuilder text = new StringBuilder(switch (response.getQueryType()) {
+            case TOP -> "Leaderboard";
+            case WEEKLY_TOP -> "Leaderboard this week";
+            case PLAYER -> "Your stats";
+        });
+        if (response.getEntries().length == 0) {
+            text.append("\nNo matches played yet");
+        }
+        for (LeaderboardEntry entry : response.getEntries()) {
+            long points = response.getQueryType() == LeaderboardQueryType.WEEKLY_TOP ? entry.getWeeklyTotal() : entry.getTotal();
+            text.append("\n").append(entry.getRank()).append(". ").append(entry.getPlayerName())
+                    .append("  ").append(points).append(" points, ")
+                    .append(entry.getWins()).append("/").append(entry.getMatches()).append(" won");
+            if (entry.getHistory() != null) {
+                text.append("\nLast matches: ").append(Arrays.toString(entry.getHistory()));
+            }
+        }
+        Platform.runLater(() -> {
+            leaderboardText.setText(text.toString());
+            leaderboardStack.setVisible(true);
+            leaderboardHide.playFromStart();
+        });
+    }
+
+    /**
+     * Gets messages from the server and decodes them with the SnapshotDecoder.
      * Schedules update for UI and Timer.
      */
     public void run() {
+        SnapshotDecoder decoder = new SnapshotDecoder(serverIn, renderLoop::obtainMap);
         try {
             while (true) {
-                String message = serverIn.readLine();
-                Field[] map = MessageParser.parseMessage(message);
-                Long timer = MessageParser.parseTimerMessage(message);
-                if (timer != null) {
-                    setTimer(timer);
-                }
-                if (map == null) {
-                    continue;
+                SnapshotDecoder.MessageType type = decoder.next();
+                long arrival = System.nanoTime();
+                if (type != SnapshotDecoder.MessageType.END) {
+                    diagnostics.messageReceived(decoder.getMessageLength());
                 }
-
-                borderView.setPlayerId(playerIdIfAlive(playerId, map));
-                for (int i = 0; i < map.length; i++) {
-                    if (blockViews.size() < i + 1) {
-                        blockViews.add(new BlockView(i));
+                switch (type) {
+                    case MAP -> {
+                        diagnostics.snapshotReceived(arrival, decoder.getDecodeTime());
+                        Field[] map = decoder.takeMap();
+                        borderView.setPlayerId(playerIdIfAlive(playerId, map));
+                        if (predictor != null) {
+                            predictor.addSnapshot(map, arrival);
+                        }
+                        renderLoop.publish(map);
+                    }
+                    case TIMER -> setTimer(decoder.getTimer());
+                    case ACKNOWLEDGEMENT -> {
+                        diagnostics.actionAcknowledged((int) decoder.getAcknowledgement(), arrival);
+                        if (predictor != null) {
+                            predictor.acknowledge((int) decoder.getAcknowledgement());
+                        }
+                    }
+                    case LEADERBOARD -> {
+                        LeaderboardResponse leaderboard = MessageParser.parseLeaderboardMessage(decoder.getMessage());
+                        if (leaderboard != null) {
+                            setLeaderboard(leaderboard);
+                        }
+                    }
+                    case END -> {
+                        return;
+                    }
+                    default -> {
                     }
-
-                    blockViews.get(i).setField(map[i]);
                 }
             }
         } catch (Exception e) {
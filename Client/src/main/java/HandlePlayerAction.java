@@ -1,77 +1,197 @@
-import adapters.ActionTypeAdapter;
+import adapters.LeaderboardQueryTypeAdapter;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import config.Constants;
+import javafx.application.Platform;
 import javafx.beans.property.SimpleObjectProperty;
+import javafx.beans.value.ChangeListener;
 import javafx.scene.input.KeyEvent;
-import proxy.Action;
+import proxy.LeaderboardQuery;
+import proxy.enums.LeaderboardQueryType;
 import proxy.enums.PlayerDirection;
+import views.Diagnostics;
+import views.MovementPredictor;
 
 import java.io.PrintWriter;
+import java.util.Arrays;
 
 /**
  * Handles the actions which the user can take and interacts with the server.
+ * Actions are sent as soon as a key changes them instead of periodically. Keys pressed within inputInterval
+ * after the last action are coalesced into the next action, the latest direction wins and a bomb is kept.
+ * Without input only a heartbeat is sent every heartbeatInterval, so the server notices lost connections.
+ * Actions are encoded into a reused buffer from precomputed frames, the server parses them as proxy.Action.
  */
 public class HandlePlayerAction extends Thread {
-    private final int playerId;
+    private static final PlayerDirection[] DIRECTIONS = PlayerDirection.values();
+    private static final char[][] FRAMES = createFrames();
+    private static final int SEQUENCE_LENGTH = String.valueOf(Integer.MAX_VALUE).length() + 2;
+    private final String playerName;
     private final PrintWriter serverOut;
     private final SimpleObjectProperty<KeyEvent> keyPressed;
-    private Action playerAction;
+    private final MovementPredictor predictor;
+    private final Diagnostics diagnostics;
+    private final ChangeListener<KeyEvent> keyListener = (observable, oldValue, newValue) -> handleKey(newValue);
+    private final Object inputLock = new Object();
+    private final char[] frame = new char[Arrays.stream(FRAMES).mapToInt(prefix -> prefix.length).max().orElse(0)
+            + SEQUENCE_LENGTH];
+    private PlayerDirection playerDirection = PlayerDirection.NO_DIRECTION;
+    private boolean bombPlanted;
+    private boolean inputPending;
+    private int sequence;
 
-    public HandlePlayerAction(PrintWriter serverOut, int playerId, SimpleObjectProperty<KeyEvent> keyPressed) {
+    public HandlePlayerAction(PrintWriter serverOut, String playerName, SimpleObjectProperty<KeyEvent> keyPressed, MovementPredictor predictor, Diagnostics diagnostics) {
         this.serverOut = serverOut;
-        this.playerId = playerId;
+        this.playerName = playerName;
         this.keyPressed = keyPressed;
-        this.playerAction = new Action(playerId, PlayerDirection.NO_DIRECTION, false);
+        this.predictor = predictor;
+        this.diagnostics = diagnostics;
         addKeyListener();
     }
 
     public void setPlayerDirection(PlayerDirection playerDirection) {
-        this.playerAction.setPlayerDirection(playerDirection);
+        synchronized (inputLock) {
+            this.playerDirection = playerDirection;
+            inputPending = true;
+            inputLock.notifyAll();
+        }
     }
 
     public void setBombPlanted(boolean bombPlanted) {
-        this.playerAction.setBombPlanted(bombPlanted);
+        synchronized (inputLock) {
+            this.bombPlanted |= bombPlanted;
+            inputPending = true;
+            inputLock.notifyAll();
+        }
     }
 
     /**
-     * Handles key input from the user. Sets the values in the action which get sent to the server.
+     * Sends a leaderboard query to the server. The response is handled by ClientIn.
+     *
+     * @param queryType
+     */
+    private void requestLeaderboard(LeaderboardQueryType queryType) {
+        GsonBuilder builder = new GsonBuilder();
+        builder.registerTypeAdapter(LeaderboardQuery.class, new LeaderboardQueryTypeAdapter());
+        Gson gson = builder.create();
+        serverOut.println(gson.toJson(new LeaderboardQuery(queryType, playerName, Constants.leaderboardSize)));
+    }
+
+    /**
+     * Stops sending actions and stops listening to key input, called when the connection is lost
+     */
+    public void close() {
+        interrupt();
+        Platform.runLater(() -> keyPressed.removeListener(keyListener));
+    }
+
+    /**
+     * Listens to key input from the user.
      */
     private void addKeyListener() {
-        this.keyPressed.addListener((observable, oldValue, newValue) -> {
-            if (newValue == null) return;
-            keyPressed.setValue(null);
-            switch (newValue.getCode()) {
-                case W, UP -> setPlayerDirection(PlayerDirection.UP);
-                case S, DOWN -> setPlayerDirection(PlayerDirection.DOWN);
-                case A, LEFT -> setPlayerDirection(PlayerDirection.LEFT);
-                case D, RIGHT -> setPlayerDirection(PlayerDirection.RIGHT);
-                default -> setPlayerDirection(PlayerDirection.NO_DIRECTION);
-            }
-            switch (newValue.getCode()) {
-                case SPACE -> setBombPlanted(true);
-                default -> setBombPlanted(false);
-            }
-        });
+        this.keyPressed.addListener(keyListener);
+    }
+
+    /**
+     * Handles key input from the user. Sets the values in the action which get sent to the server.
+     *
+     * @param newValue pressed key or null
+     */
+    private void handleKey(KeyEvent newValue) {
+        if (newValue == null) return;
+        keyPressed.setValue(null);
+        switch (newValue.getCode()) {
+            case W, UP -> setPlayerDirection(PlayerDirection.UP);
+            case S, DOWN -> setPlayerDirection(PlayerDirection.DOWN);
+            case A, LEFT -> setPlayerDirection(PlayerDirection.LEFT);
+            case D, RIGHT -> setPlayerDirection(PlayerDirection.RIGHT);
+            case SPACE -> setBombPlanted(true);
+            case L -> requestLeaderboard(newValue.isShiftDown() ? LeaderboardQueryType.WEEKLY_TOP : LeaderboardQueryType.TOP);
+            case P -> requestLeaderboard(LeaderboardQueryType.PLAYER);
+        }
     }
 
     /**
-     * Periodically sends actions to the server. These actions can be empty if the user has not taken any action.
+     * Sends an action whenever the input changes, at most once per inputInterval, and a heartbeat after
+     * heartbeatInterval without input.
+     * Every action gets the next sequence and its move is applied by the predictor before it is sent.
+     * Runs until close is called.
      */
     @Override
     public void run() {
-        GsonBuilder builder = new GsonBuilder();
-        builder.registerTypeAdapter(Action.class, new ActionTypeAdapter());
-        builder.setPrettyPrinting();
-        Gson gson = builder.create();
-        while (true) {
-            try {
-                serverOut.println(gson.toJson(this.playerAction).replaceAll("\r*\n*", ""));
-                this.playerAction = new Action(playerId, PlayerDirection.NO_DIRECTION, false);
-                sleep(50);
+        long lastSend = 0;
+        try {
+            while (!isInterrupted()) {
+                PlayerDirection direction;
+                boolean bomb;
+                synchronized (inputLock) {
+                    long now = System.currentTimeMillis();
+                    while (!inputPending && now < lastSend + Constants.heartbeatInterval) {
+                        inputLock.wait(lastSend + Constants.heartbeatInterval - now);
+                        now = System.currentTimeMillis();
+                    }
+                    while (inputPending && now < lastSend + Constants.inputInterval) {
+                        inputLock.wait(lastSend + Constants.inputInterval - now);
+                        now = System.currentTimeMillis();
+                    }
+                    direction = playerDirection;
+                    bomb = bombPlanted;
+                    playerDirection = PlayerDirection.NO_DIRECTION;
+                    bombPlanted = false;
+                    inputPending = false;
+                    lastSend = now;
+                }
+                sequence++;
+                long sent = System.nanoTime();
+                if (predictor != null) {
+                    predictor.predict(sequence, direction, sent);
+                }
+                diagnostics.actionSent(sequence, sent);
+                sendAction(direction, bomb, sequence);
+            }
+        } catch (InterruptedException e) {
+            // closed while waiting for input
+        }
+    }
 
-            } catch (InterruptedException e) {
-                System.out.println("Failed to send action " + e.getMessage());
+    /**
+     * Writes an action as one line, the frame of direction and bomb is precomputed, only the sequence is encoded
+     *
+     * @param direction
+     * @param bomb
+     * @param sequence
+     */
+    private void sendAction(PlayerDirection direction, boolean bomb, int sequence) {
+        char[] prefix = FRAMES[direction.ordinal() * 2 + (bomb ? 1 : 0)];
+        System.arraycopy(prefix, 0, frame, 0, prefix.length);
+        int length = prefix.length;
+        int digits = 1;
+        for (int rest = sequence / 10; rest > 0; rest /= 10) {
+            digits++;
+        }
+        for (int i = length + digits - 1, rest = sequence; i >= length; i--, rest /= 10) {
+            frame[i] = (char) ('0' + rest % 10);
+        }
+        length += digits;
+        frame[length++] = '}';
+        frame[length++] = '\n';
+        serverOut.write(frame, 0, length);
+        serverOut.flush();
+    }
+
+    /**
+     * Creates the json of every combination of direction and bomb up to the value of the sequence
+     *
+     * @return char[][] indexed by direction ordinal * 2 + 1 if a bomb is planted
+     */
+    private static char[][] createFrames() {
+        char[][] frames = new char[DIRECTIONS.length * 2][];
+        for (PlayerDirection direction : DIRECTIONS) {
+            for (int bomb = 0; bomb < 2; bomb++) {
+                frames[direction.ordinal() * 2 + bomb] = ("{\"playerDirection\":\"" + direction.name()
+                        + "\",\"bombPlanted\":" + (bomb == 1) + ",\"sequence\":").toCharArray();
             }
         }
+        return frames;
     }
 }
@@ -1,7 +1,7 @@
-import adapters.FieldTypeAdapter;
+import adapters.LeaderboardResponseTypeAdapter;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
-import proxy.Field;
+import proxy.LeaderboardResponse;
 
 /**
  * Handles parsing of messages from backend.
@@ -9,30 +9,21 @@ import proxy.Field;
 public class MessageParser {
 
     /**
-     * Parses the map into a internal object to allow operations with the objects
+     * Parses a leaderboard response. The map is sent as an array, so only objects are parsed.
      *
-     * @param message Server message which contains the map
-     * @return The parsed map as a Field[]
+     * @param message Server message which contains the leaderboard
+     * @return The parsed LeaderboardResponse or null if the message isn't a leaderboard response
      */
-    public static Field[] parseMessage(String message) {
-        try {
-            GsonBuilder builder = new GsonBuilder();
-            builder.registerTypeAdapter(Field[].class, new FieldTypeAdapter());
-            builder.setPrettyPrinting();
-            Gson gson = builder.create();
-            return gson.fromJson(message, Field[].class);
-        } catch (Exception e) {
-//            System.out.println("Couldn't parse message: " + e.getMessage());
+    public static LeaderboardResponse parseLeaderboardMessage(String message) {
+        if (message == null || !message.startsWith("{")) {
             return null;
         }
-    }
-
-    public static Long parseTimerMessage(String message) {
         try {
-            Long timer = Long.parseLong(message);
-            return timer;
+            GsonBuilder builder = new GsonBuilder();
+            builder.registerTypeAdapter(LeaderboardResponse.class, new LeaderboardResponseTypeAdapter());
+            Gson gson = builder.create();
+            return gson.fromJson(message, LeaderboardResponse.class);
         } catch (Exception e) {
-//            System.out.println("Couldn't parse message: " + e.getMessage());
             return null;
         }
     }
@@ -0,0 +1,543 @@
+import config.Constants;
+import proxy.Action;
+import proxy.Field;
+import proxy.Player;
+import proxy.enums.BlockType;
+import proxy.enums.BombState;
+import proxy.enums.PlayerColor;
+import proxy.enums.PlayerDirection;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.function.Supplier;
+
+/**
+ * Decodes the messages of the server without allocating in steady state.
+ * Every message is a line, its first character is the tag of the message type:
+ * '[' a map, '{' a leaderboard response, a digit the countdown and the ACKNOWLEDGEMENT_PREFIX the sequence
+ * of the last action the server has evaluated.
+ * Maps are parsed straight into reused Field[] buffers, players come from a pool and
+ * names and enum values are matched against known values instead of creating strings.
+ */
+public class SnapshotDecoder {
+    private static final BlockType[] BLOCK_TYPES = BlockType.values();
+    private static final BombState[] BOMB_STATES = BombState.values();
+    private static final PlayerColor[] PLAYER_COLORS = PlayerColor.values();
+    private static final PlayerDirection[] PLAYER_DIRECTIONS = PlayerDirection.values();
+    private static final int KNOWN_NAME_COUNT = 16;
+    private final Reader in;
+    private final Supplier<Field[]> freeMaps;
+    private final char[] chunk = new char[8192];
+    private final ArrayDeque<Player> freePlayers = new ArrayDeque<>();
+    private final String[] knownNames = new String[KNOWN_NAME_COUNT];
+    private int nextKnownName;
+    private int chunkStart;
+    private int chunkEnd;
+    private char[] line = new char[16384];
+    private int length;
+    private int position;
+    private int mapLength = Constants.blocksPerLine * Constants.blocksPerLine;
+    private Field[] map;
+    private long timer;
+    private long acknowledgement;
+    private long decodeTime;
+    private int messageLength;
+
+    /**
+     * @param in       Reader of the server connection
+     * @param freeMaps supplies buffers to decode maps into, may return null
+     */
+    public SnapshotDecoder(Reader in, Supplier<Field[]> freeMaps) {
+        this.in = in;
+        this.freeMaps = freeMaps;
+    }
+
+    /**
+     * Reads and decodes the next message
+     *
+     * @return MessageType of the message, END if the connection has been closed
+     * @throws IOException thrown if the connection fails
+     */
+    public MessageType next() throws IOException {
+        if (!readLine()) {
+            return MessageType.END;
+        }
+        long start = System.nanoTime();
+        MessageType type = decode();
+        decodeTime = System.nanoTime() - start;
+        return type;
+    }
+
+    /**
+     * Decodes the message in the line buffer
+     *
+     * @return MessageType of the message
+     */
+    private MessageType decode() {
+        position = 0;
+        skipWhitespace();
+        if (position == length) {
+            return MessageType.UNKNOWN;
+        }
+        char tag = line[position];
+        if (tag == '[') {
+            return parseMap() ? MessageType.MAP : MessageType.UNKNOWN;
+        }
+        if (tag == '{') {
+            return MessageType.LEADERBOARD;
+        }
+        if (tag == '-' || (tag >= '0' && tag <= '9')) {
+            timer = parseLong();
+            skipWhitespace();
+            return position == length ? MessageType.TIMER : MessageType.UNKNOWN;
+        }
+        String prefix = Action.ACKNOWLEDGEMENT_PREFIX;
+        if (position + prefix.length() < length && keyEquals(position, position + prefix.length(), prefix)) {
+            position += prefix.length();
+            try {
+                acknowledgement = parseLong();
+            } catch (IllegalStateException e) {
+                return MessageType.UNKNOWN;
+            }
+            skipWhitespace();
+            return position == length ? MessageType.ACKNOWLEDGEMENT : MessageType.UNKNOWN;
+        }
+        return MessageType.UNKNOWN;
+    }
+
+    /**
+     * Returns the decoded map and hands the buffer over to the caller, the next map is decoded into another buffer
+     *
+     * @return Field[] of the last MAP message
+     */
+    public Field[] takeMap() {
+        Field[] decodedMap = map;
+        map = null;
+        return decodedMap;
+    }
+
+    /**
+     * @return countdown of the last TIMER message in ms
+     */
+    public long getTimer() {
+        return timer;
+    }
+
+    /**
+     * @return sequence of the last ACKNOWLEDGEMENT message
+     */
+    public long getAcknowledgement() {
+        return acknowledgement;
+    }
+
+    /**
+     * @return time of decoding the last message in ns, without waiting for the connection
+     */
+    public long getDecodeTime() {
+        return decodeTime;
+    }
+
+    /**
+     * @return amount of chars of the last message including the line break
+     */
+    public int getMessageLength() {
+        return messageLength;
+    }
+
+    /**
+     * Creates a String of the last message, used for the rare messages which aren't decoded in place
+     *
+     * @return String of the last message
+     */
+    public String getMessage() {
+        return new String(line, 0, length);
+    }
+
+    /**
+     * Reads the next line into the line buffer, line breaks are removed
+     *
+     * @return false if the connection has been closed before a line has been read
+     * @throws IOException thrown if the connection fails
+     */
+    private boolean readLine() throws IOException {
+        length = 0;
+        while (true) {
+            if (chunkStart == chunkEnd) {
+                int read = in.read(chunk);
+                if (read < 0) {
+                    messageLength = length;
+                    return length > 0;
+                }
+                chunkStart = 0;
+                chunkEnd = read;
+            }
+            int lineEnd = chunkStart;
+            while (lineEnd < chunkEnd && chunk[lineEnd] != '\n') {
+                lineEnd++;
+            }
+            append(chunkStart, lineEnd);
+            if (lineEnd < chunkEnd) {
+                chunkStart = lineEnd + 1;
+                messageLength = length + 1;
+                if (length > 0 && line[length - 1] == '\r') {
+                    length--;
+                }
+                return true;
+            }
+            chunkStart = chunkEnd;
+        }
+    }
+
+    private void append(int from, int to) {
+        int count = to - from;
+        if (length + count > line.length) {
+            line = Arrays.copyOf(line, Math.max(line.length * 2, length + count));
+        }
+        System.arraycopy(chunk, from, line, length, count);
+        length += count;
+    }
+
+    /**
+     * Parses a map into a reused buffer, the buffer only grows or shrinks if the size of the map changes
+     *
+     * @return false if the message isn't a valid map
+     */
+    private boolean parseMap() {
+        if (map == null) {
+            map = freeMaps.get();
+        }
+        if (map == null) {
+            map = new Field[mapLength];
+        }
+        try {
+            expect('[');
+            int count = 0;
+            skipWhitespace();
+            if (peek() == ']') {
+                position++;
+            } else {
+                while (true) {
+                    if (count == map.length) {
+                        map = Arrays.copyOf(map, Math.max(count * 2, 1));
+                    }
+                    if (map[count] == null) {
+                        map[count] = new Field();
+                    }
+                    parseField(map[count]);
+                    count++;
+                    if (nextSeparator() == ']') {
+                        break;
+                    }
+                }
+            }
+            if (count != map.length) {
+                map = Arrays.copyOf(map, count);
+            }
+            mapLength = count;
+            return true;
+        } catch (IllegalStateException e) {
+            return false;
+        }
+    }
+
+    private void parseField(Field field) {
+        field.setGround(BlockType.GRASS);
+        field.setBombState(BombState.NO_BOMB);
+        expect('{');
+        skipWhitespace();
+        if (peek() == '}') {
+            position++;
+            return;
+        }
+        do {
+            int keyStart = parseStringBounds();
+            int keyEnd = position - 1;
+            expect(':');
+            if (keyEquals(keyStart, keyEnd, "players")) {
+                parsePlayers(field);
+            } else if (keyEquals(keyStart, keyEnd, "ground")) {
+                field.setGround(parseEnum(BLOCK_TYPES, BlockType.GRASS));
+            } else if (keyEquals(keyStart, keyEnd, "bombState")) {
+                field.setBombState(parseEnum(BOMB_STATES, BombState.NO_BOMB));
+            } else if (keyEquals(keyStart, keyEnd, "x")) {
+                field.setX((int) parseLong());
+            } else if (keyEquals(keyStart, keyEnd, "y")) {
+                field.setY((int) parseLong());
+            } else if (keyEquals(keyStart, keyEnd, "bombTimer")) {
+                field.setBombTimer(parseLong());
+            } else {
+                skipValue();
+            }
+        } while (nextSeparator() == ',');
+    }
+
+    private void parsePlayers(Field field) {
+        Player[] players = field.getPlayers();
+        if (players == null) {
+            players = new Player[4];
+        }
+        int slot = 0;
+        expect('[');
+        skipWhitespace();
+        if (peek() == ']') {
+            position++;
+        } else {
+            do {
+                if (slot == players.length) {
+                    players = Arrays.copyOf(players, slot * 2);
+                }
+                skipWhitespace();
+                if (peek() == 'n') {
+                    skipValue();
+                    releasePlayer(players[slot]);
+                    players[slot] = null;
+                } else {
+                    if (players[slot] == null) {
+                        players[slot] = acquirePlayer();
+                    }
+                    parsePlayer(players[slot]);
+                }
+                slot++;
+            } while (nextSeparator() == ',');
+        }
+        for (; slot < players.length; slot++) {
+            releasePlayer(players[slot]);
+            players[slot] = null;
+        }
+        field.setPlayers(players);
+    }
+
+    private void parsePlayer(Player player) {
+        player.setName("");
+        player.setColor(PlayerColor.YELLOW);
+        player.setDirection(PlayerDirection.NO_DIRECTION);
+        expect('{');
+        skipWhitespace();
+        if (peek() == '}') {
+            position++;
+            return;
+        }
+        do {
+            int keyStart = parseStringBounds();
+            int keyEnd = position - 1;
+            expect(':');
+            if (keyEquals(keyStart, keyEnd, "name")) {
+                player.setName(parseName());
+            } else if (keyEquals(keyStart, keyEnd, "color")) {
+                player.setColor(parseEnum(PLAYER_COLORS, PlayerColor.YELLOW));
+            } else if (keyEquals(keyStart, keyEnd, "direction")) {
+                player.setDirection(parseEnum(PLAYER_DIRECTIONS, PlayerDirection.NO_DIRECTION));
+            } else {
+                skipValue();
+            }
+        } while (nextSeparator() == ',');
+    }
+
+    private Player acquirePlayer() {
+        Player player = freePlayers.poll();
+        return player != null ? player : new Player();
+    }
+
+    private void releasePlayer(Player player) {
+        if (player != null) {
+            freePlayers.push(player);
+        }
+    }
+
+    /**
+     * Parses a player name, names which have been seen before are reused instead of creating a new String
+     *
+     * @return String of the name
+     */
+    private String parseName() {
+        skipWhitespace();
+        if (peek() == 'n') {
+            skipValue();
+            return "";
+        }
+        int start = parseStringBounds();
+        int end = position - 1;
+        for (int i = start; i < end; i++) {
+            if (line[i] == '\\') {
+                return unescape(start, end);
+            }
+        }
+        for (String knownName : knownNames) {
+            if (knownName != null && keyEquals(start, end, knownName)) {
+                return knownName;
+            }
+        }
+        String name = new String(line, start, end - start);
+        knownNames[nextKnownName] = name;
+        nextKnownName = (nextKnownName + 1) % KNOWN_NAME_COUNT;
+        return name;
+    }
+
+    private String unescape(int start, int end) {
+        StringBuilder name = new StringBuilder(end - start);
+        for (int i = start; i < end; i++) {
+            char c = line[i];
+            if (c != '\\' || i + 1 == end) {
+                name.append(c);
+                continue;
+            }
+            c = line[++i];
+            switch (c) {
+                case 'n' -> name.append('\n');
+                case 't' -> name.append('\t');
+                case 'r' -> name.append('\r');
+                case 'b' -> name.append('\b');
+                case 'f' -> name.append('\f');
+                case 'u' -> {
+                    if (i + 4 < end) {
+                        name.append((char) Integer.parseInt(new String(line, i + 1, 4), 16));
+                        i += 4;
+                    }
+                }
+                default -> name.append(c);
+            }
+        }
+        return name.toString();
+    }
+
+    private <E extends Enum<E>> E parseEnum(E[] values, E fallback) {
+        skipWhitespace();
+        if (peek() != '"') {
+            skipValue();
+            return fallback;
+        }
+        int start = parseStringBounds();
+        int end = position - 1;
+        for (E value : values) {
+            if (keyEquals(start, end, value.name())) {
+                return value;
+            }
+        }
+        return fallback;
+    }
+
+    private long parseLong() {
+        skipWhitespace();
+        boolean negative = peek() == '-';
+        if (negative) {
+            position++;
+        }
+        long value = 0;
+        int start = position;
+        while (position < length && line[position] >= '0' && line[position] <= '9') {
+            value = value * 10 + line[position++] - '0';
+        }
+        if (position == start) {
+            throw new IllegalStateException("Number expected at " + position);
+        }
+        while (position < length && (line[position] == '.' || line[position] == 'e' || line[position] == 'E'
+                || line[position] == '+' || line[position] == '-' || (line[position] >= '0' && line[position] <= '9'))) {
+            position++;
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * Skips a string and returns the index of its first character, position is behind the closing quote
+     *
+     * @return int index of the first character inside the quotes
+     */
+    private int parseStringBounds() {
+        expect('"');
+        int start = position;
+        while (position < length && line[position] != '"') {
+            position += line[position] == '\\' ? 2 : 1;
+        }
+        if (position >= length) {
+            throw new IllegalStateException("Unterminated string");
+        }
+        position++;
+        return start;
+    }
+
+    private void skipValue() {
+        skipWhitespace();
+        char c = peek();
+        if (c == '"') {
+            parseStringBounds();
+            return;
+        }
+        if (c == '{' || c == '[') {
+            int depth = 0;
+            do {
+                c = line[position];
+                if (c == '"') {
+                    parseStringBounds();
+                    continue;
+                }
+                if (c == '{' || c == '[') {
+                    depth++;
+                } else if (c == '}' || c == ']') {
+                    depth--;
+                }
+                position++;
+            } while (depth > 0 && position < length);
+            return;
+        }
+        while (position < length && ",}] \t".indexOf(line[position]) < 0) {
+            position++;
+        }
+    }
+
+    private boolean keyEquals(int start, int end, String key) {
+        if (end - start != key.length()) {
+            return false;
+        }
+        for (int i = 0; i < key.length(); i++) {
+            if (line[start + i] != key.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Consumes the separator behind a value
+     *
+     * @return ',' if another value follows, else the closing bracket
+     */
+    private char nextSeparator() {
+        skipWhitespace();
+        char separator = peek();
+        if (separator != ',' && separator != '}' && separator != ']') {
+            throw new IllegalStateException("Separator expected at " + position);
+        }
+        position++;
+        return separator;
+    }
+
+    private void expect(char expected) {
+        skipWhitespace();
+        if (peek() != expected) {
+            throw new IllegalStateException(expected + " expected at " + position);
+        }
+        position++;
+    }
+
+    private char peek() {
+        if (position >= length) {
+            throw new IllegalStateException("Unexpected end of message");
+        }
+        return line[position];
+    }
+
+    private void skipWhitespace() {
+        while (position < length && line[position] <= ' ') {
+            position++;
+        }
+    }
+
+    /**
+     * Types of the messages sent by the server
+     */
+    public enum MessageType {
+        MAP, TIMER, LEADERBOARD, ACKNOWLEDGEMENT, UNKNOWN, END
+    }
+}
@@ -0,0 +1,46 @@
+package adapters;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import proxy.LeaderboardQuery;
+
+import java.io.IOException;
+
+/**
+ * Adapter to parse Json. Somehow needed by Gson in the frontend.
+ */
+public class LeaderboardQueryTypeAdapter extends TypeAdapter<LeaderboardQuery> {
+
+    /**
+     * Implementation to parse LeaderboardQuery to JSON
+     *
+     * @param out
+     * @param query
+     * @throws IOException
+     */
+    @Override
+    public void write(JsonWriter out, LeaderboardQuery query) throws IOException {
+        out.beginObject();
+        out.name("queryType");
+        out.value(query.getQueryType().name());
+        out.name("playerName");
+        out.value(query.getPlayerName());
+        out.name("limit");
+        out.value(query.getLimit());
+        out.endObject();
+    }
+
+    /**
+     * Implementation to convert the Json to LeaderboardQuery
+     * Not implemented because it is not needed.
+     *
+     * @param in
+     * @return
+     * @throws IOException
+     */
+    @Override
+    public LeaderboardQuery read(JsonReader in) throws IOException {
+        return null;
+    }
+}
@@ -0,0 +1,103 @@
+package adapters;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import proxy.LeaderboardEntry;
+import proxy.LeaderboardResponse;
+import proxy.enums.LeaderboardQueryType;
+
+import java.io.IOException;
+import java.util.ArrayList;
+
+/**
+ * Adapter to parse Json. Somehow needed by Gson in the frontend.
+ */
+public class LeaderboardResponseTypeAdapter extends TypeAdapter<LeaderboardResponse> {
+
+    /**
+     * Implementation to convert the LeaderboardResponse to a json for Gson
+     * Not implemented because it is not needed.
+     *
+     * @param out
+     * @param value
+     * @throws IOException
+     */
+    @Override
+    public void write(JsonWriter out, LeaderboardResponse value) throws IOException {
+    }
+
+    /**
+     * Implementation to read the Json and parse it to a LeaderboardResponse
+     *
+     * @param in
+     * @return null if the Json isn't a LeaderboardResponse
+     * @throws IOException
+     */
+    @Override
+    public LeaderboardResponse read(JsonReader in) throws IOException {
+        if (!in.peek().equals(JsonToken.BEGIN_OBJECT)) {
+            in.skipValue();
+            return null;
+        }
+        LeaderboardResponse response = new LeaderboardResponse();
+        in.beginObject();
+        while (in.hasNext()) {
+            switch (in.nextName()) {
+                case "queryType" -> {
+                    switch (in.nextString()) {
+                        case "WEEKLY_TOP" -> response.setQueryType(LeaderboardQueryType.WEEKLY_TOP);
+                        case "PLAYER" -> response.setQueryType(LeaderboardQueryType.PLAYER);
+                        default -> response.setQueryType(LeaderboardQueryType.TOP);
+                    }
+                }
+                case "entries" -> response.setEntries(parseEntries(in));
+                default -> in.skipValue();
+            }
+        }
+        in.endObject();
+        return response.getQueryType() == null || response.getEntries() == null ? null : response;
+    }
+
+    /**
+     * Parses the LeaderboardEntry[] in the Json
+     *
+     * @param in
+     * @return
+     * @throws IOException
+     */
+    private LeaderboardEntry[] parseEntries(JsonReader in) throws IOException {
+        ArrayList<LeaderboardEntry> entries = new ArrayList<>();
+        in.beginArray();
+        while (in.hasNext()) {
+            LeaderboardEntry entry = new LeaderboardEntry();
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "playerName" -> entry.setPlayerName(in.nextString());
+                    case "rank" -> entry.setRank(in.nextInt());
+                    case "total" -> entry.setTotal(in.nextLong());
+                    case "weeklyTotal" -> entry.setWeeklyTotal(in.nextLong());
+                    case "matches" -> entry.setMatches(in.nextInt());
+                    case "wins" -> entry.setWins(in.nextInt());
+                    case "lastPlayed" -> entry.setLastPlayed(in.nextLong());
+                    case "history" -> {
+                        ArrayList<Integer> history = new ArrayList<>();
+                        in.beginArray();
+                        while (in.hasNext()) {
+                            history.add(in.nextInt());
+                        }
+                        in.endArray();
+                        entry.setHistory(history.stream().mapToInt(Integer::intValue).toArray());
+                    }
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+            entries.add(entry);
+        }
+        in.endArray();
+        return entries.toArray(new LeaderboardEntry[0]);
+    }
+}
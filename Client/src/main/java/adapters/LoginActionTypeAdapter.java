@@ -27,6 +27,10 @@ public class LoginActionTypeAdapter extends TypeAdapter<LoginAction> {
         out.value(loginAction.getPlayerName());
         out.name("playerId");
         out.value(loginAction.getPlayerId());
+        if (loginAction.getResumeToken() != null) {
+            out.name("resumeToken");
+            out.value(loginAction.getResumeToken());
+        }
         out.endObject();
     }
 
@@ -45,6 +49,7 @@ public class LoginActionTypeAdapter extends TypeAdapter<LoginAction> {
             switch (in.nextName()) {
                 case "playerName" -> la.setPlayerName(in.nextString());
                 case "playerId" -> la.setPlayerId(in.nextInt());
+                case "resumeToken" -> la.setResumeToken(in.nextString());
                 default -> in.skipValue();
             }
         }
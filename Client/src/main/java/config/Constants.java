@@ -25,10 +25,40 @@ public class Constants {
     public static String bombExplode = resourcePath + "bomb_explode.png";
     public static String fireFromExplosion = resourcePath + "fire.png";
 
+    public static String[] textures = {solidBlock, brittleBlock, sandBlock, grassBlock, grassBlockFire, destroyedWall,
+            burnedSand, playerOne, playerTwo, playerThree, playerFour, nothing, bombPlacedBlack, bombPlacedRed,
+            bombExplode, fireFromExplosion};
+    public static boolean useTextureAtlas = true; // pack all textures into one image
+
     public static String musicFolder = "assets/music";
 
     public static String timerTextId = "timerText";
     public static String timerBackId = "timerBack";
+    public static String leaderboardTextId = "leaderboardText";
+
+    public static int leaderboardSize = 10;
+    public static int leaderboardDisplayDuration = 5000; // in ms
+
+    public static String renderer = System.getProperty("renderer", "blocks"); // "blocks" or "canvas"
+    public static int frameBudget = 8; // in ms, UI-thread time per frame for applying the map
+    public static int frameRate = 60; // pulses per second of JavaFX, longer pulses count as dropped frames
+    public static boolean interpolatePlayers = true; // slide players between blocks instead of jumping
+    public static int snapshotInterval = 45; // in ms, expected interval between two maps of the server
+    public static int interpolationDelayMin = 20; // in ms
+    public static int interpolationDelayMax = 250; // in ms
+    public static boolean predictMovement = true; // move the own player before the server confirms the move
+    public static int predictionTimeout = 500; // in ms, predicted moves the server doesn't acknowledge are dropped
+
+    public static int connectTimeout = 3000; // in ms
+    public static int connectionTimeout = 5000; // in ms, a connection without any message for this long is lost
+    public static int reconnectDelayMin = 250; // in ms, doubled after every failed attempt
+    public static int reconnectDelayMax = 8000; // in ms
+    public static int inputInterval = 15; // in ms, keys pressed within this interval are sent as one action
+    public static int heartbeatInterval = 1000; // in ms, an empty action is sent after this long without input
+
+    public static int diagnosticsInterval = 500; // in ms, interval between two samples of the diagnostics overlay
+    public static int diagnosticsHistory = 240; // samples kept for the csv export
+    public static String diagnosticsFolder = System.getProperty("user.dir");
 
     public static int blockSize = 64; // in px
     public static int blocksPerLine = 15; // 15 blocks
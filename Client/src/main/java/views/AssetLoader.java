@@ -0,0 +1,147 @@
+package views;
+
+import config.Constants;
+import javafx.scene.image.Image;
+import javafx.scene.media.Media;
+import javafx.scene.media.MediaPlayer;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Loads all assets in parallel at startup while the splash and the connection dialogs are shown,
+ * so nothing is read from the disk during a match except the streamed music.
+ * Every texture is decoded by its own task, the TextureManager packs the atlas as soon as all of them are decoded.
+ * The music folder is listed and a Media is created for every song, the player of the first song is prepared
+ * so it can start playing right away.
+ */
+public class AssetLoader {
+    private final ExecutorService executor;
+    private final Map<String, Image> images = new ConcurrentHashMap<>();
+    private final AtomicInteger loadedAssets = new AtomicInteger();
+    private final int assetCount = Constants.textures.length + 2;
+    private CompletableFuture<Void> completion;
+    private volatile Media[] songs = new Media[0];
+    private volatile String[] songNames = new String[0];
+    private volatile MediaPlayer firstSongPlayer;
+    private volatile long duration = -1;
+
+    public AssetLoader() {
+        int threads = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), Constants.textures.length));
+        executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "AssetLoader");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Starts loading all assets, returns immediately
+     *
+     * @return CompletableFuture completed once every asset is loaded
+     */
+    public synchronized CompletableFuture<Void> start() {
+        if (completion != null) {
+            return completion;
+        }
+        long start = System.nanoTime();
+        CompletableFuture<?>[] textures = Arrays.stream(Constants.textures)
+                .map(texture -> CompletableFuture.runAsync(() -> decodeTexture(texture), executor))
+                .toArray(CompletableFuture[]::new);
+        CompletableFuture<Void> atlas = CompletableFuture.allOf(textures).thenRunAsync(() -> {
+            TextureManager.initialize(images);
+            loadedAssets.incrementAndGet();
+        }, executor);
+        CompletableFuture<Void> music = CompletableFuture.runAsync(this::loadMusic, executor);
+        completion = CompletableFuture.allOf(atlas, music).whenComplete((result, e) -> {
+            duration = System.nanoTime() - start;
+            executor.shutdown();
+        });
+        return completion;
+    }
+
+    /**
+     * @return share of loaded assets between 0 and 1
+     */
+    public double getProgress() {
+        return (double) loadedAssets.get() / assetCount;
+    }
+
+    /**
+     * @return time of loading all assets in ns or -1 if they aren't loaded yet
+     */
+    public long getDuration() {
+        return duration;
+    }
+
+    /**
+     * @return Media of every song of the music folder sorted by name, null for songs which can't be played
+     */
+    public Media[] getSongs() {
+        return songs;
+    }
+
+    /**
+     * @return file names of the songs
+     */
+    public String[] getSongNames() {
+        return songNames;
+    }
+
+    /**
+     * Hands the prepared player of the first song over to the caller
+     *
+     * @return MediaPlayer of the first song or null if it has already been taken or can't be played
+     */
+    public synchronized MediaPlayer takeFirstSongPlayer() {
+        MediaPlayer player = firstSongPlayer;
+        firstSongPlayer = null;
+        return player;
+    }
+
+    private void decodeTexture(String texture) {
+        Image image = TextureManager.loadImage(texture);
+        if (image != null) {
+            images.put(texture, image);
+        }
+        loadedAssets.incrementAndGet();
+    }
+
+    /**
+     * Lists the music folder, creates a Media for every song and prepares the player of the first song
+     */
+    private void loadMusic() {
+        File[] files = new File(Constants.musicFolder).listFiles(File::isFile);
+        if (files == null) {
+            files = new File[0];
+        }
+        Arrays.sort(files, Comparator.comparing(File::getName));
+        Media[] media = new Media[files.length];
+        String[] names = new String[files.length];
+        for (int i = 0; i < files.length; i++) {
+            names[i] = files[i].getName();
+            try {
+                media[i] = new Media(files[i].toURI().toString());
+            } catch (Exception e) {
+                System.out.println("Failed to load media: " + e.getMessage());
+            }
+        }
+        if (media.length > 0 && media[0] != null) {
+            try {
+                firstSongPlayer = new MediaPlayer(media[0]);
+            } catch (Exception e) {
+                System.out.println("Failed to load media: " + e.getMessage());
+            }
+        }
+        songNames = names;
+        songs = media;
+        loadedAssets.incrementAndGet();
+    }
+}
@@ -0,0 +1,53 @@
+package views;
+
+import javafx.scene.Node;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.StackPane;
+import javafx.scene.layout.VBox;
+import proxy.Field;
+
+import java.util.ArrayList;
+
+/**
+ * Node-based renderer, every block is a StackPane holding image views and name plates.
+ */
+public class BlockMapView implements MapView {
+    private static final int DEADLINE_CHECK_INTERVAL = 16;
+    private final ArrayList<BlockView> blockViews = new ArrayList<>();
+    private final VBox rows = new VBox();
+
+    public BlockMapView(int blocksPerLine) {
+        HBox row = new HBox();
+        for (int i = 0; i < blocksPerLine * blocksPerLine; i++) {
+            BlockView blockView = new BlockView(i);
+            StackPane stackPane = new StackPane();
+            blockView.setStackPane(stackPane);
+            blockViews.add(blockView);
+            row.getChildren().add(stackPane);
+            if ((i + 1) % blocksPerLine == 0) {
+                rows.getChildren().add(row);
+                row = new HBox();
+            }
+        }
+    }
+
+    @Override
+    public Node getNode() {
+        return rows;
+    }
+
+    @Override
+    public int render(Field[] map, int fromIndex, long deadline) {
+        for (int i = fromIndex; i < map.length; i++) {
+            if (i > fromIndex && i % DEADLINE_CHECK_INTERVAL == 0 && System.nanoTime() > deadline) {
+                return i;
+            }
+            if (blockViews.size() < i + 1) {
+                blockViews.add(new BlockView(i));
+            }
+
+            blockViews.get(i).setField(map[i]);
+        }
+        return map.length;
+    }
+}
@@ -1,9 +1,7 @@
 package views;
 
 import config.Constants;
-import javafx.application.Platform;
 import javafx.geometry.Pos;
-import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.layout.StackPane;
 import javafx.scene.text.Font;
@@ -14,8 +12,6 @@ import proxy.Player;
 import proxy.enums.BlockType;
 import proxy.enums.BombState;
 
-import java.io.FileInputStream;
-
 /**
  * View which holds all the Logic to render the different blocks.
  */
@@ -23,7 +19,6 @@ public class BlockView {
     private final ImageView[] players;
     private final Text[] playerNames;
     private final int id;
-    private boolean isRendering = false;
     private StackPane stackPane;
     private ImageView block;
     private ImageView bomb;
@@ -51,21 +46,16 @@ public class BlockView {
         if (playerNames[playerId] == null) {
             playerNames[playerId] = new Text();
         }
-        try {
-            Image image = new Image(new FileInputStream(imagePath));
-            ImageView playerImage = new ImageView();
-            playerImage.setImage(image);
-            playerImage.setTranslateX(offset);
-            playerImage.setTranslateY(offset);
-            players[playerId] = playerImage;
-            Text namePlate = new Text(playerName);
-            namePlate.setFont(Font.font("Verdana", FontWeight.BOLD, 8));
-            namePlate.setTranslateX(offset);
-            namePlate.setTranslateY(offset);
-            playerNames[playerId] = namePlate;
-        } catch (Exception e) {
-            System.out.println("Failed to load texture. " + e.getMessage());
-        }
+        ImageView playerImage = new ImageView();
+        TextureManager.getInstance().applyTexture(playerImage, imagePath);
+        playerImage.setTranslateX(offset);
+        playerImage.setTranslateY(offset);
+        players[playerId] = playerImage;
+        Text namePlate = new Text(playerName);
+        namePlate.setFont(Font.font("Verdana", FontWeight.BOLD, 8));
+        namePlate.setTranslateX(offset);
+        namePlate.setTranslateY(offset);
+        playerNames[playerId] = namePlate;
     }
 
     /**
@@ -79,12 +69,7 @@ public class BlockView {
             if (players[i] == null) {
                 setPlayer(Constants.nothing, i, "", offset);
             } else {
-                switch (players[i].getColor()) {
-                    case BLUE -> setPlayer(Constants.playerOne, i, players[i].getName(), offset);
-                    case RED -> setPlayer(Constants.playerTwo, i, players[i].getName(), offset);
-                    case GREEN -> setPlayer(Constants.playerThree, i, players[i].getName(), offset);
-                    case YELLOW -> setPlayer(Constants.playerFour, i, players[i].getName(), offset);
-                }
+                setPlayer(TextureManager.playerTexture(players[i].getColor()), i, players[i].getName(), offset);
                 offset += 3;
             }
         }
@@ -99,23 +84,11 @@ public class BlockView {
         if (bomb == null) {
             bomb = new ImageView();
         }
-        try {
-            Image image = new Image(new FileInputStream(imagePath));
-            bomb.setImage(image);
-        } catch (Exception e) {
-            System.out.println("Failed to load texture. " + e.getMessage());
-        }
-
+        TextureManager.getInstance().applyTexture(bomb, imagePath);
     }
 
     private void setBomb(BombState state) {
-        switch (state) {
-            case BLACK_STATE -> setBomb(Constants.bombPlacedBlack);
-            case RED_STATE -> setBomb(Constants.bombPlacedRed);
-            case EXPLODING_STATE -> setBomb(Constants.bombExplode);
-            case FIRE_STATE -> setBomb(Constants.fireFromExplosion);
-            case NO_BOMB -> setBomb(Constants.nothing);
-        }
+        setBomb(TextureManager.bombTexture(state));
     }
 
     /**
@@ -127,12 +100,7 @@ public class BlockView {
         if (block == null) {
             block = new ImageView();
         }
-        try {
-            Image image = new Image(new FileInputStream(imagePath));
-            block.setImage(image);
-        } catch (Exception e) {
-            System.out.println("Failed to load texture. " + e.getMessage());
-        }
+        TextureManager.getInstance().applyTexture(block, imagePath);
     }
 
     /**
@@ -141,14 +109,7 @@ public class BlockView {
      * @param type
      */
     private void setBlock(BlockType type) {
-        switch (type) {
-            case SOLID_WALL -> setBlock(Constants.solidBlock);
-            case BRITTLE_WALL -> setBlock(Constants.brittleBlock);
-            case GRASS -> setBlock(Constants.grassBlock);
-            case EXPLODED_GRASS -> setBlock(Constants.grassBlockFire);
-            case DIRT, EXPLODED_DIRT -> setBlock(Constants.sandBlock);
-            case EXPLODED_WALL -> setBlock(Constants.destroyedWall);
-        }
+        setBlock(TextureManager.groundTexture(type));
     }
 
     /**
@@ -184,10 +145,12 @@ public class BlockView {
      */
     private boolean hasDelta(Field newField) {
         if (this.field == null) {
-            this.field = newField;
+            this.field = FieldHelper.copy(newField, null);
             setBlock(newField.getGround());
             setBomb(newField.getBombState());
-            setPlayers(newField.getPlayers());
+            if (!Constants.interpolatePlayers) {
+                setPlayers(newField.getPlayers());
+            }
             return true;
         }
         boolean isDifferent = false;
@@ -200,24 +163,27 @@ public class BlockView {
             setBomb(newField.getBombState());
             isDifferent = true;
         }
-        if (hasPlayerDelta(newField.getPlayers())) {
+        if (!Constants.interpolatePlayers && hasPlayerDelta(newField.getPlayers())) {
             setPlayers(newField.getPlayers());
             isDifferent = true;
         }
-        this.field = newField;
+        FieldHelper.copy(newField, this.field);
         return isDifferent;
     }
 
+    /**
+     * Applies the field of the latest map, the field is copied because maps are reused
+     *
+     * @param field
+     */
     public void setField(Field field) {
         if (hasDelta(field)) {
-            this.field = field;
             render();
         }
     }
 
     /**
      * Set up the stackpane which contains the image views
-     * Reference is needed to be able to update the view asynchronously
      *
      * @param stackPane
      */
@@ -234,33 +200,31 @@ public class BlockView {
         }
     }
 
+    /**
+     * Rebuilds the children of the stackpane, has to be called on the JavaFX thread
+     */
     public void render() {
-        if (isRendering || this.stackPane == null) {
+        if (this.stackPane == null) {
             return;
         }
-        isRendering = true;
-        Platform.runLater(() -> {
-            this.stackPane.getChildren().clear();
-            if (this.block != null) {
-                this.stackPane.getChildren().add(this.block);
-            }
-            if (this.bomb != null) {
-                this.stackPane.getChildren().add(this.bomb);
-            }
-            for (ImageView player : this.players) {
-                if (player != null) {
-                    this.stackPane.getChildren().add(player);
-                }
+        this.stackPane.getChildren().clear();
+        if (this.block != null) {
+            this.stackPane.getChildren().add(this.block);
+        }
+        if (this.bomb != null) {
+            this.stackPane.getChildren().add(this.bomb);
+        }
+        for (ImageView player : this.players) {
+            if (player != null) {
+                this.stackPane.getChildren().add(player);
             }
-            for (Text playerName : this.playerNames) {
-                if (playerName != null) {
-                    this.stackPane.setAlignment(Pos.TOP_CENTER);
-                    this.stackPane.getChildren().add(playerName);
-                }
+        }
+        for (Text playerName : this.playerNames) {
+            if (playerName != null) {
+                this.stackPane.setAlignment(Pos.TOP_CENTER);
+                this.stackPane.getChildren().add(playerName);
             }
-            isRendering = false;
-        });
-
+        }
     }
 }
 
@@ -14,8 +14,7 @@ public class BorderView {
     public final HBox bottom;
     public final VBox left;
     public final VBox right;
-    private Color color;
-    private boolean isRendering = false;
+    private volatile Color color;
 
     public BorderView() {
         top = new HBox();
@@ -26,7 +25,6 @@ public class BorderView {
         left.setMinWidth(Constants.borderWidth);
         right = new VBox();
         right.setMinWidth(Constants.borderWidth);
-        color = Color.BLACK;
     }
 
     /**
@@ -35,31 +33,30 @@ public class BorderView {
      * @param playerId
      */
     public void setPlayerId(int playerId) {
-        switch (playerId) {
-            case 0 -> color = Color.BLUE;
-            case 1 -> color = Color.RED;
-            case 2 -> color = Color.GREEN;
-            case 3 -> color = Color.YELLOW;
-            default -> color = Color.BLACK;
+        Color newColor = switch (playerId) {
+            case 0 -> Color.BLUE;
+            case 1 -> Color.RED;
+            case 2 -> Color.GREEN;
+            case 3 -> Color.YELLOW;
+            default -> Color.BLACK;
+        };
+        if (newColor.equals(color)) {
+            return;
         }
+        color = newColor;
         render();
     }
 
     /**
-     * Renders map border
+     * Renders map border, only scheduled when the color changes
      */
     private void render() {
-        if (isRendering) {
-            return;
-        }
-        isRendering = true;
         Platform.runLater(() -> {
             top.setBackground(new Background(new BackgroundFill(color, CornerRadii.EMPTY, Insets.EMPTY)));
             left.setBackground(new Background(new BackgroundFill(color, CornerRadii.EMPTY, Insets.EMPTY)));
             right.setBackground(new Background(new BackgroundFill(color, CornerRadii.EMPTY, Insets.EMPTY)));
             bottom.setBackground(new Background(new BackgroundFill(color, CornerRadii.EMPTY, Insets.EMPTY)));
         });
-        isRendering = false;
     }
 
 }
@@ -0,0 +1,163 @@
+package views;
+
+import config.Constants;
+import javafx.geometry.Rectangle2D;
+import javafx.geometry.VPos;
+import javafx.scene.Node;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.Image;
+import javafx.scene.paint.Color;
+import javafx.scene.text.Font;
+import javafx.scene.text.FontWeight;
+import javafx.scene.text.TextAlignment;
+import proxy.Field;
+import proxy.Player;
+
+/**
+ * Canvas-based renderer, the whole map is drawn into a single canvas from the shared textures.
+ * Only blocks which changed since they were drawn last are redrawn, clipped to their own rectangle.
+ * Players are drawn by the PlayerLayer instead if interpolatePlayers is enabled.
+ */
+public class CanvasMapView implements MapView {
+    private static final Font NAME_FONT = Font.font("Verdana", FontWeight.BOLD, 8);
+    private static final int PLAYER_OFFSET = 3;
+    private static final int DEADLINE_CHECK_INTERVAL = 64;
+    private final Canvas canvas;
+    private final GraphicsContext graphics;
+    private final int blocksPerLine;
+    private final int blockCount;
+    private final int blockSize;
+    private final Field[] drawnMap;
+
+    public CanvasMapView(int blocksPerLine, int blockSize) {
+        this.blocksPerLine = blocksPerLine;
+        this.blockCount = blocksPerLine * blocksPerLine;
+        this.blockSize = blockSize;
+        this.canvas = new Canvas(blocksPerLine * blockSize, blocksPerLine * blockSize);
+        this.graphics = canvas.getGraphicsContext2D();
+        this.drawnMap = new Field[blockCount];
+        graphics.setFont(NAME_FONT);
+        graphics.setFill(Color.BLACK);
+        graphics.setTextAlign(TextAlignment.CENTER);
+        graphics.setTextBaseline(VPos.TOP);
+    }
+
+    @Override
+    public Node getNode() {
+        return canvas;
+    }
+
+    /**
+     * Redraws every block that differs from the block drawn last
+     */
+    @Override
+    public int render(Field[] map, int fromIndex, long deadline) {
+        int blocks = Math.min(map.length, blockCount);
+        for (int i = fromIndex; i < blocks; i++) {
+            if (i > fromIndex && i % DEADLINE_CHECK_INTERVAL == 0 && System.nanoTime() > deadline) {
+                return i;
+            }
+            if (map[i] != null && hasDelta(drawnMap[i], map[i])) {
+                drawField(i, map[i]);
+                drawnMap[i] = FieldHelper.copy(map[i], drawnMap[i]);
+            }
+        }
+        return map.length;
+    }
+
+    /**
+     * Draws ground, bomb, players and name plates of a single block
+     *
+     * @param index
+     * @param field
+     */
+    private void drawField(int index, Field field) {
+        double x = index % blocksPerLine * blockSize;
+        double y = index / blocksPerLine * blockSize;
+        graphics.save();
+        graphics.beginPath();
+        graphics.rect(x, y, blockSize, blockSize);
+        graphics.clip();
+        graphics.clearRect(x, y, blockSize, blockSize);
+        drawTexture(TextureManager.groundTexture(field.getGround()), x, y, 0);
+        drawTexture(TextureManager.bombTexture(field.getBombState()), x, y, 0);
+        if (Constants.interpolatePlayers) {
+            graphics.restore();
+            return;
+        }
+        Player[] players = field.getPlayers();
+        int offset = 0;
+        for (Player player : players) {
+            if (player != null) {
+                drawTexture(TextureManager.playerTexture(player.getColor()), x, y, offset);
+                offset += PLAYER_OFFSET;
+            }
+        }
+        offset = 0;
+        for (Player player : players) {
+            if (player != null) {
+                graphics.fillText(player.getName(), x + blockSize / 2.0 + offset, y + offset);
+                offset += PLAYER_OFFSET;
+            }
+        }
+        graphics.restore();
+    }
+
+    /**
+     * Draws a texture scaled to the block size, from the atlas if available
+     *
+     * @param texture
+     * @param x
+     * @param y
+     * @param offset
+     */
+    private void drawTexture(String texture, double x, double y, int offset) {
+        if (texture == null || texture.equals(Constants.nothing)) {
+            return;
+        }
+        TextureManager textureManager = TextureManager.getInstance();
+        Image atlas = textureManager.getAtlas();
+        Rectangle2D region = textureManager.getRegion(texture);
+        if (atlas != null && region != null) {
+            graphics.drawImage(atlas, region.getMinX(), region.getMinY(), region.getWidth(), region.getHeight(),
+                    x + offset, y + offset, blockSize, blockSize);
+            return;
+        }
+        Image image = textureManager.getImage(texture);
+        if (image != null) {
+            graphics.drawImage(image, x + offset, y + offset, blockSize, blockSize);
+        }
+    }
+
+    /**
+     * Checks if the field looks different from the field drawn last
+     *
+     * @param drawnField
+     * @param newField
+     * @return true if the block has to be redrawn
+     */
+    private boolean hasDelta(Field drawnField, Field newField) {
+        if (drawnField == null) {
+            return true;
+        }
+        if (drawnField.getGround() != newField.getGround() || drawnField.getBombState() != newField.getBombState()) {
+            return true;
+        }
+        if (Constants.interpolatePlayers) {
+            return false;
+        }
+        for (int i = 0; i < newField.getPlayers().length; i++) {
+            Player drawnPlayer = drawnField.getPlayers()[i];
+            Player newPlayer = newField.getPlayers()[i];
+            if (drawnPlayer == null || newPlayer == null) {
+                if (drawnPlayer != newPlayer) {
+                    return true;
+                }
+            } else if (drawnPlayer.getColor() != newPlayer.getColor() || !drawnPlayer.getName().equals(newPlayer.getName())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
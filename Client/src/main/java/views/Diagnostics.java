@@ -0,0 +1,224 @@
+package views;
+
+import config.Constants;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Locale;
+
+/**
+ * Collects network and render statistics of the client for the diagnostics overlay and bug reports.
+ * The network and input threads only add to counters, every diagnosticsInterval the JavaFX thread turns the
+ * counters into a sample. The last diagnosticsHistory samples are kept and can be exported as csv-file.
+ * The round trip time is measured from sending an action until the server acknowledges it, so it contains
+ * the wait for the next tick and map of the server as well.
+ */
+public class Diagnostics {
+    private static final String[] COLUMNS = {"time", "rtt_ms", "rtt_max_ms", "snapshots_per_s", "jitter_ms",
+            "chars_per_s", "decode_us", "decode_max_us", "pulse_interval_ms", "pulse_interval_max_ms",
+            "render_loop_ms", "render_loop_max_ms", "dropped_frames", "dropped_maps", "interpolation_delay_ms",
+            "corrections", "heap_used_mb", "heap_max_mb"};
+    private static final int SEQUENCE_COUNT = 64;
+    private static final int JITTER_GAIN = 16;
+    private final MapRenderLoop renderLoop;
+    private final PlayerLayer playerLayer;
+    private final MovementPredictor predictor;
+    private final int[] sentSequences = new int[SEQUENCE_COUNT];
+    private final long[] sentTimes = new long[SEQUENCE_COUNT];
+    private final long[] sampleTimes = new long[Constants.diagnosticsHistory];
+    private final double[][] samples = new double[Constants.diagnosticsHistory][COLUMNS.length - 1];
+    private int sampleCount;
+    private int nextSample;
+    private long lastSample;
+    private long rttTotal;
+    private long rttMax;
+    private int rttCount;
+    private long snapshots;
+    private long lastArrival;
+    private long lastInterval = -1;
+    private double jitter;
+    private long receivedChars;
+    private long decodeTotal;
+    private long decodeMax;
+    private long droppedFrames;
+    private long droppedMaps;
+    private long corrections;
+
+    /**
+     * @param renderLoop  render loop of the map
+     * @param playerLayer layer of the interpolated players or null
+     * @param predictor   predictor of the own player or null
+     */
+    public Diagnostics(MapRenderLoop renderLoop, PlayerLayer playerLayer, MovementPredictor predictor) {
+        this.renderLoop = renderLoop;
+        this.playerLayer = playerLayer;
+        this.predictor = predictor;
+    }
+
+    /**
+     * Forgets the arrival of the last map, so the gap of a reconnect doesn't count as jitter
+     */
+    public synchronized void connected() {
+        lastArrival = 0;
+        lastInterval = -1;
+    }
+
+    /**
+     * Remembers when an action has been sent, called from the input thread
+     *
+     * @param sequence sequence of the action
+     * @param now      System.nanoTime() when the action is sent
+     */
+    public synchronized void actionSent(int sequence, long now) {
+        sentSequences[sequence & (SEQUENCE_COUNT - 1)] = sequence;
+        sentTimes[sequence & (SEQUENCE_COUNT - 1)] = now;
+    }
+
+    /**
+     * Measures the round trip time of an acknowledged action, called from the network thread
+     *
+     * @param sequence acknowledged sequence
+     * @param now      System.nanoTime() when the acknowledgement has been received
+     */
+    public synchronized void actionAcknowledged(int sequence, long now) {
+        int slot = sequence & (SEQUENCE_COUNT - 1);
+        if (sentSequences[slot] != sequence) {
+            return;
+        }
+        sentSequences[slot] = 0;
+        long rtt = now - sentTimes[slot];
+        rttTotal += rtt;
+        rttMax = Math.max(rttMax, rtt);
+        rttCount++;
+    }
+
+    /**
+     * Counts the chars of a message, called from the network thread
+     *
+     * @param chars length of the message including the line break
+     */
+    public synchronized void messageReceived(long chars) {
+        receivedChars += chars;
+    }
+
+    /**
+     * Counts a map and updates the jitter of the arrival intervals, called from the network thread
+     *
+     * @param arrival    System.nanoTime() when the map has been received
+     * @param decodeTime time of decoding the map in ns
+     */
+    public synchronized void snapshotReceived(long arrival, long decodeTime) {
+        snapshots++;
+        decodeTotal += decodeTime;
+        decodeMax = Math.max(decodeMax, decodeTime);
+        if (lastArrival != 0) {
+            long interval = arrival - lastArrival;
+            if (lastInterval >= 0) {
+                jitter += (Math.abs(interval - lastInterval) - jitter) / JITTER_GAIN;
+            }
+            lastInterval = interval;
+        }
+        lastArrival = arrival;
+    }
+
+    /**
+     * Turns the counters since the last sample into a new sample, has to be called on the JavaFX thread
+     *
+     * @param now System.nanoTime()
+     */
+    public synchronized void sample(long now) {
+        double seconds = lastSample == 0 ? Constants.diagnosticsInterval / 1000.0 : (now - lastSample) / 1e9;
+        lastSample = now;
+        long pulses = renderLoop.getPulses();
+        long frameDrops = renderLoop.getDroppedFrames();
+        long mapDrops = renderLoop.getDroppedMaps();
+        long predictionCorrections = predictor == null ? 0 : predictor.getCorrections();
+        Runtime runtime = Runtime.getRuntime();
+        double[] sample = samples[nextSample];
+        sample[0] = rttCount == 0 ? Double.NaN : rttTotal / 1e6 / rttCount;
+        sample[1] = rttCount == 0 ? Double.NaN : rttMax / 1e6;
+        sample[2] = snapshots / seconds;
+        sample[3] = jitter / 1e6;
+        sample[4] = receivedChars / seconds;
+        sample[5] = snapshots == 0 ? Double.NaN : decodeTotal / 1e3 / snapshots;
+        sample[6] = snapshots == 0 ? Double.NaN : decodeMax / 1e3;
+        sample[7] = pulses == 0 ? Double.NaN : renderLoop.getPulseIntervalTotal() / 1e6 / pulses;
+        sample[8] = pulses == 0 ? Double.NaN : renderLoop.getMaxPulseInterval() / 1e6;
+        sample[9] = pulses == 0 ? Double.NaN : renderLoop.getPulseTimeTotal() / 1e6 / pulses;
+        sample[10] = pulses == 0 ? Double.NaN : renderLoop.getMaxPulseTime() / 1e6;
+        sample[11] = frameDrops - droppedFrames;
+        sample[12] = mapDrops - droppedMaps;
+        sample[13] = playerLayer == null ? Double.NaN : playerLayer.getDelay() / 1e6;
+        sample[14] = predictionCorrections - corrections;
+        sample[15] = (runtime.totalMemory() - runtime.freeMemory()) / 1048576.0;
+        sample[16] = runtime.maxMemory() / 1048576.0;
+        sampleTimes[nextSample] = System.currentTimeMillis();
+        nextSample = (nextSample + 1) % samples.length;
+        sampleCount = Math.min(sampleCount + 1, samples.length);
+        renderLoop.resetPulseStatistics();
+        droppedFrames = frameDrops;
+        droppedMaps = mapDrops;
+        corrections = predictionCorrections;
+        rttTotal = 0;
+        rttMax = 0;
+        rttCount = 0;
+        snapshots = 0;
+        receivedChars = 0;
+        decodeTotal = 0;
+        decodeMax = 0;
+    }
+
+    /**
+     * Formats the latest sample for the overlay
+     *
+     * @return String of the latest sample, one value per line
+     */
+    public synchronized String format() {
+        if (sampleCount == 0) {
+            return "No samples yet";
+        }
+        double[] sample = samples[(nextSample + samples.length - 1) % samples.length];
+        return String.format("RTT %s ms (max %s)%nSnapshots %s/s, jitter %s ms%nReceived %s k chars/s%n"
+                        + "Decode %s us (max %s)%nPulse %s ms (max %s)%nRender loop %s ms (max %s)%n"
+                        + "Dropped %d frames, %d maps%nInterpolation delay %s ms, corrections %d%nHeap %.0f / %.0f MB",
+                value(sample[0]), value(sample[1]), value(sample[2]), value(sample[3]), value(sample[4] / 1000),
+                value(sample[5]), value(sample[6]), value(sample[7]), value(sample[8]), value(sample[9]),
+                value(sample[10]), (long) sample[11], (long) sample[12], value(sample[13]), (long) sample[14],
+                sample[15], sample[16]);
+    }
+
+    /**
+     * Writes all kept samples as csv-file, oldest first, values which haven't been measured are left empty
+     *
+     * @param file Path of the csv-file
+     * @throws IOException thrown if the file isn't writable
+     */
+    public void writeCsv(Path file) throws IOException {
+        StringBuilder csv = new StringBuilder();
+        csv.append(String.join(",", COLUMNS)).append('\n');
+        synchronized (this) {
+            for (int i = 0; i < sampleCount; i++) {
+                int index = (nextSample - sampleCount + i + samples.length) % samples.length;
+                csv.append(Instant.ofEpochMilli(sampleTimes[index]));
+                for (double value : samples[index]) {
+                    csv.append(',');
+                    if (!Double.isNaN(value)) {
+                        csv.append(String.format(Locale.ROOT, "%.3f", value));
+                    }
+                }
+                csv.append('\n');
+            }
+        }
+        Files.write(file, csv.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String value(double value) {
+        if (Double.isNaN(value)) {
+            return "-";
+        }
+        return value < 10 ? String.format("%.2f", value) : String.format("%.0f", value);
+    }
+}
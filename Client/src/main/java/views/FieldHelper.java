@@ -0,0 +1,49 @@
+package views;
+
+import proxy.Field;
+import proxy.Player;
+
+/**
+ * FieldHelper provides static methods for fields the views keep between two maps.
+ * Maps of the server are decoded into reused buffers, so views copy the state they compare against.
+ */
+public class FieldHelper {
+
+    /**
+     * Copies ground, bomb and players of a field into the target, reusing the players of the target
+     *
+     * @param source Field of the latest map
+     * @param target Field to copy into or null to create a new one
+     * @return the target Field
+     */
+    public static Field copy(Field source, Field target) {
+        if (target == null) {
+            target = new Field();
+        }
+        target.setX(source.getX());
+        target.setY(source.getY());
+        target.setGround(source.getGround());
+        target.setBombState(source.getBombState());
+        target.setBombTimer(source.getBombTimer());
+        Player[] sourcePlayers = source.getPlayers();
+        Player[] targetPlayers = target.getPlayers();
+        if (targetPlayers == null || targetPlayers.length != sourcePlayers.length) {
+            targetPlayers = new Player[sourcePlayers.length];
+            target.setPlayers(targetPlayers);
+        }
+        for (int i = 0; i < sourcePlayers.length; i++) {
+            Player sourcePlayer = sourcePlayers[i];
+            if (sourcePlayer == null) {
+                targetPlayers[i] = null;
+                continue;
+            }
+            if (targetPlayers[i] == null) {
+                targetPlayers[i] = new Player();
+            }
+            targetPlayers[i].setName(sourcePlayer.getName());
+            targetPlayers[i].setColor(sourcePlayer.getColor());
+            targetPlayers[i].setDirection(sourcePlayer.getDirection());
+        }
+        return target;
+    }
+}
@@ -0,0 +1,210 @@
+package views;
+
+import config.Constants;
+import javafx.animation.AnimationTimer;
+import proxy.Field;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Render loop which applies the latest map of the server once per JavaFX pulse.
+ * The network thread only publishes the latest map, maps which are replaced before they are applied completely
+ * are dropped.
+ * Every pulse spends at most Constants.frameBudget on applying blocks, a map which doesn't fit is continued
+ * with the next pulse.
+ * Maps which have been applied or dropped are recycled, the network thread decodes the next maps into them.
+ * The interval and UI-thread time of every pulse are counted for the Diagnostics, pulses which take longer than
+ * a frame of Constants.frameRate count as dropped frames.
+ */
+public class MapRenderLoop extends AnimationTimer {
+    private static final int FREE_MAP_COUNT = 4;
+    private final MapView mapView;
+    private final PlayerLayer playerLayer;
+    private final ArrayBlockingQueue<Field[]> freeMaps = new ArrayBlockingQueue<>(FREE_MAP_COUNT);
+    private final AtomicReference<Field[]> pendingMap = new AtomicReference<>();
+    private final AtomicLong publishedMaps = new AtomicLong();
+    private final AtomicLong droppedMaps = new AtomicLong();
+    private Field[] currentMap;
+    private int nextBlock;
+    private volatile long lastFrameTime;
+    private volatile long maxFrameTime;
+    private volatile long renderedMaps;
+    private long lastPulse;
+    private long pulses;
+    private long pulseIntervalTotal;
+    private long maxPulseInterval;
+    private long pulseTimeTotal;
+    private long maxPulseTime;
+    private long droppedFrames;
+
+    /**
+     * @param mapView     renderer of the map
+     * @param playerLayer layer of the interpolated players or null if players are rendered by the mapView
+     */
+    public MapRenderLoop(MapView mapView, PlayerLayer playerLayer) {
+        this.mapView = mapView;
+        this.playerLayer = playerLayer;
+    }
+
+    /**
+     * Publishes the latest map, called from the network thread.
+     * The map belongs to the render loop afterwards and must not be modified anymore.
+     *
+     * @param map
+     */
+    public void publish(Field[] map) {
+        publishedMaps.incrementAndGet();
+        if (playerLayer != null) {
+            playerLayer.addSnapshot(map, System.nanoTime());
+        }
+        Field[] replacedMap = pendingMap.getAndSet(map);
+        if (replacedMap != null) {
+            droppedMaps.incrementAndGet();
+            freeMaps.offer(replacedMap);
+        }
+    }
+
+    /**
+     * Returns a map which is neither pending nor rendered anymore, called from the network thread
+     *
+     * @return Field[] to decode the next map into or null if no map is free
+     */
+    public Field[] obtainMap() {
+        return freeMaps.poll();
+    }
+
+    /**
+     * Applies the latest map within the frame budget, called by JavaFX once per pulse
+     *
+     * @param now timestamp of the pulse in ns
+     */
+    @Override
+    public void handle(long now) {
+        long start = System.nanoTime();
+        if (playerLayer != null) {
+            playerLayer.update(now);
+        }
+        applyMap(start);
+        if (lastPulse != 0) {
+            long frame = 1_000_000_000L / Constants.frameRate;
+            long interval = now - lastPulse;
+            long pulseTime = System.nanoTime() - start;
+            pulses++;
+            pulseIntervalTotal += interval;
+            maxPulseInterval = Math.max(maxPulseInterval, interval);
+            pulseTimeTotal += pulseTime;
+            maxPulseTime = Math.max(maxPulseTime, pulseTime);
+            droppedFrames += Math.max(0, (interval + frame / 2) / frame - 1);
+        }
+        lastPulse = now;
+    }
+
+    /**
+     * Applies blocks of the latest map until the frame budget is spent
+     *
+     * @param start System.nanoTime() when the pulse has started
+     */
+    private void applyMap(long start) {
+        Field[] latestMap = pendingMap.getAndSet(null);
+        if (latestMap != null) {
+            if (currentMap != null) {
+                droppedMaps.incrementAndGet();
+                freeMaps.offer(currentMap);
+            }
+            currentMap = latestMap;
+            nextBlock = 0;
+        }
+        if (currentMap == null) {
+            return;
+        }
+        nextBlock = mapView.render(currentMap, nextBlock, start + Constants.frameBudget * 1_000_000L);
+        if (nextBlock >= currentMap.length) {
+            freeMaps.offer(currentMap);
+            currentMap = null;
+            renderedMaps++;
+        }
+        lastFrameTime = System.nanoTime() - start;
+        maxFrameTime = Math.max(maxFrameTime, lastFrameTime);
+    }
+
+    /**
+     * @return UI-thread time of the last pulse which applied blocks in ns
+     */
+    public long getLastFrameTime() {
+        return lastFrameTime;
+    }
+
+    /**
+     * @return longest UI-thread time of a pulse in ns
+     */
+    public long getMaxFrameTime() {
+        return maxFrameTime;
+    }
+
+    public long getPublishedMaps() {
+        return publishedMaps.get();
+    }
+
+    public long getRenderedMaps() {
+        return renderedMaps;
+    }
+
+    public long getDroppedMaps() {
+        return droppedMaps.get();
+    }
+
+    /**
+     * @return amount of pulses since the last resetPulseStatistics, only valid on the JavaFX thread
+     */
+    public long getPulses() {
+        return pulses;
+    }
+
+    /**
+     * @return sum of the intervals between the counted pulses in ns
+     */
+    public long getPulseIntervalTotal() {
+        return pulseIntervalTotal;
+    }
+
+    /**
+     * @return longest interval between two counted pulses in ns
+     */
+    public long getMaxPulseInterval() {
+        return maxPulseInterval;
+    }
+
+    /**
+     * @return sum of the UI-thread time of the counted pulses in ns
+     */
+    public long getPulseTimeTotal() {
+        return pulseTimeTotal;
+    }
+
+    /**
+     * @return longest UI-thread time of a counted pulse in ns
+     */
+    public long getMaxPulseTime() {
+        return maxPulseTime;
+    }
+
+    /**
+     * @return amount of frames missed since the render loop has been started
+     */
+    public long getDroppedFrames() {
+        return droppedFrames;
+    }
+
+    /**
+     * Starts counting pulses from zero, has to be called on the JavaFX thread
+     */
+    public void resetPulseStatistics() {
+        pulses = 0;
+        pulseIntervalTotal = 0;
+        maxPulseInterval = 0;
+        pulseTimeTotal = 0;
+        maxPulseTime = 0;
+    }
+}
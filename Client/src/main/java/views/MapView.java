@@ -0,0 +1,28 @@
+package views;
+
+import javafx.scene.Node;
+import proxy.Field;
+
+/**
+ * View which renders the whole map. The renderer is selected at startup with config.Constants.renderer
+ */
+public interface MapView {
+
+    /**
+     * Returns the node the map is rendered into
+     *
+     * @return Node to add to the scene
+     */
+    Node getNode();
+
+    /**
+     * Applies the blocks of the map from fromIndex on until every block is applied or the deadline has passed.
+     * Called by the MapRenderLoop on the JavaFX thread. The map is reused afterwards, views copy what they keep
+     *
+     * @param map       latest map of the server
+     * @param fromIndex index of the first block to apply
+     * @param deadline  System.nanoTime() after which no further blocks are applied
+     * @return index of the first block which hasn't been applied, map.length if the map is complete
+     */
+    int render(Field[] map, int fromIndex, long deadline);
+}
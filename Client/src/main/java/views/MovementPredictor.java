@@ -0,0 +1,206 @@
+package views;
+
+import config.Constants;
+import proxy.ActionToken;
+import proxy.Field;
+import proxy.MovementRules;
+import proxy.Player;
+import proxy.enums.PlayerDirection;
+
+/**
+ * Predicts the movement of the own player, so a move is shown as soon as it is sent instead of a round trip later.
+ * Moves are decided on the latest map by the same MovementRules and ActionToken the server uses.
+ * Every sent action is kept until the server acknowledges its sequence. On every map the prediction is rebuilt
+ * from the position of the server by replaying the actions which haven't been acknowledged yet, the cooldown
+ * restarts at the action the server has moved the player for, so both sides stay in the same cooldown phase.
+ * Actions which aren't acknowledged within predictionTimeout are dropped, e.g. if the game isn't running.
+ */
+public class MovementPredictor {
+    private static final int INPUT_COUNT = 64;
+    private static final int PLAYER_COUNT = 4;
+    private final ActionToken actionToken = new ActionToken(MovementRules.MOVEMENT_COOLDOWN, 0);
+    private final int[] inputSequences = new int[INPUT_COUNT];
+    private final PlayerDirection[] inputDirections = new PlayerDirection[INPUT_COUNT];
+    private final long[] inputTimes = new long[INPUT_COUNT];
+    private int inputCount;
+    private Field[] map = new Field[0];
+    private int playerId = -1;
+    private int sentSequence;
+    private int acknowledgedSequence;
+    private boolean alive;
+    private int serverIndex;
+    private int predictedIndex;
+    private long serverMoveTime = -1;
+    private long tokenTime;
+    private long corrections;
+
+    /**
+     * Forgets all actions and starts predicting for the given player, called after logging in
+     *
+     * @param playerId id of the own player, spectators aren't predicted
+     */
+    public synchronized void reset(int playerId) {
+        this.playerId = playerId;
+        inputCount = 0;
+        sentSequence = 0;
+        acknowledgedSequence = 0;
+        alive = false;
+        serverMoveTime = -1;
+        actionToken.reset();
+    }
+
+    /**
+     * Applies an action which is about to be sent, called from the input thread
+     *
+     * @param sequence  sequence of the sent action
+     * @param direction direction of the sent action
+     * @param now       System.nanoTime() when the action is sent
+     */
+    public synchronized void predict(int sequence, PlayerDirection direction, long now) {
+        sentSequence = sequence;
+        if (inputCount == INPUT_COUNT) {
+            removeInputs(1);
+        }
+        inputSequences[inputCount] = sequence;
+        inputDirections[inputCount] = direction;
+        inputTimes[inputCount] = now;
+        inputCount++;
+        if (alive) {
+            apply(direction, now);
+        }
+    }
+
+    /**
+     * Stores the sequence of the last action the server has evaluated, called from the network thread.
+     * Sequences which haven't been sent by this connection are left over from an earlier connection and ignored.
+     *
+     * @param sequence acknowledged sequence
+     */
+    public synchronized void acknowledge(int sequence) {
+        if (sequence <= sentSequence) {
+            acknowledgedSequence = sequence;
+        }
+    }
+
+    /**
+     * Rebuilds the prediction from the latest map, called from the network thread before the map is published
+     *
+     * @param latestMap latest map of the server
+     * @param arrival   System.nanoTime() when the map has been received
+     */
+    public synchronized void addSnapshot(Field[] latestMap, long arrival) {
+        if (map.length != latestMap.length) {
+            map = new Field[latestMap.length];
+        }
+        boolean wasAlive = alive;
+        int previousServerIndex = serverIndex;
+        alive = false;
+        for (int i = 0; i < latestMap.length; i++) {
+            map[i] = FieldHelper.copy(latestMap[i], map[i]);
+            Player[] players = latestMap[i].getPlayers();
+            if (playerId >= 0 && playerId < Math.min(players.length, PLAYER_COUNT) && players[playerId] != null) {
+                alive = true;
+                serverIndex = i;
+            }
+        }
+        if (!alive) {
+            inputCount = 0;
+            serverMoveTime = -1;
+            return;
+        }
+        boolean moved = !wasAlive || serverIndex != previousServerIndex;
+        if (moved) {
+            serverMoveTime = -1;
+        }
+        int acknowledged = 0;
+        while (acknowledged < inputCount && inputSequences[acknowledged] <= acknowledgedSequence) {
+            if (moved && wasAlive && targetIndex(previousServerIndex, inputDirections[acknowledged]) == serverIndex) {
+                serverMoveTime = inputTimes[acknowledged];
+            }
+            acknowledged++;
+        }
+        removeInputs(acknowledged);
+        long timeout = Constants.predictionTimeout * 1_000_000L;
+        int expired = 0;
+        while (expired < inputCount && arrival - inputTimes[expired] > timeout) {
+            expired++;
+        }
+        removeInputs(expired);
+        int previousPrediction = predictedIndex;
+        predictedIndex = serverIndex;
+        actionToken.reset();
+        tokenTime = inputCount > 0 ? inputTimes[0] : arrival;
+        if (serverMoveTime != -1) {
+            actionToken.move();
+            tokenTime = serverMoveTime;
+        }
+        for (int i = 0; i < inputCount; i++) {
+            apply(inputDirections[i], inputTimes[i]);
+        }
+        if (wasAlive && predictedIndex != previousPrediction) {
+            corrections++;
+        }
+    }
+
+    /**
+     * Writes the predicted position of the own player
+     *
+     * @param position double[] of x and y in blocks
+     * @return false if the own player isn't alive
+     */
+    public synchronized boolean sample(double[] position) {
+        if (!alive) {
+            return false;
+        }
+        position[0] = predictedIndex % Constants.blocksPerLine;
+        position[1] = predictedIndex / Constants.blocksPerLine;
+        return true;
+    }
+
+    public synchronized int getPlayerId() {
+        return playerId;
+    }
+
+    /**
+     * @return long amount of maps which moved the own player away from its predicted position
+     */
+    public synchronized long getCorrections() {
+        return corrections;
+    }
+
+    /**
+     * Moves the predicted player like the server would, if the move is valid and off cooldown
+     *
+     * @param direction direction of the action
+     * @param time      System.nanoTime() when the action has been sent
+     */
+    private void apply(PlayerDirection direction, long time) {
+        long elapsed = (time - tokenTime) / 1_000_000;
+        if (elapsed > 0) {
+            actionToken.reduceCooldowns(elapsed);
+            tokenTime += elapsed * 1_000_000;
+        }
+        if (direction == null || direction == PlayerDirection.NO_DIRECTION) {
+            return;
+        }
+        int target = targetIndex(predictedIndex, direction);
+        if (target != -1 && MovementRules.isWalkable(map[target]) && actionToken.move()) {
+            predictedIndex = target;
+        }
+    }
+
+    private int targetIndex(int index, PlayerDirection direction) {
+        return MovementRules.targetIndex(index % Constants.blocksPerLine, index / Constants.blocksPerLine, direction,
+                Constants.blocksPerLine, map.length / Constants.blocksPerLine);
+    }
+
+    private void removeInputs(int count) {
+        if (count == 0) {
+            return;
+        }
+        inputCount -= count;
+        System.arraycopy(inputSequences, count, inputSequences, 0, inputCount);
+        System.arraycopy(inputDirections, count, inputDirections, 0, inputCount);
+        System.arraycopy(inputTimes, count, inputTimes, 0, inputCount);
+    }
+}
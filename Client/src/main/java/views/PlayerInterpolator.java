@@ -0,0 +1,123 @@
+package views;
+
+import config.Constants;
+import proxy.Field;
+import proxy.Player;
+import proxy.enums.PlayerColor;
+
+import java.util.Arrays;
+
+/**
+ * Keeps the player positions of the last maps with their arrival time and interpolates between them.
+ * Players are rendered a delay behind the latest map, so there are usually two maps around the rendered moment.
+ * The delay follows the measured interval and jitter of arriving maps, between interpolationDelayMin and
+ * interpolationDelayMax.
+ */
+public class PlayerInterpolator {
+    private static final int SNAPSHOT_COUNT = 8;
+    private static final int PLAYER_COUNT = 4;
+    private static final double SMOOTHING = 1 / 16.0;
+    private static final double JITTER_FACTOR = 2;
+    private final long[] arrivals = new long[SNAPSHOT_COUNT];
+    private final int[][] xs = new int[SNAPSHOT_COUNT][PLAYER_COUNT];
+    private final int[][] ys = new int[SNAPSHOT_COUNT][PLAYER_COUNT];
+    private final boolean[][] present = new boolean[SNAPSHOT_COUNT][PLAYER_COUNT];
+    private final String[] names = new String[PLAYER_COUNT];
+    private final PlayerColor[] colors = new PlayerColor[PLAYER_COUNT];
+    private int newest = -1;
+    private int count;
+    private double meanInterval = Constants.snapshotInterval * 1_000_000.0;
+    private double jitter;
+
+    /**
+     * Stores the player positions of a map, called from the network thread before the map is published
+     *
+     * @param map     latest map of the server
+     * @param arrival System.nanoTime() when the map has been received
+     */
+    public synchronized void addSnapshot(Field[] map, long arrival) {
+        if (count > 0) {
+            long interval = arrival - arrivals[newest];
+            if (interval < Constants.interpolationDelayMax * 1_000_000L) {
+                meanInterval += (interval - meanInterval) * SMOOTHING;
+                jitter += (Math.abs(interval - meanInterval) - jitter) * SMOOTHING;
+            }
+        }
+        newest = (newest + 1) % SNAPSHOT_COUNT;
+        count = Math.min(count + 1, SNAPSHOT_COUNT);
+        arrivals[newest] = arrival;
+        Arrays.fill(present[newest], false);
+        for (Field field : map) {
+            Player[] players = field.getPlayers();
+            for (int id = 0; id < Math.min(players.length, PLAYER_COUNT); id++) {
+                if (players[id] != null) {
+                    present[newest][id] = true;
+                    xs[newest][id] = field.getX();
+                    ys[newest][id] = field.getY();
+                    names[id] = players[id].getName();
+                    colors[id] = players[id].getColor();
+                }
+            }
+        }
+    }
+
+    /**
+     * @return long delay of the rendered moment behind the latest map in ns
+     */
+    public synchronized long getDelay() {
+        double delay = meanInterval + JITTER_FACTOR * jitter;
+        return (long) Math.max(Constants.interpolationDelayMin * 1_000_000.0,
+                Math.min(Constants.interpolationDelayMax * 1_000_000.0, delay));
+    }
+
+    /**
+     * Interpolates the player positions at now minus the delay.
+     * Players which moved more than one block between two maps (respawn, new game) jump instead of sliding.
+     *
+     * @param now       System.nanoTime() of the render pulse
+     * @param positions double[] of x and y per player in blocks, NaN if the player isn't visible
+     */
+    public synchronized void sample(long now, double[] positions) {
+        Arrays.fill(positions, Double.NaN);
+        if (count == 0) {
+            return;
+        }
+        long renderTime = now - getDelay();
+        int later = newest;
+        int earlier = -1;
+        for (int age = 0; age < count; age++) {
+            int index = (newest - age + SNAPSHOT_COUNT) % SNAPSHOT_COUNT;
+            if (arrivals[index] <= renderTime) {
+                earlier = index;
+                break;
+            }
+            later = index;
+        }
+        if (earlier == -1) {
+            earlier = later;
+        }
+        double progress = later == earlier ? 1 :
+                (renderTime - arrivals[earlier]) / (double) (arrivals[later] - arrivals[earlier]);
+        for (int id = 0; id < PLAYER_COUNT; id++) {
+            if (!present[later][id]) {
+                continue;
+            }
+            double x = xs[later][id];
+            double y = ys[later][id];
+            if (present[earlier][id] && Math.abs(x - xs[earlier][id]) + Math.abs(y - ys[earlier][id]) <= 1) {
+                x = xs[earlier][id] + (x - xs[earlier][id]) * progress;
+                y = ys[earlier][id] + (y - ys[earlier][id]) * progress;
+            }
+            positions[id * 2] = x;
+            positions[id * 2 + 1] = y;
+        }
+    }
+
+    public synchronized String getName(int playerId) {
+        return names[playerId];
+    }
+
+    public synchronized PlayerColor getColor(int playerId) {
+        return colors[playerId];
+    }
+}
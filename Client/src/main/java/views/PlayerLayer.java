@@ -0,0 +1,140 @@
+package views;
+
+import config.Constants;
+import javafx.geometry.VPos;
+import javafx.scene.image.ImageView;
+import javafx.scene.layout.Pane;
+import javafx.scene.text.Font;
+import javafx.scene.text.FontWeight;
+import javafx.scene.text.Text;
+import javafx.scene.text.TextAlignment;
+import proxy.Field;
+import proxy.MovementRules;
+import proxy.enums.PlayerColor;
+
+/**
+ * Layer above the map which shows the players at their interpolated positions.
+ * Positions are updated by the MapRenderLoop on every pulse, so players slide between blocks
+ * instead of jumping once per map.
+ * With a MovementPredictor the own player is shown at its predicted position instead, it slides towards it
+ * with one block per MOVEMENT_COOLDOWN, so predicted moves and corrections of the server don't jump either.
+ */
+public class PlayerLayer extends Pane {
+    private static final int PLAYER_COUNT = 4;
+    private final PlayerInterpolator interpolator = new PlayerInterpolator();
+    private final int blockSize;
+    private final ImageView[] players = new ImageView[PLAYER_COUNT];
+    private final Text[] playerNames = new Text[PLAYER_COUNT];
+    private final PlayerColor[] shownColors = new PlayerColor[PLAYER_COUNT];
+    private final double[] positions = new double[PLAYER_COUNT * 2];
+    private final MovementPredictor predictor;
+    private final double[] predicted = new double[2];
+    private double ownX = Double.NaN;
+    private double ownY = Double.NaN;
+    private long lastUpdate;
+
+    /**
+     * @param blocksPerLine
+     * @param blockSize     in px
+     * @param predictor     predictor of the own player or null if the own player is interpolated as well
+     */
+    public PlayerLayer(int blocksPerLine, int blockSize, MovementPredictor predictor) {
+        this.blockSize = blockSize;
+        this.predictor = predictor;
+        setMouseTransparent(true);
+        setPrefSize(blocksPerLine * blockSize, blocksPerLine * blockSize);
+        for (int id = 0; id < PLAYER_COUNT; id++) {
+            players[id] = new ImageView();
+            players[id].setFitWidth(blockSize);
+            players[id].setFitHeight(blockSize);
+            players[id].setVisible(false);
+            playerNames[id] = new Text();
+            playerNames[id].setFont(Font.font("Verdana", FontWeight.BOLD, 8));
+            playerNames[id].setWrappingWidth(blockSize);
+            playerNames[id].setTextAlignment(TextAlignment.CENTER);
+            playerNames[id].setTextOrigin(VPos.TOP);
+            playerNames[id].setVisible(false);
+            getChildren().add(players[id]);
+        }
+        getChildren().addAll(playerNames);
+    }
+
+    /**
+     * Stores the player positions of the latest map, called from the network thread
+     *
+     * @param map
+     * @param arrival System.nanoTime() when the map has been received
+     */
+    public void addSnapshot(Field[] map, long arrival) {
+        interpolator.addSnapshot(map, arrival);
+    }
+
+    /**
+     * Moves the players to their positions at the given pulse, has to be called on the JavaFX thread
+     *
+     * @param now timestamp of the pulse in ns
+     */
+    public void update(long now) {
+        interpolator.sample(now, positions);
+        if (predictor != null) {
+            applyPrediction(now);
+        }
+        for (int id = 0; id < PLAYER_COUNT; id++) {
+            double x = positions[id * 2];
+            double y = positions[id * 2 + 1];
+            boolean visible = !Double.isNaN(x);
+            players[id].setVisible(visible);
+            playerNames[id].setVisible(visible);
+            if (!visible) {
+                continue;
+            }
+            PlayerColor color = interpolator.getColor(id);
+            if (color != shownColors[id]) {
+                TextureManager.getInstance().applyTexture(players[id], TextureManager.playerTexture(color));
+                shownColors[id] = color;
+            }
+            String name = interpolator.getName(id);
+            if (!name.equals(playerNames[id].getText())) {
+                playerNames[id].setText(name);
+            }
+            players[id].setTranslateX(x * blockSize);
+            players[id].setTranslateY(y * blockSize);
+            playerNames[id].setTranslateX(x * blockSize);
+            playerNames[id].setTranslateY(y * blockSize);
+        }
+    }
+
+    /**
+     * Replaces the interpolated position of the own player by its predicted position.
+     * The own player stays hidden as long as the interpolated maps don't show it, so spawns and deaths
+     * appear at the same time for all players.
+     *
+     * @param now timestamp of the pulse in ns
+     */
+    private void applyPrediction(long now) {
+        double step = (now - lastUpdate) / (MovementRules.MOVEMENT_COOLDOWN * 1_000_000.0);
+        lastUpdate = now;
+        int id = predictor.getPlayerId();
+        if (id < 0 || id >= PLAYER_COUNT || Double.isNaN(positions[id * 2]) || !predictor.sample(predicted)) {
+            ownX = Double.NaN;
+            ownY = Double.NaN;
+            return;
+        }
+        if (Double.isNaN(ownX) || Math.abs(predicted[0] - ownX) + Math.abs(predicted[1] - ownY) > 2) {
+            ownX = predicted[0];
+            ownY = predicted[1];
+        } else {
+            ownX += Math.max(-step, Math.min(step, predicted[0] - ownX));
+            ownY += Math.max(-step, Math.min(step, predicted[1] - ownY));
+        }
+        positions[id * 2] = ownX;
+        positions[id * 2 + 1] = ownY;
+    }
+
+    /**
+     * @return long delay of the shown players behind the latest map in ns
+     */
+    public long getDelay() {
+        return interpolator.getDelay();
+    }
+}
@@ -0,0 +1,217 @@
+package views;
+
+import config.Constants;
+import javafx.geometry.Rectangle2D;
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
+import javafx.scene.image.WritableImage;
+import proxy.enums.BlockType;
+import proxy.enums.BombState;
+import proxy.enums.PlayerColor;
+
+import java.io.FileInputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * TextureManager-Singleton which decodes every texture of config.Constants once and hands out shared images,
+ * so rendering never reads or decodes a png.
+ * With useTextureAtlas all textures are packed into one atlas and every texture is a region of it.
+ */
+public class TextureManager {
+    private static final Object instanceLock = new Object();
+    private static TextureManager instance;
+    private final Map<String, Image> images = new HashMap<>();
+    private final Map<String, Rectangle2D> regions = new HashMap<>();
+    private WritableImage atlas;
+
+    /**
+     * Private constructor to achieve Singleton-Pattern
+     *
+     * @param decodedImages textures which have already been decoded, the others are loaded here
+     */
+    private TextureManager(Map<String, Image> decodedImages) {
+        for (String texture : Constants.textures) {
+            Image image = decodedImages.get(texture);
+            images.put(texture, image != null ? image : loadImage(texture));
+        }
+        if (Constants.useTextureAtlas) {
+            packAtlas();
+        }
+    }
+
+    /**
+     * Returns the only existing TextureManager-Instance or
+     * creates an instance if it doesn't exist yet and loads all textures.
+     *
+     * @return unique instance of TextureManager
+     */
+    public static TextureManager getInstance() {
+        return initialize(Map.of());
+    }
+
+    /**
+     * Creates the instance from textures decoded by the AssetLoader, does nothing if the instance already exists
+     *
+     * @param decodedImages Map of texture paths to decoded images
+     * @return unique instance of TextureManager
+     */
+    public static TextureManager initialize(Map<String, Image> decodedImages) {
+        synchronized (instanceLock) {
+            if (instance == null) {
+                instance = new TextureManager(decodedImages);
+            }
+            return instance;
+        }
+    }
+
+    /**
+     * Returns the shared image of a texture, textures not listed in config.Constants are loaded on first use
+     *
+     * @param texture path of the texture
+     * @return shared Image or null if the texture isn't readable
+     */
+    public Image getImage(String texture) {
+        synchronized (images) {
+            if (!images.containsKey(texture)) {
+                images.put(texture, loadImage(texture));
+            }
+            return images.get(texture);
+        }
+    }
+
+    /**
+     * Returns the atlas holding all textures of config.Constants
+     *
+     * @return Image of the atlas or null if useTextureAtlas is disabled
+     */
+    public Image getAtlas() {
+        return atlas;
+    }
+
+    /**
+     * Returns the region of a texture inside the atlas
+     *
+     * @param texture path of the texture
+     * @return Rectangle2D of the texture or null if the texture isn't part of the atlas
+     */
+    public Rectangle2D getRegion(String texture) {
+        return regions.get(texture);
+    }
+
+    /**
+     * Shows a texture in the given image view, either as region of the atlas or as single image
+     *
+     * @param imageView ImageView to update
+     * @param texture   path of the texture
+     */
+    public void applyTexture(ImageView imageView, String texture) {
+        Rectangle2D region = regions.get(texture);
+        if (atlas != null && region != null) {
+            imageView.setImage(atlas);
+            imageView.setViewport(region);
+            return;
+        }
+        imageView.setViewport(null);
+        imageView.setImage(getImage(texture));
+    }
+
+    /**
+     * Returns the texture of a ground
+     *
+     * @param type BlockType of the field
+     * @return path of the texture
+     */
+    public static String groundTexture(BlockType type) {
+        return switch (type) {
+            case SOLID_WALL -> Constants.solidBlock;
+            case BRITTLE_WALL -> Constants.brittleBlock;
+            case GRASS -> Constants.grassBlock;
+            case EXPLODED_GRASS -> Constants.grassBlockFire;
+            case DIRT, EXPLODED_DIRT -> Constants.sandBlock;
+            case EXPLODED_WALL -> Constants.destroyedWall;
+        };
+    }
+
+    /**
+     * Returns the texture of a bomb
+     *
+     * @param state BombState of the field
+     * @return path of the texture
+     */
+    public static String bombTexture(BombState state) {
+        return switch (state) {
+            case BLACK_STATE -> Constants.bombPlacedBlack;
+            case RED_STATE -> Constants.bombPlacedRed;
+            case EXPLODING_STATE -> Constants.bombExplode;
+            case FIRE_STATE -> Constants.fireFromExplosion;
+            case NO_BOMB -> Constants.nothing;
+        };
+    }
+
+    /**
+     * Returns the texture of a player
+     *
+     * @param color PlayerColor of the player
+     * @return path of the texture
+     */
+    public static String playerTexture(PlayerColor color) {
+        return switch (color) {
+            case BLUE -> Constants.playerOne;
+            case RED -> Constants.playerTwo;
+            case GREEN -> Constants.playerThree;
+            case YELLOW -> Constants.playerFour;
+        };
+    }
+
+    /**
+     * Packs all loaded textures into a square grid of cells of the size of the largest texture
+     */
+    private void packAtlas() {
+        int cellSize = 0;
+        for (Image image : images.values()) {
+            if (image != null) {
+                cellSize = (int) Math.max(cellSize, Math.max(image.getWidth(), image.getHeight()));
+            }
+        }
+        if (cellSize == 0) {
+            return;
+        }
+        int columns = (int) Math.ceil(Math.sqrt(images.size()));
+        int rows = (images.size() + columns - 1) / columns;
+        atlas = new WritableImage(columns * cellSize, rows * cellSize);
+        int cell = 0;
+        for (String texture : Constants.textures) {
+            Image image = images.get(texture);
+            if (image == null || regions.containsKey(texture)) {
+                continue;
+            }
+            int x = cell % columns * cellSize;
+            int y = cell / columns * cellSize;
+            int width = (int) image.getWidth();
+            int height = (int) image.getHeight();
+            atlas.getPixelWriter().setPixels(x, y, width, height, image.getPixelReader(), 0, 0);
+            regions.put(texture, new Rectangle2D(x, y, width, height));
+            cell++;
+        }
+    }
+
+    /**
+     * Decodes a png from the disk
+     *
+     * @param texture path of the texture
+     * @return Image or null if the texture isn't readable
+     */
+    public static Image loadImage(String texture) {
+        try (FileInputStream in = new FileInputStream(texture)) {
+            Image image = new Image(in);
+            if (!image.isError()) {
+                return image;
+            }
+            System.out.println("Failed to load texture. " + image.getException().getMessage());
+        } catch (Exception e) {
+            System.out.println("Failed to load texture. " + e.getMessage());
+        }
+        return null;
+    }
+}
@@ -0,0 +1,128 @@
+import com.google.gson.Gson;
+import config.Constants;
+import proxy.Action;
+import proxy.Field;
+import proxy.Player;
+import proxy.enums.BlockType;
+import proxy.enums.BombState;
+import proxy.enums.PlayerColor;
+import proxy.enums.PlayerDirection;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayDeque;
+import java.util.SplittableRandom;
+
+/**
+ * Checks that the SnapshotDecoder doesn't allocate in steady state, runs without a display.
+ * Replays maps encoded by Gson like the server does, mixed with countdowns and acknowledgements,
+ * and recycles the decoded maps through three buffers like the MapRenderLoop.
+ * The bytes allocated by the calling thread are read from the ThreadMXBean after a warm-up round,
+ * the bench exits with status 1 if the whole round allocates more than a small tolerance.
+ * Compiled by mvn test, run with:
+ * java -cp Client/target/test-classes:Client/target/classes:Proxy/target/classes:[gson.jar] SnapshotDecoderBench
+ * [messages]
+ */
+public class SnapshotDecoderBench {
+    private static final int MAP_BUFFERS = 3;
+    private static final long ALLOCATION_TOLERANCE = 1024;
+    private static final String[] PLAYER_NAMES = {"Blue", "Red", "Green", "Yellow"};
+    private final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private final ArrayDeque<Field[]> freeMaps = new ArrayDeque<>();
+    private final String messages;
+    private final int messageCount;
+
+    private SnapshotDecoderBench(int messageCount) {
+        this.messageCount = messageCount;
+        Gson gson = new Gson();
+        SplittableRandom random = new SplittableRandom(0);
+        StringBuilder lines = new StringBuilder();
+        for (int i = 0; i < messageCount; i++) {
+            if (i % 10 == 0) {
+                lines.append(Action.ACKNOWLEDGEMENT_PREFIX).append(i);
+            } else if (i % 10 == 5) {
+                lines.append(messageCount - i);
+            } else {
+                lines.append(gson.toJson(randomMap(random)));
+            }
+            lines.append('\n');
+        }
+        messages = lines.toString();
+    }
+
+    /**
+     * Decodes the messages twice and fails if the second round allocates more than the tolerance
+     *
+     * @param args amount of messages, 2000 by default
+     * @throws IOException never thrown, the messages are read from memory
+     */
+    public static void main(String[] args) throws IOException {
+        SnapshotDecoderBench bench = new SnapshotDecoderBench(args.length > 0 ? Integer.parseInt(args[0]) : 2000);
+        if (!bench.threads.isThreadAllocatedMemorySupported()) {
+            System.out.println("Thread allocation measurement not supported by this JVM");
+            return;
+        }
+        bench.threads.setThreadAllocatedMemoryEnabled(true);
+        bench.decodeAll();
+        long bytes = bench.decodeAll();
+        System.out.printf("per message: %.2f B (%d B for %d messages, tolerance %d B)%n",
+                (double) bytes / bench.messageCount, bytes, bench.messageCount, ALLOCATION_TOLERANCE);
+        if (bytes > ALLOCATION_TOLERANCE) {
+            System.out.println("FAILED: decoder allocates in steady state");
+            System.exit(1);
+        }
+        System.out.println("PASSED");
+    }
+
+    /**
+     * Decodes every message from a new decoder, measuring starts once the decoder has grown its buffers to the
+     * size of a map
+     *
+     * @return long bytes allocated by the calling thread while decoding
+     * @throws IOException never thrown, the messages are read from memory
+     */
+    private long decodeAll() throws IOException {
+        SnapshotDecoder decoder = new SnapshotDecoder(new StringReader(messages), freeMaps::poll);
+        SnapshotDecoder.MessageType type;
+        do {
+            type = decoder.next();
+            recycle(decoder);
+        } while (type != SnapshotDecoder.MessageType.MAP && type != SnapshotDecoder.MessageType.END);
+        long start = threads.getCurrentThreadAllocatedBytes();
+        while (decoder.next() != SnapshotDecoder.MessageType.END) {
+            recycle(decoder);
+        }
+        return threads.getCurrentThreadAllocatedBytes() - start;
+    }
+
+    private void recycle(SnapshotDecoder decoder) {
+        Field[] map = decoder.takeMap();
+        if (map != null && freeMaps.size() < MAP_BUFFERS) {
+            freeMaps.add(map);
+        }
+    }
+
+    private static Field[] randomMap(SplittableRandom random) {
+        BlockType[] blockTypes = BlockType.values();
+        BombState[] bombStates = BombState.values();
+        PlayerDirection[] directions = PlayerDirection.values();
+        Field[] map = new Field[Constants.blocksPerLine * Constants.blocksPerLine];
+        for (int i = 0; i < map.length; i++) {
+            Field field = new Field();
+            field.setX(i % Constants.blocksPerLine);
+            field.setY(i / Constants.blocksPerLine);
+            field.setGround(blockTypes[random.nextInt(blockTypes.length)]);
+            field.setBombState(bombStates[random.nextInt(bombStates.length)]);
+            field.setBombTimer(random.nextInt(3000));
+            map[i] = field;
+        }
+        for (int playerId = 0; playerId < PLAYER_NAMES.length; playerId++) {
+            Field field = map[random.nextInt(map.length)];
+            field.getPlayers()[playerId] = new Player(PLAYER_NAMES[playerId], PlayerColor.values()[playerId],
+                    directions[random.nextInt(directions.length)]);
+        }
+        return map;
+    }
+}
@@ -12,7 +12,16 @@ import proxy.enums.PlayerDirection;
 @NoArgsConstructor
 @ToString
 public class Action {
+    /**
+     * Prefix of the message acknowledging the sequence of the last evaluated action of a player, e.g. "ack:42"
+     */
+    public static final String ACKNOWLEDGEMENT_PREFIX = "ack:";
     private Integer playerId;
     private PlayerDirection playerDirection;
     private Boolean bombPlanted;
+    /**
+     * Increasing number of the action, the server echoes the last processed sequence so a client can reconcile
+     * its predicted movement. Null for clients which don't predict.
+     */
+    private Integer sequence;
 }
@@ -1,14 +1,24 @@
-package models;
-
-import config.Constants;
+package proxy;
 
 /**
- * ActionToken-Model used for regulating playerActions
+ * ActionToken-Model used for regulating playerActions.
+ * The server regulates the actions of every player with it, the client predicts its own movement with it.
  */
 public class ActionToken {
+    private final long movementCooldown;
+    private final long bombCooldownDuration;
     private long moveCooldown = 0;
     private long bombCooldown = 0;
 
+    /**
+     * @param movementCooldown     cooldown after a move in ms
+     * @param bombCooldownDuration cooldown after placing a bomb in ms
+     */
+    public ActionToken(long movementCooldown, long bombCooldownDuration) {
+        this.movementCooldown = movementCooldown;
+        this.bombCooldownDuration = bombCooldownDuration;
+    }
+
     /**
      * Reduces all cooldowns of this actionToken according to the given tickDuration
      *
@@ -25,6 +35,14 @@ public class ActionToken {
         }
     }
 
+    /**
+     * Takes both cooldowns off, used when a new game starts
+     */
+    public void reset() {
+        moveCooldown = 0;
+        bombCooldown = 0;
+    }
+
     /**
      * Restarts movement-cooldown if it is off cooldown
      *
@@ -32,7 +50,7 @@ public class ActionToken {
      */
     public boolean move() {
         if (moveCooldown == 0) {
-            moveCooldown = Constants.PLAYER_MOVEMENT_COOLDOWN;
+            moveCooldown = movementCooldown;
             return true;
         } else {
             return false;
@@ -46,7 +64,7 @@ public class ActionToken {
      */
     public boolean placeBomb() {
         if (bombCooldown == 0) {
-            bombCooldown = Constants.PLAYER_BOMB_COOLDOWN;
+            bombCooldown = bombCooldownDuration;
             return true;
         } else {
             return false;
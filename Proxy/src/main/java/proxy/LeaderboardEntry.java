@@ -0,0 +1,22 @@
+package proxy;
+
+import lombok.*;
+
+/**
+ * LeaderboardEntry-Model
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@ToString
+public class LeaderboardEntry {
+    private String playerName;
+    private int rank;
+    private long total;
+    private long weeklyTotal;
+    private int matches;
+    private int wins;
+    private long lastPlayed;
+    private int[] history;
+}
@@ -0,0 +1,18 @@
+package proxy;
+
+import lombok.*;
+import proxy.enums.LeaderboardQueryType;
+
+/**
+ * LeaderboardQuery-Model
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@ToString
+public class LeaderboardQuery {
+    private LeaderboardQueryType queryType;
+    private String playerName;
+    private int limit;
+}
@@ -0,0 +1,17 @@
+package proxy;
+
+import lombok.*;
+import proxy.enums.LeaderboardQueryType;
+
+/**
+ * LeaderboardResponse-Model
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@ToString
+public class LeaderboardResponse {
+    private LeaderboardQueryType queryType;
+    private LeaderboardEntry[] entries;
+}
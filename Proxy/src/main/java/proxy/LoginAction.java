@@ -13,4 +13,5 @@ import lombok.*;
 public class LoginAction {
     private String playerName;
     private int playerId;
+    private String resumeToken;
 }
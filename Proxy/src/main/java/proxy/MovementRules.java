@@ -0,0 +1,73 @@
+package proxy;
+
+import proxy.enums.BlockType;
+import proxy.enums.BombState;
+import proxy.enums.PlayerDirection;
+
+/**
+ * MovementRules provides the static rules for moving a player, shared by the server and the client prediction
+ * so both sides decide every move the same way.
+ */
+public class MovementRules {
+    /**
+     * Cooldown after a move in ms, the server regulates and the client predicts every move with it
+     */
+    public static final long MOVEMENT_COOLDOWN = 75;
+
+    /**
+     * Returns the index of the field a player moves to
+     *
+     * @param x         int x of the player
+     * @param y         int y of the player
+     * @param direction PlayerDirection of the move
+     * @param width     int amount of fields per row
+     * @param height    int amount of rows
+     * @return int index of the target field or -1 if the move leaves the map or has no direction
+     */
+    public static int targetIndex(int x, int y, PlayerDirection direction, int width, int height) {
+        switch (direction) {
+            case RIGHT -> x++;
+            case LEFT -> x--;
+            case DOWN -> y++;
+            case UP -> y--;
+            default -> {
+                return -1;
+            }
+        }
+        if (x < 0 || y < 0 || x >= width || y >= height) {
+            return -1;
+        }
+        return x + y * width;
+    }
+
+    /**
+     * Returns whether a player may enter the given field, walls and bombs block the way but fire doesn't.
+     *
+     * @param field Field to enter
+     * @return true if the field is walkable, else false
+     */
+    public static boolean isWalkable(Field field) {
+        boolean noWall = field.getGround() != BlockType.SOLID_WALL && field.getGround() != BlockType.BRITTLE_WALL;
+        boolean noBomb = field.getBombState() == BombState.NO_BOMB || field.getBombState() == BombState.FIRE_STATE;
+        return noWall && noBomb;
+    }
+
+    /**
+     * Evaluates if a player at x and y may move into the given direction of the map
+     *
+     * @param map       Field[] represents the game map
+     * @param width     int amount of fields per row
+     * @param height    int amount of rows
+     * @param x         int x of the player
+     * @param y         int y of the player
+     * @param direction PlayerDirection of the move
+     * @return int index of the target field or -1 if the move is invalid
+     */
+    public static int validTarget(Field[] map, int width, int height, int x, int y, PlayerDirection direction) {
+        int target = targetIndex(x, y, direction, width, height);
+        if (target < 0 || target >= map.length || !isWalkable(map[target])) {
+            return -1;
+        }
+        return target;
+    }
+}
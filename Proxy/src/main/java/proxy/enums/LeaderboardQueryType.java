@@ -0,0 +1,8 @@
+package proxy.enums;
+
+/**
+ * LeaderboardQueryType-Enum
+ */
+public enum LeaderboardQueryType {
+    TOP, WEEKLY_TOP, PLAYER
+}
@@ -1,10 +1,29 @@
 import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
 import config.Constants;
 import game.BombermanServer;
 import game.GameLogic;
 import game.GameState;
+import game.MazeCache;
+import game.OverloadController;
+import game.OverloadLevel;
+import game.RoomPool;
+import game.WarmUp;
+import helpers.LogHelper;
+import helpers.LogLevel;
+import helpers.MapHelper;
+import highscore.HighscoreStore;
+import highscore.Leaderboard;
+import highscore.PersistenceQueue;
+import metrics.*;
+import models.LogRateLimit;
 import proxy.Action;
+import proxy.Field;
+import proxy.LeaderboardQuery;
 import proxy.LoginAction;
+import proxy.enums.LeaderboardQueryType;
 
 import java.io.BufferedReader;
 import java.io.IOException;
@@ -12,18 +31,25 @@ import java.io.InputStreamReader;
 import java.io.PrintWriter;
 import java.net.ServerSocket;
 import java.net.Socket;
-import java.util.Arrays;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
 
 /**
  * Server-Thread used for each established connection between client and server
  */
 public class Server extends Thread {
+    private static final String PLAYERS_LOG_TEMPLATE = "Players {}/" + Constants.MAX_PLAYER_COUNT + " Names {}";
+    private static final String LEADERBOARD_QUERY_KEY = "queryType";
+    private static final LogRateLimit DISCONNECT_LOG_LIMIT =
+            new LogRateLimit(Constants.DISCONNECT_LOG_LIMIT, Constants.DISCONNECT_LOG_LIMIT_WINDOW);
     private static GameState gameState;
     private final Socket client;
+    private final Queue<LeaderboardQuery> leaderboardQueries =
+            new ArrayBlockingQueue<>(Constants.LEADERBOARD_QUERY_QUEUE_CAPACITY);
     private BombermanServer bombermanServer;
     private int playerId;
     private String playerName;
-    private boolean connected;
+    private volatile boolean connected;
 
     /**
      * Creates a new Server-Thread for the given client
@@ -46,8 +72,22 @@ public class Server extends Thread {
         if (args.length > 0) {
             port = Integer.parseInt(args[0]);
         }
+        ServerMetrics.getInstance().setRoom(String.valueOf(port));
+        HighscoreStore.setSegment(String.valueOf(port));
+        if (Constants.JFR_CONTINUOUS_RECORDING) {
+            ContinuousRecording.start(port);
+        }
+        MazeCache.getInstance();
+        RoomPool.getInstance();
         BombermanServer.getInstance();
-        System.out.println("Server up! Port: " + port);
+        Leaderboard.getInstance();
+        PersistenceQueue.getInstance();
+        startMetricsServer(port);
+        if (Constants.WARM_UP_ENABLED) {
+            new WarmUp().run();
+        }
+        ServerMetrics.getInstance().setReady(true);
+        LogHelper.info("Server up! Port: {}", port);
         try (ServerSocket server = new ServerSocket(port)) {
             while (true) {
                 Socket client = server.accept();
@@ -56,7 +96,25 @@ public class Server extends Thread {
                 connection.start();
             }
         } catch (IOException e) {
-            System.err.println(e);
+            LogHelper.error("Server stopped: {}", e);
+        }
+    }
+
+    /**
+     * Starts the metrics endpoint on the given server port plus METRICS_PORT_OFFSET if metrics are enabled
+     *
+     * @param port int port of the game server
+     */
+    private static void startMetricsServer(int port) {
+        if (!Constants.METRICS_ENABLED) {
+            return;
+        }
+        int metricsPort = port + Constants.METRICS_PORT_OFFSET;
+        try {
+            new MetricsServer(metricsPort).start();
+            LogHelper.info("Metrics up! Port: {}", metricsPort);
+        } catch (IOException e) {
+            LogHelper.warn("Metrics not available: {}", e.getMessage());
         }
     }
 
@@ -74,22 +132,60 @@ public class Server extends Thread {
                          new PrintWriter(
                                  this.client.getOutputStream(), true)) {
 
-                while (!connected) {
+                client.setSoTimeout(Constants.CLIENT_TIMEOUT);
+                while (!connected && !client.isClosed()) {
                     connected = setupConnection(in, out);
                 }
+                if (!connected) {
+                    return;
+                }
                 gameState = GameState.getInstance();
                 receiveActionsFromClientLoop(in);
                 sendMapToClientLoop(out);
             } catch (IOException | InterruptedException e) {
-                connected = false;
-                bombermanServer.removeActiveConnection(playerId);
-                String serverLogMessage = "Players " + bombermanServer.getActiveConnections() + "/" + Constants.MAX_PLAYER_COUNT +
-                        " Names " + Arrays.toString(bombermanServer.getConnectedPlayers());
-                System.out.println(serverLogMessage);
+                disconnect();
             }
         }
     }
 
+    /**
+     * Frees the slot of this connection and closes the socket.
+     * Called by whichever thread notices the disconnect first, the slot is freed only once.
+     */
+    private synchronized void disconnect() {
+        if (connected) {
+            connected = false;
+            bombermanServer.removeActiveConnection(playerId);
+            logDisconnect();
+        }
+        try {
+            client.close();
+        } catch (IOException e) {
+            LogHelper.warn("Socket not closed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Logs the connected players after a player has joined
+     */
+    private void logConnectedPlayers() {
+        if (LogHelper.isEnabled(LogLevel.INFO)) {
+            LogHelper.info(PLAYERS_LOG_TEMPLATE,
+                    bombermanServer.getActiveConnections(), bombermanServer.getConnectedPlayers().clone());
+        }
+    }
+
+    /**
+     * Logs the connected players after a player has left,
+     * limited to DISCONNECT_LOG_LIMIT records per DISCONNECT_LOG_LIMIT_WINDOW
+     */
+    private void logDisconnect() {
+        if (LogHelper.isEnabled(LogLevel.INFO)) {
+            LogHelper.rateLimited(DISCONNECT_LOG_LIMIT, LogLevel.INFO, PLAYERS_LOG_TEMPLATE,
+                    bombermanServer.getActiveConnections(), bombermanServer.getConnectedPlayers().clone());
+        }
+    }
+
     /**
      * Attempts to setup a connection between client and server after the socket has been accepted
      *
@@ -101,31 +197,43 @@ public class Server extends Thread {
         Gson gson = new Gson();
         boolean connectionAccepted = false;
         while (!connectionAccepted) {
+            HandshakeEvent handshakeEvent = new HandshakeEvent();
+            handshakeEvent.begin();
             try {
                 String input;
-                if ((input = in.readLine()) != null) {
-                    LoginAction loginAction = gson.fromJson(input, LoginAction.class);
-                    bombermanServer = BombermanServer.getInstance();
-                    playerName = loginAction.getPlayerName();
-                    if (playerName.length() > 9) {
-                        playerName = playerName.substring(0, 8);
-                    } else if (playerName.length() == 0) {
-                        playerName = Constants.DEFAULT_PLAYER_NAME;
-                    }
-                    playerId = bombermanServer.addNewConnection(playerName);
-                    if (playerId != -1) {
-                        loginAction.setPlayerId(playerId);
-                        String serverLogMessage = "Players " + bombermanServer.getActiveConnections() + "/" + Constants.MAX_PLAYER_COUNT +
-                                " Names " + Arrays.toString(bombermanServer.getConnectedPlayers());
-                        System.out.println(serverLogMessage);
-                        out.println(gson.toJson(loginAction));
-                        connectionAccepted = true;
-                    } else {
-                        throw new Exception("Player limit reached");
-                    }
+                if ((input = in.readLine()) == null) {
+                    disconnect();
+                    return false;
+                }
+                LoginAction loginAction = gson.fromJson(input, LoginAction.class);
+                bombermanServer = BombermanServer.getInstance();
+                playerName = loginAction.getPlayerName();
+                if (playerName.length() > 9) {
+                    playerName = playerName.substring(0, 8);
+                } else if (playerName.length() == 0) {
+                    playerName = Constants.DEFAULT_PLAYER_NAME;
+                }
+                handshakeEvent.playerName = playerName;
+                playerId = bombermanServer.addNewConnection(playerName, loginAction.getPlayerId(),
+                        loginAction.getResumeToken());
+                if (playerId != -1) {
+                    loginAction.setPlayerId(playerId);
+                    loginAction.setResumeToken(bombermanServer.getResumeToken(playerId));
+                    logConnectedPlayers();
+                    out.println(gson.toJson(loginAction));
+                    connectionAccepted = true;
+                    handshakeEvent.playerId = playerId;
+                    handshakeEvent.accepted = true;
+                    handshakeEvent.commit();
+                } else {
+                    throw new Exception("Player limit reached");
                 }
             } catch (Exception e) {
-                System.out.println("Connection refused! " + e.getMessage());
+                ServerMetrics.getInstance().handshakeFailed();
+                handshakeEvent.playerId = -1;
+                handshakeEvent.failure = e.getMessage();
+                handshakeEvent.commit();
+                LogHelper.info("Connection refused! {}", e.getMessage());
                 return false;
             }
         }
@@ -133,7 +241,8 @@ public class Server extends Thread {
     }
 
     /**
-     * Periodically checks for new client input and passes parsable actions to gameLogic
+     * Periodically checks for new client input, passes parsable actions to gameLogic
+     * and queues leaderboard queries, which are answered by the thread sending the maps
      *
      * @param in server-side BufferedReader used for client input
      */
@@ -141,24 +250,35 @@ public class Server extends Thread {
         Runnable inputRunnable = () -> {
             Gson gsonInput = new Gson();
             GameLogic gameLogic = GameLogic.getInstance();
+            ServerMetrics metrics = ServerMetrics.getInstance();
             while (connected) {
                 try {
                     String input;
-                    if ((input = in.readLine()) != null) {
-                        Action action = gsonInput.fromJson(input, Action.class);
-                        if (action != null && playerId < Constants.MAX_PLAYER_COUNT) {
-                            action.setPlayerId(playerId);
-                            if (bombermanServer.isGameRunning()) {
-                                gameLogic.addPlayerAction(action);
-                            }
+                    if ((input = in.readLine()) == null) {
+                        disconnect();
+                        return;
+                    }
+                    JsonElement message = JsonParser.parseString(input);
+                    if (message.isJsonObject() && message.getAsJsonObject().has(LEADERBOARD_QUERY_KEY)) {
+                        LeaderboardQuery query = parseLeaderboardQuery(gsonInput, message);
+                        if (query == null || !leaderboardQueries.offer(query)) {
+                            metrics.inputDropped();
+                        }
+                        continue;
+                    }
+                    Action action = gsonInput.fromJson(message, Action.class);
+                    if (action != null && playerId < Constants.MAX_PLAYER_COUNT) {
+                        action.setPlayerId(playerId);
+                        if (bombermanServer.isGameRunning()) {
+                            gameLogic.addPlayerAction(action);
+                        } else {
+                            metrics.inputDropped();
                         }
+                    } else {
+                        metrics.inputDropped();
                     }
                 } catch (Exception e) {
-                    connected = false;
-                    bombermanServer.removeActiveConnection(playerId);
-                    String serverLogMessage = "Players " + bombermanServer.getActiveConnections() + "/" + Constants.MAX_PLAYER_COUNT +
-                            " Names " + Arrays.toString(bombermanServer.getConnectedPlayers());
-                    System.out.println(serverLogMessage);
+                    disconnect();
                 }
             }
         };
@@ -168,20 +288,99 @@ public class Server extends Thread {
     }
 
     /**
-     * Periodically sends the current map to client output
+     * Parses a leaderboard query, queries of an unknown type and player queries without a playerName are rejected
+     *
+     * @param gson    Gson of the input thread
+     * @param message JsonElement containing the query
+     * @return LeaderboardQuery or null if the query is malformed
+     */
+    private static LeaderboardQuery parseLeaderboardQuery(Gson gson, JsonElement message) {
+        LeaderboardQuery query;
+        try {
+            query = gson.fromJson(message, LeaderboardQuery.class);
+        } catch (JsonParseException e) {
+            return null;
+        }
+        if (query == null || query.getQueryType() == null) {
+            return null;
+        }
+        if (query.getQueryType() == LeaderboardQueryType.PLAYER
+                && (query.getPlayerName() == null || query.getPlayerName().isEmpty())) {
+            return null;
+        }
+        return query;
+    }
+
+    /**
+     * Returns the time to wait until the next snapshot is sent to this connection.
+     * Spectators, connections whose player is not alive, receive fewer snapshots while the room is overloaded.
+     *
+     * @return long duration in milliseconds
+     */
+    private long snapshotDuration() {
+        OverloadController overloadController = OverloadController.getInstance();
+        if (overloadController.isActive(OverloadLevel.REDUCED_SPECTATOR_RATE) &&
+                !MapHelper.isPlayerAlive(gameState.retrieveCurrentMap(), playerId)) {
+            return overloadController.getSpectatorSnapshotDuration();
+        }
+        return Constants.SERVER_TICK_DURATION;
+    }
+
+    /**
+     * Periodically sends the current map to client output and answers the queued leaderboard queries in between,
+     * so reading the leaderboard never delays the input of the player. Queries are answered from the published
+     * snapshot of the leaderboard, which never waits for the index or its lock.
+     * The sequence of the last evaluated action of the player is sent in front of the map whenever it increases,
+     * it is retrieved together with the map, so the map contains the result of every acknowledged action.
      *
      * @param out server-side PrintWriter used for client output
      * @throws InterruptedException thrown if client disconnects
      */
     private void sendMapToClientLoop(PrintWriter out) throws InterruptedException {
         Gson gson = new Gson();
+        ServerMetrics metrics = ServerMetrics.getInstance();
+        int[] acknowledgedSequences = new int[Constants.MAX_PLAYER_COUNT];
+        int acknowledgedSequence = 0;
         while (connected) {
+            LeaderboardQuery query;
+            while ((query = leaderboardQueries.poll()) != null) {
+                try {
+                    out.println(gson.toJson(Leaderboard.getInstance().query(query)));
+                } catch (RuntimeException e) {
+                    LogHelper.warn("Leaderboard query not answered: {}", e);
+                }
+            }
             if (bombermanServer.getCountdownStarted()) {
                 out.println(bombermanServer.getCountdown());
             }
-            String json = gson.toJson(gameState.retrieveCurrentMap());
+            Field[] map = gameState.retrieveCurrentMap(acknowledgedSequences);
+            if (playerId >= 0 && playerId < Constants.MAX_PLAYER_COUNT
+                    && acknowledgedSequences[playerId] > acknowledgedSequence) {
+                acknowledgedSequence = acknowledgedSequences[playerId];
+                out.println(Action.ACKNOWLEDGEMENT_PREFIX + acknowledgedSequence);
+            }
+            SnapshotEncodeEvent encodeEvent = new SnapshotEncodeEvent();
+            encodeEvent.begin();
+            long serializationStart = System.nanoTime();
+            String json = gson.toJson(map);
+            long bytes = ServerMetrics.utf8Length(json) + 1;
+            metrics.snapshotSent(bytes, System.nanoTime() - serializationStart);
+            encodeEvent.end();
+            if (encodeEvent.shouldCommit()) {
+                encodeEvent.playerId = playerId;
+                encodeEvent.bytes = bytes;
+                encodeEvent.commit();
+            }
+            SnapshotSendEvent sendEvent = new SnapshotSendEvent();
+            sendEvent.begin();
             out.println(json);
-            Thread.sleep(Constants.SERVER_TICK_DURATION);
+            sendEvent.end();
+            if (sendEvent.shouldCommit()) {
+                sendEvent.playerId = playerId;
+                sendEvent.bytes = bytes;
+                sendEvent.commit();
+            }
+            Thread.sleep(snapshotDuration());
         }
     }
 }
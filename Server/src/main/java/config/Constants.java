@@ -1,5 +1,6 @@
 package config;
 
+import proxy.MovementRules;
 import proxy.enums.PlayerColor;
 
 /**
@@ -9,6 +10,29 @@ public class Constants {
     public static final Boolean DEBUG_MODE = false;
     //region Server
     public static final Integer PORT = 8765;
+    /**
+     * A connection which hasn't sent anything for this long is closed, clients send a heartbeat every second
+     */
+    public static final Integer CLIENT_TIMEOUT = 5000;
+    //endregion
+    //region Metrics
+    public static final Boolean METRICS_ENABLED = true;
+    /**
+     * The metrics endpoint listens on the server port plus this offset, so several servers can run side by side
+     */
+    public static final Integer METRICS_PORT_OFFSET = 1000;
+    public static final Boolean JFR_CONTINUOUS_RECORDING = true;
+    public static final Long JFR_MAX_AGE_MINUTES = 15L;
+    public static final Long JFR_MAX_SIZE_BYTES = 100L * 1024 * 1024;
+    //endregion
+    //region Logging
+    public static final Integer LOG_BUFFER_CAPACITY = 1024;
+    /**
+     * Time the log-writer parks when there is nothing to write
+     */
+    public static final Long LOG_WRITER_IDLE_DURATION = 5L;
+    public static final Integer DISCONNECT_LOG_LIMIT = 5;
+    public static final Long DISCONNECT_LOG_LIMIT_WINDOW = 1000L;
     //endregion
     //region Tick-Durations and Cooldowns
     /**
@@ -18,10 +42,47 @@ public class Constants {
     public static final Long SERVER_TICK_DURATION = TICK_DURATION * 3;
     public static final Long BOMBERMAN_SERVER_TICK_DURATION = TICK_DURATION;
     public static final Long GAME_LOGIC_TICK_DURATION = TICK_DURATION;
-    public static final Long PLAYER_MOVEMENT_COOLDOWN = GAME_LOGIC_TICK_DURATION * 5;
+    public static final Long PLAYER_MOVEMENT_COOLDOWN = MovementRules.MOVEMENT_COOLDOWN;
     public static final Long PLAYER_BOMB_COOLDOWN = GAME_LOGIC_TICK_DURATION * 30;
     public static final Long BOMB_STATE_COOLDOWN = GAME_LOGIC_TICK_DURATION * 50;
     //endregion
+    //region Overload
+    /**
+     * Amount of ticks evaluated together before the overload level may change
+     */
+    public static final Integer OVERLOAD_WINDOW_TICKS = 66;
+    /**
+     * Amount of overruns in a window that raise the overload level
+     */
+    public static final Integer OVERLOAD_ENTER_OVERRUNS = 10;
+    /**
+     * Share of GAME_LOGIC_TICK_DURATION every tick of a window has to stay below to count as calm window
+     */
+    public static final Double OVERLOAD_EXIT_LOAD = 0.5;
+    /**
+     * Amount of calm windows in a row that lower the overload level
+     */
+    public static final Integer OVERLOAD_EXIT_WINDOWS = 3;
+    /**
+     * Longest time a single tick advances cooldowns and bombTimers, longer stalls slow the game down instead
+     */
+    public static final Long MAX_GAME_TIME_STEP = GAME_LOGIC_TICK_DURATION * 4;
+    public static final Long REDUCED_SPECTATOR_SERVER_TICK_DURATION = SERVER_TICK_DURATION * 3;
+    public static final Long REDUCED_GAME_LOGIC_TICK_DURATION = GAME_LOGIC_TICK_DURATION * 2;
+    //endregion
+    //region Warm-up
+    /**
+     * Plays games without players at startup until the JIT has compiled the hot paths, see WarmUp
+     */
+    public static final Boolean WARM_UP_ENABLED = true;
+    public static final Integer WARM_UP_MIN_TICKS = 20000;
+    public static final Integer WARM_UP_ROUND_TICKS = 2000;
+    public static final Integer WARM_UP_GAME_TICKS = 2000;
+    public static final Integer WARM_UP_SNAPSHOT_INTERVAL = 3;
+    public static final Integer WARM_UP_BOMB_ODDS = 20;
+    public static final Long WARM_UP_MAX_DURATION = 15000L;
+    public static final Long WARM_UP_SEED = 0L;
+    //endregion
     //region Map
     /**
      * Amount of rows and lines in a map
@@ -32,11 +93,32 @@ public class Constants {
      */
     public static final Integer MAP_SIZE = MAP_WIDTH * MAP_WIDTH;
     public static final Integer STARTPOSITION_PLAYER_FOUR = MAP_SIZE - 1;
+    /**
+     * Amount of idle maps kept for reuse
+     */
+    public static final Integer MAP_POOL_SIZE = 2;
+    /**
+     * Amount of rooms kept ready to be played with their maze applied, at least 1
+     */
+    public static final Integer ROOM_POOL_SIZE = 2;
+    /**
+     * Chance of a game being played on a generated maze instead of a maze of FOLDER_LOCATION_MAZES
+     */
+    public static final Double PROCEDURAL_MAZE_CHANCE = 0.5;
+    /**
+     * Shares of solid and brittle walls in generated mazes, the handmade mazes have about 17% and 27%
+     */
+    public static final Double PROCEDURAL_SOLID_DENSITY = 0.17;
+    public static final Double PROCEDURAL_BRITTLE_DENSITY = 0.27;
     //endregion
     //region Game
     public static final Long GAME_START_DELAY = 5000L;
     public static final Integer MAX_PLAYER_COUNT = 4;
     public static final String DEFAULT_PLAYER_NAME = "Bombaclap";
+    /**
+     * Amount of random bytes of the token a disconnected player has to present to resume its session
+     */
+    public static final Integer RESUME_TOKEN_LENGTH = 16;
     //endregion
     //region PlayerOne
     public static final Integer PLAYER_ID_PLAYER_ONE = 0;
@@ -64,8 +146,74 @@ public class Constants {
     //region CSV
     public static final String CSV_SEPARATOR = ";";
     public static final String FOLDER_LOCATION_MAZES = "assets/maze";
+    /**
+     * Maze-files are read as csv-file or in the binary maze format, see MazeFileHelper
+     */
+    public static final String MAZE_CSV_SUFFIX = ".csv";
+    public static final String MAZE_BINARY_SUFFIX = ".maze";
+    /**
+     * Reloads maze-files added, changed or removed while the server is running
+     */
+    public static final Boolean MAZE_HOT_RELOAD = true;
     public static final String FILE_LOCATION_SCOREBOARD_COLOR = "scoreboardByColor.csv";
     public static final String FILE_LOCATION_SCOREBOARD_NAME = "scoreboardByName.csv";
+    /**
+     * Every server process appends its matches to its own segment: scoreboard-[port].log and scoreboard-[port].idx
+     */
+    public static final String SCOREBOARD_SEGMENT_PREFIX = "scoreboard-";
+    public static final String SCOREBOARD_SEGMENT_LOG_SUFFIX = ".log";
+    public static final String SCOREBOARD_SEGMENT_INDEX_SUFFIX = ".idx";
+    /**
+     * Segments tried if the segment of the port is held by another process: scoreboard-[port]-[attempt]
+     */
+    public static final Integer SCOREBOARD_SEGMENT_ATTEMPTS = 10;
+    /**
+     * Fixed-size index holding the running totals of all server processes
+     */
+    public static final String FILE_LOCATION_SCOREBOARD_TOTALS = "scoreboardTotals.idx";
+    /**
+     * Lock-file used for sharing the highscore-files between all server processes of a working directory
+     */
+    public static final String FILE_LOCATION_SCOREBOARD_LOCK = "scoreboard.lock";
+    public static final Integer LEDGER_LOCK_ATTEMPTS = 10;
+    public static final Long LEDGER_LOCK_RETRY_DURATION = 10L;
+    /**
+     * Amount of appended matches after which the scoreboard-log is compacted in the background
+     */
+    public static final Integer SCOREBOARD_COMPACTION_THRESHOLD = 50;
     public static final Integer DEFAULT_BLOCK_TYPE_CODE = 3;
     //endregion
+    //region Persistence
+    public static final Integer PERSISTENCE_QUEUE_CAPACITY = 64;
+    public static final Integer PERSISTENCE_BATCH_SIZE = 32;
+    public static final Long PERSISTENCE_QUEUE_OFFER_TIMEOUT = 50L;
+    public static final Long PERSISTENCE_IDLE_DURATION = 100L;
+    public static final Long PERSISTENCE_SHUTDOWN_TIMEOUT = 5000L;
+    /**
+     * Time the writer waits before writing a batch again that couldn't be written
+     */
+    public static final Long PERSISTENCE_RETRY_DURATION = 1000L;
+    /**
+     * Name of a highscore.FsyncPolicy: NONE leaves flushing to the operating system,
+     * BATCH forces once per group commit, EVERY forces every match
+     */
+    public static final String PERSISTENCE_FSYNC_POLICY = "BATCH";
+    //endregion
+    //region Leaderboard
+    /**
+     * Memory-mapped index holding the aggregates of every playerName
+     */
+    public static final String FILE_LOCATION_LEADERBOARD_INDEX = "leaderboard.idx";
+    public static final Integer LEADERBOARD_INITIAL_CAPACITY = 1024;
+    public static final Integer LEADERBOARD_HISTORY_LENGTH = 10;
+    public static final Integer LEADERBOARD_QUERY_LIMIT = 10;
+    /**
+     * Time between two checks whether another process has updated the leaderboard index
+     */
+    public static final Long LEADERBOARD_REFRESH_INTERVAL = 1000L;
+    /**
+     * Leaderboard queries of a connection waiting for the next snapshot, further queries are dropped
+     */
+    public static final Integer LEADERBOARD_QUERY_QUEUE_CAPACITY = 8;
+    //endregion
 }
@@ -2,9 +2,14 @@ package game;
 
 import config.Constants;
 import helpers.DebugHelper;
+import helpers.LogHelper;
 import helpers.MapHelper;
+import metrics.ServerMetrics;
 import proxy.Field;
 
+import java.security.SecureRandom;
+import java.util.Base64;
+
 /**
  * BombermanServer-Singleton-Thread used as a lobby for the Bomberman game
  */
@@ -15,6 +20,9 @@ public class BombermanServer extends Thread {
     private static BombermanServer instance;
     private static GameState gameState;
     private final String[] connectedPlayers = new String[Constants.MAX_PLAYER_COUNT];
+    private final String[] previousPlayers = new String[Constants.MAX_PLAYER_COUNT];
+    private final String[] resumeTokens = new String[Constants.MAX_PLAYER_COUNT];
+    private final SecureRandom random = new SecureRandom();
     private Integer activeConnections = 0;
     private Boolean gameRunning = false;
     private Boolean countdownStarted = false;
@@ -90,23 +98,62 @@ public class BombermanServer extends Thread {
 
     /**
      * Adds a new connection to the active connections of the bombermanServer.
-     * This method finds the first free slot in the list of connected players.
+     * A reconnecting player resumes its session: the requested playerId is designated again if it is free,
+     * has last been used by the same playerName and the resumeToken issued to that session is presented,
+     * so the player keeps its character in a running game.
+     * Otherwise this method finds the first free slot in the list of connected players,
+     * preferring slots without an open session. While a game is running the slots of disconnected players
+     * are kept for them and only the matching resumeToken gets them back.
+     * Every designated playerId gets a new random resumeToken, which is handed out with the login response.
      *
-     * @param playerName playerName of the new connection as String
+     * @param playerName        playerName of the new connection as String
+     * @param requestedPlayerId playerId of the previous session or -1 for a new session
+     * @param resumeToken       resumeToken of the previous session or null for a new session
      * @return int representing the playerId designated to this connection,
      * returns -1 if there are no slots open for the new connection
      */
-    public int addNewConnection(String playerName) {
+    public int addNewConnection(String playerName, int requestedPlayerId, String resumeToken) {
+        boolean running = isGameRunning();
         synchronized (connectionLock) {
-            activeConnections++;
-            for (int i = 0; i < connectedPlayers.length; i++) {
+            int playerId = -1;
+            if (requestedPlayerId >= 0 && requestedPlayerId < connectedPlayers.length &&
+                    connectedPlayers[requestedPlayerId] == null &&
+                    playerName.equals(previousPlayers[requestedPlayerId]) &&
+                    resumeToken != null && resumeToken.equals(resumeTokens[requestedPlayerId])) {
+                playerId = requestedPlayerId;
+            }
+            for (int i = 0; i < connectedPlayers.length && playerId == -1; i++) {
+                if (connectedPlayers[i] == null && resumeTokens[i] == null) {
+                    playerId = i;
+                }
+            }
+            for (int i = 0; i < connectedPlayers.length && playerId == -1 && !running; i++) {
                 if (connectedPlayers[i] == null) {
-                    connectedPlayers[i] = playerName;
-                    return i;
+                    playerId = i;
                 }
             }
+            if (playerId == -1) {
+                return -1;
+            }
+            connectedPlayers[playerId] = playerName;
+            previousPlayers[playerId] = playerName;
+            resumeTokens[playerId] = createResumeToken();
+            activeConnections++;
+            ServerMetrics.getInstance().setActiveConnections(activeConnections);
+            return playerId;
+        }
+    }
+
+    /**
+     * Returns the resumeToken issued to the session of the given playerId
+     *
+     * @param playerId playerId of a connected player
+     * @return String resumeToken required to resume the session after a disconnect
+     */
+    public String getResumeToken(int playerId) {
+        synchronized (connectionLock) {
+            return resumeTokens[playerId];
         }
-        return -1;
     }
 
     /**
@@ -118,6 +165,7 @@ public class BombermanServer extends Thread {
         synchronized (connectionLock) {
             activeConnections--;
             connectedPlayers[playerId] = null;
+            ServerMetrics.getInstance().setActiveConnections(activeConnections);
         }
     }
 
@@ -133,6 +181,31 @@ public class BombermanServer extends Thread {
         }
     }
 
+    /**
+     * Forgets the sessions of players who have left, called once a game has ended and the next one is prepared.
+     * Their slots can't be resumed anymore and are free for any playerName,
+     * connected players keep their resumeToken for the next game.
+     */
+    private void forgetDisconnectedSessions() {
+        synchronized (connectionLock) {
+            for (int i = 0; i < connectedPlayers.length; i++) {
+                if (connectedPlayers[i] == null) {
+                    previousPlayers[i] = null;
+                    resumeTokens[i] = null;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return String of RESUME_TOKEN_LENGTH random bytes, Base64 encoded
+     */
+    private String createResumeToken() {
+        byte[] token = new byte[Constants.RESUME_TOKEN_LENGTH];
+        random.nextBytes(token);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(token);
+    }
+
     /**
      * Takes the startTime of the run loop and sleeps for a duration equal to the BOMBERMAN_SERVER_TICK_DURATION
      * minus the difference between startTime and now.
@@ -146,12 +219,10 @@ public class BombermanServer extends Thread {
             if (sleepTime < 0) {
                 sleepTime = 0;
             }
-            if (Constants.DEBUG_MODE) {
-                DebugHelper.printTickStats(start, end, sleepTime);
-            }
+            DebugHelper.printTickStats(start, end, sleepTime);
             Thread.sleep(sleepTime);
         } catch (InterruptedException e) {
-            e.printStackTrace();
+            LogHelper.warn("Lobby tick interrupted: {}", e);
         }
     }
 
@@ -213,11 +284,16 @@ public class BombermanServer extends Thread {
                 playerNames = connectedPlayers.clone();
             }
             synchronized (lobbyLock) {
+                boolean gameWasRunning = gameRunning;
                 if (gameState != null) {
                     gameRunning = gameState.isRunning();
                 } else {
                     gameRunning = false;
                 }
+                ServerMetrics.getInstance().setGameRunning(gameRunning);
+                if (gameWasRunning && !gameRunning) {
+                    forgetDisconnectedSessions();
+                }
                 if (!gameRunning) {
                     gameState = GameState.getInstance();
                     updateMapWithPlayerNames(playerNames);
@@ -2,34 +2,58 @@ package game;
 
 import config.Constants;
 import helpers.DebugHelper;
-import models.ActionToken;
+import helpers.LogHelper;
+import helpers.LogLevel;
+import metrics.ServerMetrics;
+import metrics.TickEvent;
+import metrics.TickPhase;
+import metrics.TickProfiler;
 import models.PlayerInfo;
 import proxy.Action;
+import proxy.ActionToken;
 import proxy.Field;
+import proxy.MovementRules;
 import proxy.Player;
 import proxy.enums.BlockType;
 import proxy.enums.BombState;
-import proxy.enums.PlayerColor;
 import proxy.enums.PlayerDirection;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
 
 /**
  * GameLogic-Singleton used to execute a game-tick
  */
 public class GameLogic {
-    private static final ArrayList<Action> PLAYER_ACTIONS = new ArrayList<>();
     private static final Object instanceLock = new Object();
-    private static final Integer[] scoreboard = new Integer[Constants.MAX_PLAYER_COUNT];
+    private static final TickPhase[] TICK_PHASES = TickPhase.values();
     private static GameLogic instance;
     private static GameState gameState;
+    private final ArrayList<Action> playerActions = new ArrayList<>();
+    private final Integer[] scoreboard = new Integer[Constants.MAX_PLAYER_COUNT];
     private final ActionToken[] actionTokens = new ActionToken[Constants.MAX_PLAYER_COUNT];
+    private final TickProfiler profiler = TickProfiler.getInstance();
+    private final OverloadController overloadController = OverloadController.getInstance();
+    private final long[] phaseNanos = new long[TICK_PHASES.length];
+    private final ArrayList<Action> tickActions = new ArrayList<>();
+    private final PlayerInfo[] playerInfos = new PlayerInfo[Constants.MAX_PLAYER_COUNT];
+    private final PlayerInfo[] playerInfoPool = new PlayerInfo[Constants.MAX_PLAYER_COUNT];
+    private final int[] processedSequences = new int[Constants.MAX_PLAYER_COUNT];
+    private final boolean detached;
+    private long lastTickStart;
+    private long gameTimeRemainder;
 
     /**
      * Private constructor to achieve Singleton-Pattern
+     *
+     * @param detached true if the GameLogic isn't connected to the gameState
      */
-    private GameLogic() {
+    private GameLogic(boolean detached) {
+        this.detached = detached;
+        Arrays.fill(scoreboard, -1);
+        fillActionTokens();
+        fillPlayerInfoPool();
     }
 
     /**
@@ -41,46 +65,104 @@ public class GameLogic {
     public static GameLogic getInstance() {
         synchronized (instanceLock) {
             if (instance == null) {
-                instance = new GameLogic();
+                instance = new GameLogic(false);
                 gameState = GameState.getInstance();
-                PLAYER_ACTIONS.clear();
-                Arrays.fill(scoreboard, -1);
-                instance.fillActionTokens();
             }
             return instance;
         }
     }
 
+    /**
+     * Creates a GameLogic that isn't connected to the gameState, used to run games without players.
+     *
+     * @return new GameLogic with its own playerActions and scoreboard
+     */
+    static GameLogic createDetached() {
+        return new GameLogic(true);
+    }
+
     /**
      * Performs a game-tick with the following steps: <br>
      * 1.Retrieves the map of the game, the list of playerActions and the current playerInfos <br>
-     * 2.Reduces all playerToken cooldowns by the duration of one GAME_LOGIC_TICK_DURATION <br>
+     * 2.Reduces all playerToken cooldowns by the time passed since the last tick <br>
      * 3.Evaluates all playerActions in the retrieved list of playerActions <br>
      * 4.Updates all bombStates in the retrieved map <br>
      * 5.Evaluates all dead players <br>
-     * 6.Updates the gameState map with the new map <br>
-     * 7.Retrieves the playerInfos after all updates and counts the amount of players still alive <br>
-     * 8.Writes the new scores to the scoreboard <br>
+     * 6.Retrieves the playerInfos after all updates and counts the amount of players still alive <br>
+     * 7.Writes the new scores to the scoreboard <br>
+     * 8.Updates the gameState map with the new map together with the sequences of the evaluated playerActions <br>
      * 9.Resumes to sleep for the remaining time in the tick <br>
-     * 10.Returns if the game has ended.
+     * 10.Returns if the game has ended. <br>
+     * The duration of every step is recorded by the TickProfiler and the OverloadController decides
+     * about the duration of the tick. Cooldowns and bombTimers advance by the measured time since the last tick,
+     * capped at MAX_GAME_TIME_STEP, so game time follows the wall clock even if ticks are lengthened or late.
      *
      * @return true if the game is still running, else false
      */
     public Boolean tick() {
+        TickEvent tickEvent = new TickEvent();
+        tickEvent.begin();
         long start = System.currentTimeMillis();
+        long tickStart = System.nanoTime();
+        long tickDuration = overloadController.getTickDuration();
         Field[] map = gameState.retrieveCurrentMap();
-        ArrayList<Action> playerActions = retrieveRecentPlayerActions();
+        int playerCount = simulateTick(map, elapsedGameTime(tickStart, tickDuration), tickStart);
+        long phaseStart = System.nanoTime();
+        gameState.updateCurrentMap(map, processedSequences);
+        recordPhaseSince(TickPhase.PUBLISH, phaseStart);
+        boolean skipRecording = overloadController.isActive(OverloadLevel.SKIPPED_RECORDING);
+        if (LogHelper.isEnabled(LogLevel.DEBUG) && !skipRecording) {
+            DebugHelper.printMapHumanReadable(map);
+        }
+        long tickNanos = System.nanoTime() - tickStart;
+        profiler.recordTick(tickNanos, TimeUnit.MILLISECONDS.toNanos(tickDuration));
+        if (!skipRecording) {
+            recordPhases(tickEvent, tickNanos, tickDuration, tickActions.size());
+        }
+        overloadController.tickFinished(tickNanos);
+        resumeTick(start, tickDuration);
+        return playerCount > 1;
+    }
+
+    /**
+     * Applies the rules of a game-tick to the given map, steps 1 to 7 of tick.
+     * Nothing is published, recorded or slept, so it can be used for games without players as well.
+     *
+     * @param map       Field[] representing the game map
+     * @param gameTime  long time in milliseconds the cooldowns and bombTimers advance by
+     * @param tickStart long start of the tick in nanoseconds
+     * @return int amount of players still alive
+     */
+    int simulateTick(Field[] map, long gameTime, long tickStart) {
+        ArrayList<Action> recentPlayerActions = retrieveRecentPlayerActions();
         PlayerInfo[] playerInfos = findPlayerInfos(map);
         for (ActionToken actionToken : actionTokens) {
-            actionToken.reduceCooldowns(Constants.GAME_LOGIC_TICK_DURATION);
+            actionToken.reduceCooldowns(gameTime);
         }
-        for (Action action : playerActions) {
+        long phaseStart = recordPhaseSince(TickPhase.INPUT_DRAIN, tickStart);
+
+        long bombPlacementNanos = 0;
+        long movementNanos = 0;
+        for (Action action : recentPlayerActions) {
+            long actionStart = System.nanoTime();
             attemptActionPlaceBomb(action, map, playerInfos);
+            long bombPlaced = System.nanoTime();
             attemptActionMoveDirection(action, map, playerInfos);
+            if (action.getSequence() != null) {
+                processedSequences[action.getPlayerId()] = action.getSequence();
+            }
+            long moved = System.nanoTime();
+            bombPlacementNanos += bombPlaced - actionStart;
+            movementNanos += moved - bombPlaced;
         }
-        updateBombs(map);
+        phaseNanos[TickPhase.BOMB_PLACEMENT.ordinal()] = bombPlacementNanos;
+        phaseNanos[TickPhase.MOVEMENT.ordinal()] = movementNanos;
+
+        phaseStart = System.nanoTime();
+        updateBombs(map, gameTime);
+        phaseStart = recordPhaseSince(TickPhase.UPDATE_BOMBS, phaseStart);
         updatePlayers(map);
-        gameState.updateCurrentMap(map);
+        phaseStart = recordPhaseSince(TickPhase.UPDATE_PLAYERS, phaseStart);
         playerInfos = findPlayerInfos(map);
         int playerCount = 0;
         for (PlayerInfo playerInfo : playerInfos) {
@@ -89,11 +171,50 @@ public class GameLogic {
             }
         }
         writeScores(playerInfos, playerCount);
-        if (Constants.DEBUG_MODE) {
-            DebugHelper.printMapHumanReadable(map);
+        recordPhaseSince(TickPhase.WRITE_SCORES, phaseStart);
+        return playerCount;
+    }
+
+    /**
+     * Stores the time passed since phaseStart for the given phase.
+     *
+     * @param phase      TickPhase that ended just now
+     * @param phaseStart long start of the phase in nanoseconds
+     * @return long end of the phase in nanoseconds, used as start of the next phase
+     */
+    private long recordPhaseSince(TickPhase phase, long phaseStart) {
+        long now = System.nanoTime();
+        phaseNanos[phase.ordinal()] = now - phaseStart;
+        return now;
+    }
+
+    /**
+     * Passes the durations of all phases to the TickProfiler
+     * and commits the tickEvent if flight recording is enabled.
+     *
+     * @param tickEvent     TickEvent begun at the start of the tick
+     * @param tickNanos     long duration of the complete tick in nanoseconds
+     * @param tickDuration  long intended duration of the tick in milliseconds
+     * @param playerActions int amount of playerActions evaluated during the tick
+     */
+    private void recordPhases(TickEvent tickEvent, long tickNanos, long tickDuration, int playerActions) {
+        for (TickPhase phase : TICK_PHASES) {
+            profiler.recordPhase(phase, phaseNanos[phase.ordinal()]);
+        }
+        tickEvent.end();
+        if (tickEvent.shouldCommit()) {
+            tickEvent.room = ServerMetrics.getInstance().getRoom();
+            tickEvent.playerActions = playerActions;
+            tickEvent.overrun = tickNanos > TimeUnit.MILLISECONDS.toNanos(tickDuration);
+            tickEvent.inputDrain = phaseNanos[TickPhase.INPUT_DRAIN.ordinal()];
+            tickEvent.bombPlacement = phaseNanos[TickPhase.BOMB_PLACEMENT.ordinal()];
+            tickEvent.movement = phaseNanos[TickPhase.MOVEMENT.ordinal()];
+            tickEvent.updateBombs = phaseNanos[TickPhase.UPDATE_BOMBS.ordinal()];
+            tickEvent.updatePlayers = phaseNanos[TickPhase.UPDATE_PLAYERS.ordinal()];
+            tickEvent.writeScores = phaseNanos[TickPhase.WRITE_SCORES.ordinal()];
+            tickEvent.publish = phaseNanos[TickPhase.PUBLISH.ordinal()];
+            tickEvent.commit();
         }
-        resumeTick(start);
-        return playerCount > 1;
     }
 
     /**
@@ -103,48 +224,78 @@ public class GameLogic {
      * @param playerAction Action representing the intended actions of a player
      */
     public void addPlayerAction(Action playerAction) {
-        synchronized (PLAYER_ACTIONS) {
-            PLAYER_ACTIONS.add(playerAction);
+        synchronized (playerActions) {
+            playerActions.add(playerAction);
         }
     }
 
     /**
-     * Takes the playerActions added to the list of playerActions
-     * and clears the list.
+     * Moves the playerActions added to the list of playerActions into the list of the current tick
+     * and clears the list. The list of the current tick is reused by every tick.
      *
      * @return ArrayList of Actions representing the playerActions sent to the gameLogic
      * during the last tick
      */
     private ArrayList<Action> retrieveRecentPlayerActions() {
-        ArrayList<Action> copyOfPlayerActions = new ArrayList<>();
-        synchronized (PLAYER_ACTIONS) {
-            if (PLAYER_ACTIONS.size() > 0) {
-                copyOfPlayerActions = new ArrayList<>(PLAYER_ACTIONS);
-                PLAYER_ACTIONS.clear();
+        tickActions.clear();
+        synchronized (playerActions) {
+            for (int i = 0; i < playerActions.size(); i++) {
+                tickActions.add(playerActions.get(i));
             }
+            playerActions.clear();
         }
-        return copyOfPlayerActions;
+        return tickActions;
     }
 
     /**
      * Takes the start-time of the tick and sleeps for a duration equal to
-     * GAME_LOGIC_TICK_DURATION minus the difference between start-time and now.
+     * tickDuration minus the difference between start-time and now.
      *
-     * @param start long representing start-time of the tick in milliseconds
+     * @param start        long representing start-time of the tick in milliseconds
+     * @param tickDuration long intended duration of the tick in milliseconds
      */
-    private void resumeTick(long start) {
+    private void resumeTick(long start, long tickDuration) {
         long end = System.currentTimeMillis();
         try {
-            long sleepTime = Constants.GAME_LOGIC_TICK_DURATION + start - end;
+            long sleepTime = tickDuration + start - end;
             if (sleepTime < 0) {
                 sleepTime = 0;
             }
-            if (Constants.DEBUG_MODE) {
-                DebugHelper.printTickStats(start, end, sleepTime);
-            }
+            DebugHelper.printTickStats(start, end, sleepTime);
             Thread.sleep(sleepTime);
         } catch (InterruptedException e) {
-            e.printStackTrace();
+            LogHelper.warn("Tick interrupted: {}", e);
+        }
+    }
+
+    /**
+     * Measures the game time a tick advances, the part below a millisecond is carried over to the next tick
+     *
+     * @param tickStart    long start of the tick in nanoseconds
+     * @param tickDuration long planned duration of the tick in milliseconds, used for the first tick of a game
+     * @return long game time in milliseconds, at most MAX_GAME_TIME_STEP
+     */
+    private long elapsedGameTime(long tickStart, long tickDuration) {
+        long elapsed = tickDuration;
+        if (lastTickStart != 0) {
+            long elapsedNanos = tickStart - lastTickStart + gameTimeRemainder;
+            elapsed = elapsedNanos / 1_000_000;
+            gameTimeRemainder = elapsedNanos % 1_000_000;
+            if (elapsed > Constants.MAX_GAME_TIME_STEP) {
+                elapsed = Constants.MAX_GAME_TIME_STEP;
+                gameTimeRemainder = 0;
+            }
+        }
+        lastTickStart = tickStart;
+        return elapsed;
+    }
+
+    /**
+     * Initializes the playerInfos reused by every tick
+     */
+    private void fillPlayerInfoPool() {
+        for (int i = 0; i < playerInfoPool.length; i++) {
+            playerInfoPool[i] = new PlayerInfo();
         }
     }
 
@@ -153,7 +304,7 @@ public class GameLogic {
      */
     private void fillActionTokens() {
         for (int i = 0; i < actionTokens.length; i++) {
-            actionTokens[i] = new ActionToken();
+            actionTokens[i] = new ActionToken(Constants.PLAYER_MOVEMENT_COOLDOWN, Constants.PLAYER_BOMB_COOLDOWN);
         }
     }
 
@@ -198,24 +349,16 @@ public class GameLogic {
                 action.getPlayerDirection() != PlayerDirection.NO_DIRECTION &&
                 playerDirectionValid(map, action, playerInfo) &&
                 actionTokens[actionPlayerId].move()) {
-            Player player = new Player(playerInfo.getName(), playerInfo.getColor(), playerInfo.getDirection());
+            Player player = map[playerInfo.getIndex()].getPlayers()[actionPlayerId];
             map[playerInfo.getIndex()].getPlayers()[actionPlayerId] = null;
-            switch (action.getPlayerDirection()) {
-                case DOWN -> map[playerInfo.getX() + (playerInfo.getY() + 1) * Constants.MAP_WIDTH]
-                        .getPlayers()[action.getPlayerId()] = player;
-                case UP -> map[playerInfo.getX() + (playerInfo.getY() - 1) * Constants.MAP_WIDTH]
-                        .getPlayers()[action.getPlayerId()] = player;
-                case LEFT -> map[(playerInfo.getX() - 1) + playerInfo.getY() * Constants.MAP_WIDTH]
-                        .getPlayers()[action.getPlayerId()] = player;
-                case RIGHT -> map[(playerInfo.getX() + 1) + playerInfo.getY() * Constants.MAP_WIDTH]
-                        .getPlayers()[action.getPlayerId()] = player;
-            }
+            map[MovementRules.targetIndex(playerInfo.getX(), playerInfo.getY(), action.getPlayerDirection(),
+                    Constants.MAP_WIDTH, Constants.MAP_WIDTH)].getPlayers()[actionPlayerId] = player;
         }
     }
 
     /**
      * Evaluates if the movement requested by the given action is valid in the given map
-     * for the given playerInfo of a player.
+     * for the given playerInfo of a player. The rules are shared with the client prediction through MovementRules.
      *
      * @param map        Field[] represents the game map
      * @param action     Action represents the player's intended actions
@@ -223,62 +366,32 @@ public class GameLogic {
      * @return true if the movement is valid, else false
      */
     private boolean playerDirectionValid(Field[] map, Action action, PlayerInfo playerInfo) {
-        boolean validMove = false;
-        switch (action.getPlayerDirection()) {
-            case RIGHT -> {
-                if (playerInfo.getX() + 1 < Constants.MAP_WIDTH) {
-                    int newIndex = (playerInfo.getX() + 1) + playerInfo.getY() * Constants.MAP_WIDTH;
-                    boolean noWall = map[newIndex].getGround() != BlockType.SOLID_WALL && map[newIndex].getGround() != BlockType.BRITTLE_WALL;
-                    boolean noBomb = map[newIndex].getBombState() == BombState.NO_BOMB || map[newIndex].getBombState() == BombState.FIRE_STATE;
-                    validMove = noWall && noBomb;
-                }
-            }
-            case LEFT -> {
-                if (playerInfo.getX() - 1 >= 0) {
-                    int newIndex = (playerInfo.getX() - 1) + playerInfo.getY() * Constants.MAP_WIDTH;
-                    boolean noWall = map[newIndex].getGround() != BlockType.SOLID_WALL && map[newIndex].getGround() != BlockType.BRITTLE_WALL;
-                    boolean noBomb = map[newIndex].getBombState() == BombState.NO_BOMB || map[newIndex].getBombState() == BombState.FIRE_STATE;
-                    validMove = noWall && noBomb;
-                }
-            }
-            case DOWN -> {
-                if (playerInfo.getY() + 1 < Constants.MAP_WIDTH) {
-                    int newIndex = playerInfo.getX() + (playerInfo.getY() + 1) * Constants.MAP_WIDTH;
-                    boolean noWall = map[newIndex].getGround() != BlockType.SOLID_WALL && map[newIndex].getGround() != BlockType.BRITTLE_WALL;
-                    boolean noBomb = map[newIndex].getBombState() == BombState.NO_BOMB || map[newIndex].getBombState() == BombState.FIRE_STATE;
-                    validMove = noWall && noBomb;
-                }
-            }
-            case UP -> {
-                if (playerInfo.getY() - 1 >= 0) {
-                    int newIndex = playerInfo.getX() + (playerInfo.getY() - 1) * Constants.MAP_WIDTH;
-                    boolean noWall = map[newIndex].getGround() != BlockType.SOLID_WALL && map[newIndex].getGround() != BlockType.BRITTLE_WALL;
-                    boolean noBomb = map[newIndex].getBombState() == BombState.NO_BOMB || map[newIndex].getBombState() == BombState.FIRE_STATE;
-                    validMove = noWall && noBomb;
-                }
-            }
-        }
-        return validMove;
+        return MovementRules.validTarget(map, Constants.MAP_WIDTH, Constants.MAP_WIDTH,
+                playerInfo.getX(), playerInfo.getY(), action.getPlayerDirection()) != -1;
     }
 
     /**
      * Searches for all information on each player in the given map.
+     * The returned array and its playerInfos are reused, they are only valid until the next call.
      *
      * @param map Field[] representing the game map
-     * @return PlayerInfo[] representing the playerInfo of each player
+     * @return PlayerInfo[] representing the playerInfo of each player, null for dead players
      */
     private PlayerInfo[] findPlayerInfos(Field[] map) {
-        PlayerInfo[] playerInfos = new PlayerInfo[Constants.MAX_PLAYER_COUNT];
+        Arrays.fill(playerInfos, null);
         for (int i = 0; i < map.length; i++) {
             Player[] players = map[i].getPlayers();
             for (int j = 0; j < players.length; j++) {
                 if (players[j] != null) {
-                    int x = i % Constants.MAP_WIDTH;
-                    int y = i / Constants.MAP_WIDTH;
-                    String name = players[j].getName();
-                    PlayerColor color = players[j].getColor();
-                    PlayerDirection direction = players[j].getDirection();
-                    playerInfos[j] = new PlayerInfo(j, x, y, i, name, color, direction);
+                    PlayerInfo playerInfo = playerInfoPool[j];
+                    playerInfo.setPlayerId(j);
+                    playerInfo.setX(i % Constants.MAP_WIDTH);
+                    playerInfo.setY(i / Constants.MAP_WIDTH);
+                    playerInfo.setIndex(i);
+                    playerInfo.setName(players[j].getName());
+                    playerInfo.setColor(players[j].getColor());
+                    playerInfo.setDirection(players[j].getDirection());
+                    playerInfos[j] = playerInfo;
                 }
             }
         }
@@ -286,24 +399,26 @@ public class GameLogic {
     }
 
     /**
-     * Increases the bombTimer of every bomb in the map
-     * and changes their bombStates according to the bombTimer.
+     * Increases the bombTimer of every bomb in the map by tickDuration
+     * and changes their bombStates when the bombTimer passes a multiple of BOMB_STATE_COOLDOWN.
      *
-     * @param map Field[] representing the game map
+     * @param map          Field[] representing the game map
+     * @param tickDuration long duration of the current tick in milliseconds
      */
-    private void updateBombs(Field[] map) {
+    private void updateBombs(Field[] map, long tickDuration) {
         for (Field field : map) {
-            long bombTimer = field.getBombTimer();
+            long previousBombTimer = field.getBombTimer();
+            long bombTimer = previousBombTimer;
             if (field.getBombState() != BombState.NO_BOMB) {
-                bombTimer += Constants.GAME_LOGIC_TICK_DURATION;
+                bombTimer += tickDuration;
             }
-            if (bombTimer == Constants.BOMB_STATE_COOLDOWN) {
+            if (passed(previousBombTimer, bombTimer, Constants.BOMB_STATE_COOLDOWN)) {
                 field.setBombState(BombState.RED_STATE);
             }
-            if (bombTimer == Constants.BOMB_STATE_COOLDOWN * 2) {
+            if (passed(previousBombTimer, bombTimer, Constants.BOMB_STATE_COOLDOWN * 2)) {
                 field.setBombState(BombState.EXPLODING_STATE);
             }
-            if (bombTimer == Constants.BOMB_STATE_COOLDOWN * 3) {
+            if (passed(previousBombTimer, bombTimer, Constants.BOMB_STATE_COOLDOWN * 3)) {
                 this.triggerBomb(map, field, bombTimer);
             }
             if (bombTimer >= Constants.BOMB_STATE_COOLDOWN * 4) {
@@ -319,6 +434,18 @@ public class GameLogic {
         }
     }
 
+    /**
+     * Checks whether a bombTimer reached the given threshold during the current tick
+     *
+     * @param previousBombTimer long bombTimer before the tick
+     * @param bombTimer         long bombTimer after the tick
+     * @param threshold         long threshold of a bombState
+     * @return true if the threshold has been reached in this tick, else false
+     */
+    private boolean passed(long previousBombTimer, long bombTimer, long threshold) {
+        return previousBombTimer < threshold && bombTimer >= threshold;
+    }
+
     /**
      * Triggers the bomb in the given field and spreads the bombExplosion
      * to the next two fields in each direction.
@@ -463,9 +590,21 @@ public class GameLogic {
     }
 
     /**
-     * Resets the gameLogic
+     * Resets the gameLogic in place, so the next game reuses its actionTokens and buffers
      */
     public void reset() {
-        instance = null;
+        synchronized (playerActions) {
+            playerActions.clear();
+        }
+        Arrays.fill(scoreboard, -1);
+        Arrays.fill(processedSequences, 0);
+        for (ActionToken actionToken : actionTokens) {
+            actionToken.reset();
+        }
+        lastTickStart = 0;
+        gameTimeRemainder = 0;
+        if (!detached) {
+            overloadController.reset();
+        }
     }
 }
@@ -1,10 +1,12 @@
 package game;
 
 import config.Constants;
-import helpers.HighscoreHelper;
+import helpers.LogHelper;
+import highscore.PersistenceQueue;
+import metrics.ServerMetrics;
 import proxy.Field;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 
 /**
  * GameState-Singleton-Thread used as single-source-of-truth
@@ -12,7 +14,10 @@ import java.util.ArrayList;
 public class GameState extends Thread {
     private static final Object mapLock = new Object();
     private static final Object instanceLock = new Object();
+    private static final int[] acknowledgedSequences = new int[Constants.MAX_PLAYER_COUNT];
     private static Field[] map;
+    private static MapBuilder mapBuilder;
+    private static MapBuilder retiredMapBuilder;
     private static GameState instance;
     private static GameLogic gameLogic;
     private static BombermanServer bombermanServer;
@@ -37,15 +42,14 @@ public class GameState extends Thread {
                 gameLogic = GameLogic.getInstance();
                 bombermanServer = BombermanServer.getInstance();
                 instance.setDaemon(true);
-                map = new MapBuilder()
-                        .generateMap()
-                        .generatePlayers(new String[]{
-                                Constants.NAME_PLAYER_ONE,
-                                Constants.NAME_PLAYER_TWO,
-                                Constants.NAME_PLAYER_THREE,
-                                Constants.NAME_PLAYER_FOUR})
-                        .generateRandomMaze(Constants.FOLDER_LOCATION_MAZES)
-                        .retrieveMap();
+                long preparationStart = System.nanoTime();
+                // the map of the previous game is only reused once the next game has begun, no snapshot reads it anymore
+                MapPool.getInstance().release(retiredMapBuilder);
+                retiredMapBuilder = mapBuilder;
+                mapBuilder = RoomPool.getInstance().take();
+                map = mapBuilder.retrieveMap();
+                ServerMetrics.getInstance().mapPrepared(System.nanoTime() - preparationStart);
+                LogHelper.info("Next maze: {}", mapBuilder.getMazeName());
             }
             return instance;
         }
@@ -73,6 +77,33 @@ public class GameState extends Thread {
         }
     }
 
+    /**
+     * Returns the current map together with the sequences of the playerActions whose result it contains
+     *
+     * @param sequences int[] filled with the acknowledged sequence of every player
+     * @return Field[] map of the game
+     */
+    public Field[] retrieveCurrentMap(int[] sequences) {
+        synchronized (mapLock) {
+            System.arraycopy(acknowledgedSequences, 0, sequences, 0, acknowledgedSequences.length);
+            return map;
+        }
+    }
+
+    /**
+     * Updates the current map together with the sequences of the playerActions evaluated for it,
+     * so no playerAction is acknowledged before the map containing its result is published
+     *
+     * @param newMap             Field[] new map of the game
+     * @param processedSequences int[] sequence of the last evaluated playerAction of every player
+     */
+    public void updateCurrentMap(Field[] newMap, int[] processedSequences) {
+        synchronized (mapLock) {
+            map = newMap;
+            System.arraycopy(processedSequences, 0, acknowledgedSequences, 0, acknowledgedSequences.length);
+        }
+    }
+
     /**
      * Starts the game
      */
@@ -87,6 +118,9 @@ public class GameState extends Thread {
      */
     private void resetGame() {
         gameLogic.reset();
+        synchronized (mapLock) {
+            Arrays.fill(acknowledgedSequences, 0);
+        }
         instance = null;
     }
 
@@ -100,25 +134,10 @@ public class GameState extends Thread {
     }
 
     /**
-     * Appends the most recent scores to both scoreboard-csv-files
+     * Hands the most recent scores to the persistenceQueue, they are written by its writer-thread
      */
     private void persistScoreboard() {
-        Integer[] scores = gameLogic.getScoreboard();
-        String[] names = bombermanServer.getConnectedPlayers();
-        String[] namedScores = {
-                scores[0].toString(),
-                scores[1].toString(),
-                scores[2].toString(),
-                scores[3].toString()};
-
-        ArrayList<Integer[]> scoreboardsByColor = HighscoreHelper.readScoreboardByColor();
-        scoreboardsByColor.add(scores);
-        HighscoreHelper.writeScoreboardByColor(scoreboardsByColor);
-
-        ArrayList<String[]> scoreboardsByName = HighscoreHelper.readScoreboardByName();
-        scoreboardsByName.add(names);
-        scoreboardsByName.add(namedScores);
-        HighscoreHelper.writeScoreboardByName(scoreboardsByName);
+        PersistenceQueue.getInstance().submit(bombermanServer.getConnectedPlayers(), gameLogic.getScoreboard());
     }
 
     /**
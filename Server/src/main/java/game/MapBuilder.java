@@ -1,123 +1,193 @@
 package game;
 
 import config.Constants;
-import helpers.MapHelper;
+import helpers.LogHelper;
+import helpers.MazeFileHelper;
+import models.MazeTemplate;
 import proxy.Field;
 import proxy.Player;
 import proxy.enums.BlockType;
 import proxy.enums.BombState;
+import proxy.enums.PlayerColor;
 import proxy.enums.PlayerDirection;
 
-import java.io.File;
-import java.util.ArrayList;
+import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.Arrays;
-import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * MapBuilder-Builder used to build a map for gameState
  */
 public class MapBuilder {
+    /**
+     * BlockType of every blockCode used in maze-files, the index is the code
+     */
+    private static final BlockType[] BLOCK_TYPES_BY_CODE =
+            {BlockType.SOLID_WALL, BlockType.BRITTLE_WALL, BlockType.GRASS};
     private final Field[] map;
+    private final Player[] players;
+    private MazeGenerator mazeGenerator;
+    private String mazeName;
 
     /**
-     * Creates a MapBuilder with a blank map of length equal to MAP_SIZE
+     * Creates a MapBuilder with a blank map of length equal to MAP_SIZE.
+     * The map and its players belong to this mapBuilder, building another map resets them in place.
      */
     public MapBuilder() {
         map = new Field[Constants.MAP_SIZE];
+        players = new Player[Constants.MAX_PLAYER_COUNT];
     }
 
     /**
      * Fills the map with fields.
-     * Fields are created with default values for ground and bombState,
+     * Fields are created or reset with default values for ground and bombState,
      * and they are passed their coordinates in the map.
      *
      * @return MapBuilder this
      */
     public MapBuilder generateMap() {
         for (int i = 0; i < map.length; i++) {
-            Field field = new Field();
+            Field field = map[i];
+            if (field == null) {
+                field = new Field();
+                field.setX(i % Constants.MAP_WIDTH);
+                field.setY(i / Constants.MAP_WIDTH);
+                map[i] = field;
+            } else {
+                Arrays.fill(field.getPlayers(), null);
+            }
             field.setGround(BlockType.GRASS);
             field.setBombState(BombState.NO_BOMB);
-            field.setX(i % Constants.MAP_WIDTH);
-            field.setY(i / Constants.MAP_WIDTH);
-            map[i] = field;
+            field.setBombTimer(0);
         }
         return this;
     }
 
     /**
      * Fills the startingPositions in the map with players.
-     * Players are created with default values for playerId, color and direction.
+     * Players are created or reset with default values for playerId, color and direction.
      *
      * @param playerNames Array of Strings representing playerNames
      * @return MapBuilder this
      */
     public MapBuilder generatePlayers(String[] playerNames) {
-        map[Constants.STARTPOSITION_PLAYER_ONE].getPlayers()[Constants.PLAYER_ID_PLAYER_ONE] =
-                new Player(playerNames[Constants.PLAYER_ID_PLAYER_ONE], Constants.COLOR_PLAYER_ONE, PlayerDirection.NO_DIRECTION);
-        map[Constants.STARTPOSITION_PLAYER_TWO].getPlayers()[Constants.PLAYER_ID_PLAYER_TWO] =
-                new Player(playerNames[Constants.PLAYER_ID_PLAYER_TWO], Constants.COLOR_PLAYER_TWO, PlayerDirection.NO_DIRECTION);
-        map[Constants.STARTPOSITION_PLAYER_THREE].getPlayers()[Constants.PLAYER_ID_PLAYER_THREE] =
-                new Player(playerNames[Constants.PLAYER_ID_PLAYER_THREE], Constants.COLOR_PLAYER_THREE, PlayerDirection.NO_DIRECTION);
-        map[Constants.STARTPOSITION_PLAYER_FOUR].getPlayers()[Constants.PLAYER_ID_PLAYER_FOUR] =
-                new Player(playerNames[Constants.PLAYER_ID_PLAYER_FOUR], Constants.COLOR_PLAYER_FOUR, PlayerDirection.NO_DIRECTION);
+        placePlayer(Constants.PLAYER_ID_PLAYER_ONE, Constants.STARTPOSITION_PLAYER_ONE,
+                playerNames[Constants.PLAYER_ID_PLAYER_ONE], Constants.COLOR_PLAYER_ONE);
+        placePlayer(Constants.PLAYER_ID_PLAYER_TWO, Constants.STARTPOSITION_PLAYER_TWO,
+                playerNames[Constants.PLAYER_ID_PLAYER_TWO], Constants.COLOR_PLAYER_TWO);
+        placePlayer(Constants.PLAYER_ID_PLAYER_THREE, Constants.STARTPOSITION_PLAYER_THREE,
+                playerNames[Constants.PLAYER_ID_PLAYER_THREE], Constants.COLOR_PLAYER_THREE);
+        placePlayer(Constants.PLAYER_ID_PLAYER_FOUR, Constants.STARTPOSITION_PLAYER_FOUR,
+                playerNames[Constants.PLAYER_ID_PLAYER_FOUR], Constants.COLOR_PLAYER_FOUR);
         return this;
     }
 
     /**
-     * Fills the map with blocks according to data read from the csv-file in the given fileLocation.
+     * Puts the player with the given playerId on its startPosition, the player of a previous map is reused
+     *
+     * @param playerId      int id of the player
+     * @param startPosition int index of the field the player starts on
+     * @param name          String name of the player
+     * @param color         PlayerColor of the player
+     */
+    private void placePlayer(int playerId, int startPosition, String name, PlayerColor color) {
+        Player player = players[playerId];
+        if (player == null) {
+            player = new Player();
+            players[playerId] = player;
+        }
+        player.setName(name);
+        player.setColor(color);
+        player.setDirection(PlayerDirection.NO_DIRECTION);
+        map[startPosition].getPlayers()[playerId] = player;
+    }
+
+    /**
+     * Fills the map with blocks according to data read from the maze-file in the given fileLocation.
+     * Files with MAZE_BINARY_SUFFIX are read in the binary maze format, every other file as csv.
      *
-     * @param fileLocation String location of a csv-file of a maze
+     * @param fileLocation String location of a csv- or binary maze-file
      * @return MapBuilder this
      */
     public MapBuilder generateMaze(String fileLocation) {
-        ArrayList<Integer> blockCodes = MapHelper.readMap(fileLocation);
-        for (int i = 0; i < map.length; i++) {
-            switch (blockCodes.get(i)) {
-                case 0 -> map[i].setGround(BlockType.SOLID_WALL);
-                case 1 -> map[i].setGround(BlockType.BRITTLE_WALL);
-                case 2 -> map[i].setGround(BlockType.GRASS);
+        try {
+            MazeTemplate template = MazeFileHelper.readMaze(Paths.get(fileLocation));
+            if (template.cellCount() == map.length) {
+                return generateMaze(template);
             }
+        } catch (IOException e) {
+            LogHelper.error("Maze not readable: {}", e);
         }
         return this;
     }
 
     /**
-     * Fills the map with blocks according to data read from a randomly selected csv-file in the given folderLocation.
+     * Fills the map with blocks according to the blockCodes of the given template.
+     * Codes without a BlockType keep the ground set by generateMap.
      *
-     * @param folderLocation String location of csv-files of mazes
+     * @param template MazeTemplate with one blockCode per field, may be null
      * @return MapBuilder this
      */
-    public MapBuilder generateRandomMaze(String folderLocation) {
-        Random random = new Random();
-        File dir = new File(folderLocation);
-        File[] files = dir.listFiles();
-        if (files == null) {
-            return this;
-        }
-        File file = files[random.nextInt(files.length)];
-        if (file == null) {
+    public MapBuilder generateMaze(MazeTemplate template) {
+        if (template == null) {
             return this;
         }
-        ArrayList<Integer> blockCodes = MapHelper.readMap(file.getAbsolutePath());
+        mazeName = template.getName();
         for (int i = 0; i < map.length; i++) {
-            switch (blockCodes.get(i)) {
-                case 0 -> map[i].setGround(BlockType.SOLID_WALL);
-                case 1 -> map[i].setGround(BlockType.BRITTLE_WALL);
-                case 2 -> map[i].setGround(BlockType.GRASS);
+            int code = template.cellAt(i);
+            if (code >= 0 && code < BLOCK_TYPES_BY_CODE.length) {
+                map[i].setGround(BLOCK_TYPES_BY_CODE[code]);
             }
         }
         return this;
     }
 
     /**
-     * Returns the map currently stored in this mapBuilder and resets the stored map
+     * Fills the map with blocks of a maze generated from the given seed.
+     *
+     * @param seed long seed of the maze, the same seed always results in the same maze
+     * @return MapBuilder this
+     */
+    public MapBuilder generateProceduralMaze(long seed) {
+        if (mazeGenerator == null) {
+            mazeGenerator = new MazeGenerator(Constants.MAP_WIDTH, Constants.MAP_WIDTH,
+                    Constants.PROCEDURAL_SOLID_DENSITY, Constants.PROCEDURAL_BRITTLE_DENSITY);
+        }
+        return generateMaze(mazeGenerator.generate(seed));
+    }
+
+    /**
+     * Fills the map with blocks of a generated maze with a chance of PROCEDURAL_MAZE_CHANCE
+     * or else with a randomly selected template of the mazeCache.
+     *
+     * @return MapBuilder this
+     */
+    public MapBuilder generateRandomMaze() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        MazeTemplate template = MazeCache.getInstance().getRandomTemplate();
+        if (template == null || random.nextDouble() < Constants.PROCEDURAL_MAZE_CHANCE) {
+            return generateProceduralMaze(random.nextLong());
+        }
+        return generateMaze(template);
+    }
+
+    /**
+     * Returns the name of the maze applied last, generated mazes are named after their seed.
+     *
+     * @return String name of the maze or null if no maze has been applied
+     */
+    public String getMazeName() {
+        return mazeName;
+    }
+
+    /**
+     * Returns the map currently stored in this mapBuilder without copying it.
+     * The map is reset by the next call of generateMap, so a mapBuilder must not be reused while its map is played.
      *
      * @return Field[] as map
      */
     public Field[] retrieveMap() {
-        Field[] currentMap = Arrays.stream(map).toArray(Field[]::new);
-        Arrays.fill(map, null);
-        return currentMap;
+        return map;
     }
 }
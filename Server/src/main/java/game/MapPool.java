@@ -0,0 +1,65 @@
+package game;
+
+import config.Constants;
+
+import java.util.ArrayDeque;
+
+/**
+ * MapPool-Singleton holding the mapBuilders of finished games, so their fields and players are reset in place
+ * instead of being allocated again for every game.
+ * The pool is filled with MAP_POOL_SIZE mapBuilders and hands them out in the order they have been released.
+ */
+public class MapPool {
+    private static final Object instanceLock = new Object();
+    private static MapPool instance;
+    private final ArrayDeque<MapBuilder> mapBuilders = new ArrayDeque<>();
+
+    /**
+     * Private constructor to achieve Singleton-Pattern
+     */
+    private MapPool() {
+        for (int i = 0; i < Constants.MAP_POOL_SIZE; i++) {
+            mapBuilders.add(new MapBuilder());
+        }
+    }
+
+    /**
+     * Returns the only existing MapPool-Instance or
+     * creates an instance if it doesn't exist yet.
+     *
+     * @return unique instance of MapPool
+     */
+    public static MapPool getInstance() {
+        synchronized (instanceLock) {
+            if (instance == null) {
+                instance = new MapPool();
+            }
+            return instance;
+        }
+    }
+
+    /**
+     * Takes the mapBuilder that has been released first or creates a new one if the pool is empty.
+     *
+     * @return MapBuilder not used by any other game
+     */
+    public MapBuilder acquire() {
+        synchronized (mapBuilders) {
+            MapBuilder mapBuilder = mapBuilders.poll();
+            return mapBuilder != null ? mapBuilder : new MapBuilder();
+        }
+    }
+
+    /**
+     * Returns the mapBuilder of a finished game to the pool, it is dropped if the pool is full
+     *
+     * @param mapBuilder MapBuilder whose map isn't played anymore
+     */
+    public void release(MapBuilder mapBuilder) {
+        synchronized (mapBuilders) {
+            if (mapBuilder != null && mapBuilders.size() < Constants.MAP_POOL_SIZE) {
+                mapBuilders.add(mapBuilder);
+            }
+        }
+    }
+}
@@ -0,0 +1,215 @@
+package game;
+
+import config.Constants;
+import helpers.LogHelper;
+import helpers.MazeFileHelper;
+import models.MazeTemplate;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * MazeCache-Singleton holding every maze of FOLDER_LOCATION_MAZES as parsed MazeTemplate,
+ * so building a map between two games never touches the file system.
+ * A watcher-thread reloads mazes that are added, changed or removed while the server is running.
+ */
+public class MazeCache {
+    private static final Object instanceLock = new Object();
+    private static MazeCache instance;
+    private final Path folder;
+    private final Map<String, MazeTemplate> templatesByName = new TreeMap<>();
+    private volatile MazeTemplate[] templates = new MazeTemplate[0];
+
+    /**
+     * Private constructor to achieve Singleton-Pattern
+     */
+    private MazeCache() {
+        folder = Paths.get(Constants.FOLDER_LOCATION_MAZES);
+        loadAll();
+        if (Constants.MAZE_HOT_RELOAD) {
+            startWatcher();
+        }
+    }
+
+    /**
+     * Returns the only existing MazeCache-Instance or
+     * creates an instance if it doesn't exist yet and loads all mazes.
+     *
+     * @return unique instance of MazeCache
+     */
+    public static MazeCache getInstance() {
+        synchronized (instanceLock) {
+            if (instance == null) {
+                instance = new MazeCache();
+            }
+            return instance;
+        }
+    }
+
+    /**
+     * Returns a randomly selected template.
+     *
+     * @return MazeTemplate or null if no valid maze has been found
+     */
+    public MazeTemplate getRandomTemplate() {
+        MazeTemplate[] current = templates;
+        if (current.length == 0) {
+            return null;
+        }
+        return current[ThreadLocalRandom.current().nextInt(current.length)];
+    }
+
+    /**
+     * Returns the template of the maze-file with the given name.
+     *
+     * @param name String file name of the maze
+     * @return MazeTemplate or null if the maze isn't cached
+     */
+    public MazeTemplate getTemplate(String name) {
+        synchronized (templatesByName) {
+            return templatesByName.get(name);
+        }
+    }
+
+    /**
+     * Returns the amount of cached templates.
+     *
+     * @return int amount of templates
+     */
+    public int size() {
+        return templates.length;
+    }
+
+    /**
+     * Parses every file of the maze-folder
+     */
+    private void loadAll() {
+        if (!Files.isDirectory(folder)) {
+            LogHelper.warn("Maze folder not found: {}", folder.toAbsolutePath());
+            return;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(folder)) {
+            for (Path file : files) {
+                load(file);
+            }
+        } catch (IOException e) {
+            LogHelper.error("Maze folder not readable: {}", e);
+        }
+        LogHelper.info("Mazes loaded: {}", size());
+    }
+
+    /**
+     * Parses the given csv- or binary maze-file and replaces its template.
+     * A file that isn't readable or doesn't fill the map exactly keeps the previous template.
+     *
+     * @param file Path of the maze-file
+     * @return true if the template has been replaced, else false
+     */
+    private boolean load(Path file) {
+        if (!Files.isRegularFile(file) || !MazeFileHelper.isMazeFile(file)) {
+            return false;
+        }
+        String name = file.getFileName().toString();
+        try {
+            MazeTemplate template = MazeFileHelper.readMaze(file);
+            if (template.getWidth() != Constants.MAP_WIDTH || template.cellCount() != Constants.MAP_SIZE) {
+                LogHelper.warn("Maze skipped, size doesn't match MAP_WIDTH: {}", name);
+                return false;
+            }
+            synchronized (templatesByName) {
+                templatesByName.put(name, template);
+                publish();
+            }
+            return true;
+        } catch (IOException e) {
+            LogHelper.error("Maze not readable: {}", e);
+            return false;
+        }
+    }
+
+    /**
+     * Removes the template of the given maze-file
+     *
+     * @param file Path of the removed maze-file
+     * @return true if a template has been removed, else false
+     */
+    private boolean remove(Path file) {
+        synchronized (templatesByName) {
+            if (templatesByName.remove(file.getFileName().toString()) == null) {
+                return false;
+            }
+            publish();
+            return true;
+        }
+    }
+
+    /**
+     * Replaces the array read by getRandomTemplate, has to be called while holding templatesByName
+     */
+    private void publish() {
+        templates = templatesByName.values().toArray(new MazeTemplate[0]);
+    }
+
+    /**
+     * Starts the daemon-thread watching the maze-folder
+     */
+    private void startWatcher() {
+        if (!Files.isDirectory(folder)) {
+            return;
+        }
+        try {
+            WatchService watchService = folder.getFileSystem().newWatchService();
+            folder.register(watchService,
+                    StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY,
+                    StandardWatchEventKinds.ENTRY_DELETE);
+            Thread watcher = new Thread(() -> watchLoop(watchService), "maze-watcher");
+            watcher.setDaemon(true);
+            watcher.start();
+        } catch (IOException e) {
+            LogHelper.warn("Maze hot-reload not available: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Watcher-Thread loop, reloads every maze-file an event has been reported for
+     *
+     * @param watchService WatchService the maze-folder is registered with
+     */
+    private void watchLoop(WatchService watchService) {
+        while (true) {
+            WatchKey key;
+            try {
+                key = watchService.take();
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                return;
+            }
+            for (WatchEvent<?> event : key.pollEvents()) {
+                if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                    loadAll();
+                    continue;
+                }
+                Path file = folder.resolve((Path) event.context());
+                boolean changed = event.kind() == StandardWatchEventKinds.ENTRY_DELETE ? remove(file) : load(file);
+                if (changed) {
+                    LogHelper.info("Maze reloaded: {}", file.getFileName());
+                }
+            }
+            if (!key.reset()) {
+                LogHelper.warn("Maze folder not watched anymore: {}", folder.toAbsolutePath());
+                return;
+            }
+        }
+    }
+}
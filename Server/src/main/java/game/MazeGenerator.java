@@ -0,0 +1,175 @@
+package game;
+
+import models.MazeTemplate;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * MazeGenerator used to generate mazes of any size from a seed.
+ * Only the top-left quarter is rolled, the other quarters are mirrored from it, so every corner spawn
+ * sees the same maze. Solid walls that cut a spawn off from the others are turned into brittle walls,
+ * so every spawn can reach every other spawn by bombing through brittle walls.
+ * Because of the symmetry only the quarter is searched: a spawn that reaches the last column and the last row
+ * of its quarter reaches the mirrored spawns as well.
+ */
+public class MazeGenerator {
+    private static final byte SOLID_WALL = 0;
+    private static final byte BRITTLE_WALL = 1;
+    private static final byte GRASS = 2;
+    private static final int UNREACHED = Integer.MAX_VALUE;
+    private final int width;
+    private final int height;
+    private final double solidDensity;
+    private final double brittleDensity;
+    private final int quarterWidth;
+    private final int quarterHeight;
+    private final int[] spawns;
+    private final byte[] quarter;
+    private final int[] distances;
+    private final int[] previous;
+    private final int[] deque;
+
+    /**
+     * Creates a MazeGenerator for mazes of the given size
+     *
+     * @param width          int amount of fields per row, at least 3
+     * @param height         int amount of rows, at least 3
+     * @param solidDensity   double share of solid walls before connecting the spawns, between 0 and 1
+     * @param brittleDensity double share of brittle walls, between 0 and 1 - solidDensity
+     */
+    public MazeGenerator(int width, int height, double solidDensity, double brittleDensity) {
+        if (width < 3 || height < 3 || solidDensity < 0 || brittleDensity < 0 || solidDensity + brittleDensity > 1) {
+            throw new IllegalArgumentException("Invalid maze size or density");
+        }
+        this.width = width;
+        this.height = height;
+        this.solidDensity = solidDensity;
+        this.brittleDensity = brittleDensity;
+        quarterWidth = (width + 1) / 2;
+        quarterHeight = (height + 1) / 2;
+        int size = width * height;
+        spawns = new int[]{0, width - 1, size - width, size - 1};
+        quarter = new byte[quarterWidth * quarterHeight];
+        distances = new int[quarter.length];
+        previous = new int[quarter.length];
+        deque = new int[quarter.length * 2];
+    }
+
+    /**
+     * Generates the maze of the given seed, the same seed always results in the same maze.
+     * A MazeGenerator is not thread-safe, every thread has to use its own instance.
+     *
+     * @param seed long seed of the maze
+     * @return MazeTemplate named after the seed with spawns in the four corners
+     */
+    public MazeTemplate generate(long seed) {
+        rollQuarter(new SplittableRandom(seed));
+        connect(true);
+        connect(false);
+        byte[] cells = new byte[width * height];
+        mirrorQuarter(cells);
+        return new MazeTemplate("seed-" + seed, width, height, spawns.clone(), cells);
+    }
+
+    /**
+     * Rolls every field of the top-left quarter, the middle row and column of odd sizes belong to the quarter.
+     * The spawn and its two neighbours stay grass, so a player can always place a bomb and step aside.
+     *
+     * @param random SplittableRandom seeded with the seed of the maze
+     */
+    private void rollQuarter(SplittableRandom random) {
+        for (int field = 0; field < quarter.length; field++) {
+            double roll = random.nextDouble();
+            if (roll < solidDensity) {
+                quarter[field] = SOLID_WALL;
+            } else if (roll < solidDensity + brittleDensity) {
+                quarter[field] = BRITTLE_WALL;
+            } else {
+                quarter[field] = GRASS;
+            }
+        }
+        quarter[0] = GRASS;
+        quarter[1] = GRASS;
+        quarter[quarterWidth] = GRASS;
+    }
+
+    /**
+     * Copies the top-left quarter to all four quarters of the maze
+     *
+     * @param cells byte[] of blockCodes of the whole maze
+     */
+    private void mirrorQuarter(byte[] cells) {
+        for (int y = 0; y < quarterHeight; y++) {
+            int row = y * width;
+            System.arraycopy(quarter, y * quarterWidth, cells, row, quarterWidth);
+            for (int x = 0; x < quarterWidth; x++) {
+                cells[row + width - 1 - x] = cells[row + x];
+            }
+            System.arraycopy(cells, row, cells, (height - 1 - y) * width, width);
+        }
+    }
+
+    /**
+     * Searches the path from the spawn to the last column or row of the quarter crossing the fewest solid walls
+     * (0-1 breadth-first search) and turns those solid walls into brittle walls.
+     * The field behind the last column or row is its mirrored field, so reaching it connects the spawn
+     * with the mirrored spawn of the neighbouring quarter.
+     *
+     * @param toLastColumn true to connect to the last column, false to connect to the last row
+     */
+    private void connect(boolean toLastColumn) {
+        Arrays.fill(distances, UNREACHED);
+        int capacity = deque.length;
+        int head = 0;
+        int tail = 0;
+        int target = -1;
+        distances[0] = 0;
+        previous[0] = -1;
+        deque[tail++] = 0;
+        while (head != tail) {
+            int field = deque[head];
+            if (++head == capacity) {
+                head = 0;
+            }
+            int x = field % quarterWidth;
+            if (toLastColumn ? x == quarterWidth - 1 : field >= quarter.length - quarterWidth) {
+                target = field;
+                break;
+            }
+            for (int direction = 0; direction < 4; direction++) {
+                int neighbour;
+                if (direction == 0 && x > 0) {
+                    neighbour = field - 1;
+                } else if (direction == 1 && x < quarterWidth - 1) {
+                    neighbour = field + 1;
+                } else if (direction == 2 && field >= quarterWidth) {
+                    neighbour = field - quarterWidth;
+                } else if (direction == 3 && field < quarter.length - quarterWidth) {
+                    neighbour = field + quarterWidth;
+                } else {
+                    continue;
+                }
+                int cost = quarter[neighbour] == SOLID_WALL ? 1 : 0;
+                if (distances[field] + cost < distances[neighbour]) {
+                    distances[neighbour] = distances[field] + cost;
+                    previous[neighbour] = field;
+                    if (cost == 0) {
+                        head = head == 0 ? capacity - 1 : head - 1;
+                        deque[head] = neighbour;
+                    } else {
+                        deque[tail] = neighbour;
+                        if (++tail == capacity) {
+                            tail = 0;
+                        }
+                    }
+                }
+            }
+        }
+        for (int field = target; field != -1 && distances[field] > 0; field = previous[field]) {
+            if (quarter[field] == SOLID_WALL) {
+                quarter[field] = BRITTLE_WALL;
+            }
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package game;
+
+import config.Constants;
+import helpers.LogHelper;
+import metrics.OverloadTransitionEvent;
+import metrics.ServerMetrics;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * OverloadController-Singleton used to shed load in steps when ticks overrun for a sustained time.
+ * Ticks are evaluated in windows of OVERLOAD_WINDOW_TICKS, a window with at least OVERLOAD_ENTER_OVERRUNS
+ * overruns raises the overload level by one. The level is only lowered by one after OVERLOAD_EXIT_WINDOWS windows
+ * in a row in which every tick stayed below OVERLOAD_EXIT_LOAD of the normal tick duration, so a room whose ticks
+ * only fit the reduced tick rate doesn't switch back and forth.
+ */
+public class OverloadController {
+    private static final Object instanceLock = new Object();
+    private static final OverloadLevel[] LEVELS = OverloadLevel.values();
+    private static OverloadController instance;
+    private volatile OverloadLevel level = OverloadLevel.NORMAL;
+    private int ticksInWindow = 0;
+    private int overrunsInWindow = 0;
+    private boolean calmWindow = true;
+    private int calmWindows = 0;
+
+    /**
+     * Private constructor to achieve Singleton-Pattern
+     */
+    private OverloadController() {
+    }
+
+    /**
+     * Returns the only existing OverloadController-Instance or
+     * creates an instance if it doesn't exist yet.
+     *
+     * @return unique instance of OverloadController
+     */
+    public static OverloadController getInstance() {
+        synchronized (instanceLock) {
+            if (instance == null) {
+                instance = new OverloadController();
+            }
+            return instance;
+        }
+    }
+
+    /**
+     * Returns the current overload level.
+     *
+     * @return OverloadLevel of the room
+     */
+    public OverloadLevel getLevel() {
+        return level;
+    }
+
+    /**
+     * Returns whether the given level or a higher one is active.
+     *
+     * @param minimumLevel OverloadLevel to compare with
+     * @return true if the current level is at least minimumLevel, else false
+     */
+    public boolean isActive(OverloadLevel minimumLevel) {
+        return level.compareTo(minimumLevel) >= 0;
+    }
+
+    /**
+     * Returns the duration of a gameLogic-tick for the current level.
+     * Cooldowns and bombTimers advance by the measured time between two ticks, not by this duration.
+     *
+     * @return long tick duration in milliseconds
+     */
+    public long getTickDuration() {
+        return isActive(OverloadLevel.REDUCED_TICK_RATE) ?
+                Constants.REDUCED_GAME_LOGIC_TICK_DURATION : Constants.GAME_LOGIC_TICK_DURATION;
+    }
+
+    /**
+     * Returns the duration between two snapshots sent to a spectator for the current level.
+     *
+     * @return long duration in milliseconds
+     */
+    public long getSpectatorSnapshotDuration() {
+        return isActive(OverloadLevel.REDUCED_SPECTATOR_RATE) ?
+                Constants.REDUCED_SPECTATOR_SERVER_TICK_DURATION : Constants.SERVER_TICK_DURATION;
+    }
+
+    /**
+     * Evaluates a finished tick. Must only be called by the thread executing the gameLogic-ticks.
+     *
+     * @param tickNanos long time used by the tick in nanoseconds
+     */
+    public void tickFinished(long tickNanos) {
+        ticksInWindow++;
+        if (tickNanos > TimeUnit.MILLISECONDS.toNanos(getTickDuration())) {
+            overrunsInWindow++;
+        }
+        if (tickNanos > TimeUnit.MILLISECONDS.toNanos(Constants.GAME_LOGIC_TICK_DURATION) * Constants.OVERLOAD_EXIT_LOAD) {
+            calmWindow = false;
+        }
+        if (ticksInWindow < Constants.OVERLOAD_WINDOW_TICKS) {
+            return;
+        }
+        calmWindows = calmWindow ? calmWindows + 1 : 0;
+        int ordinal = level.ordinal();
+        if (overrunsInWindow >= Constants.OVERLOAD_ENTER_OVERRUNS && ordinal < LEVELS.length - 1) {
+            transition(LEVELS[ordinal + 1]);
+            calmWindows = 0;
+        } else if (calmWindows >= Constants.OVERLOAD_EXIT_WINDOWS && ordinal > 0) {
+            transition(LEVELS[ordinal - 1]);
+            calmWindows = 0;
+        }
+        ticksInWindow = 0;
+        overrunsInWindow = 0;
+        calmWindow = true;
+    }
+
+    /**
+     * Returns to NORMAL and starts a new window, called before a match starts.
+     * Must only be called by the thread executing the gameLogic-ticks or while no ticks are running.
+     */
+    public void reset() {
+        if (level != OverloadLevel.NORMAL) {
+            transition(OverloadLevel.NORMAL);
+        }
+        ticksInWindow = 0;
+        overrunsInWindow = 0;
+        calmWindow = true;
+        calmWindows = 0;
+    }
+
+    /**
+     * Changes the overload level and reports the transition as event, metric and log
+     *
+     * @param newLevel OverloadLevel to change to
+     */
+    private void transition(OverloadLevel newLevel) {
+        OverloadLevel oldLevel = level;
+        level = newLevel;
+        ServerMetrics.getInstance().overloadLevelChanged(newLevel.ordinal());
+        OverloadTransitionEvent event = new OverloadTransitionEvent();
+        event.room = ServerMetrics.getInstance().getRoom();
+        event.from = oldLevel.name();
+        event.to = newLevel.name();
+        event.overruns = overrunsInWindow;
+        event.commit();
+        LogHelper.warn("Overload level changed: {} -> {} ({} ticks of the window overran)",
+                oldLevel, newLevel, overrunsInWindow);
+    }
+}
@@ -0,0 +1,8 @@
+package game;
+
+/**
+ * OverloadLevel-Enum describing how much work the room sheds, every level includes the measures of the levels before
+ */
+public enum OverloadLevel {
+    NORMAL, REDUCED_SPECTATOR_RATE, SKIPPED_RECORDING, REDUCED_TICK_RATE
+}
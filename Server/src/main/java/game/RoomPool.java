@@ -0,0 +1,89 @@
+package game;
+
+import config.Constants;
+import metrics.ServerMetrics;
+
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * RoomPool-Singleton keeping ROOM_POOL_SIZE rooms ready to be played: fields reset, players placed and maze applied.
+ * A room-preparer thread replenishes the pool in the background, so starting the next game only takes a prepared room.
+ * Rooms are prepared with the default playerNames, the bombermanServer renames the players while they wait in the lobby.
+ */
+public class RoomPool {
+    private static final Object instanceLock = new Object();
+    private static final String[] DEFAULT_PLAYER_NAMES = {
+            Constants.NAME_PLAYER_ONE,
+            Constants.NAME_PLAYER_TWO,
+            Constants.NAME_PLAYER_THREE,
+            Constants.NAME_PLAYER_FOUR};
+    private static RoomPool instance;
+    private final ArrayBlockingQueue<MapBuilder> preparedRooms =
+            new ArrayBlockingQueue<>(Math.max(1, Constants.ROOM_POOL_SIZE));
+
+    /**
+     * Private constructor to achieve Singleton-Pattern
+     */
+    private RoomPool() {
+        Thread preparer = new Thread(this::prepareLoop, "room-preparer");
+        preparer.setDaemon(true);
+        preparer.start();
+    }
+
+    /**
+     * Returns the only existing RoomPool-Instance or
+     * creates an instance if it doesn't exist yet and starts preparing rooms.
+     *
+     * @return unique instance of RoomPool
+     */
+    public static RoomPool getInstance() {
+        synchronized (instanceLock) {
+            if (instance == null) {
+                instance = new RoomPool();
+            }
+            return instance;
+        }
+    }
+
+    /**
+     * Takes a prepared room, if none is ready the room is prepared by the calling thread.
+     *
+     * @return MapBuilder holding the prepared map
+     */
+    public MapBuilder take() {
+        MapBuilder room = preparedRooms.poll();
+        if (room == null) {
+            ServerMetrics.getInstance().roomPoolMissed();
+            room = prepare(MapPool.getInstance().acquire());
+        }
+        return room;
+    }
+
+    /**
+     * Room-preparer loop, prepares the next room and waits until the pool has space for it
+     */
+    private void prepareLoop() {
+        while (true) {
+            MapBuilder room = prepare(MapPool.getInstance().acquire());
+            try {
+                preparedRooms.put(room);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Resets the map of the given mapBuilder and applies a maze
+     *
+     * @param mapBuilder MapBuilder not used by any game
+     * @return MapBuilder the given mapBuilder
+     */
+    private MapBuilder prepare(MapBuilder mapBuilder) {
+        return mapBuilder
+                .generateMap()
+                .generatePlayers(DEFAULT_PLAYER_NAMES)
+                .generateRandomMaze();
+    }
+}
@@ -0,0 +1,97 @@
+package game;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParser;
+import config.Constants;
+import helpers.LogHelper;
+import proxy.Action;
+import proxy.Field;
+import proxy.enums.PlayerDirection;
+
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.lang.management.CompilationMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.SplittableRandom;
+
+/**
+ * WarmUp used to play games without players before the server accepts connections,
+ * so the JIT has compiled gameLogic-ticks, action parsing and snapshot encoding before the first real game.
+ * Games are played on a detached gameLogic and map, the gameState, scoreboard and metrics aren't touched.
+ * The warm-up ends after WARM_UP_MIN_TICKS once a round of WARM_UP_ROUND_TICKS passes without compilation,
+ * or after WARM_UP_MAX_DURATION.
+ */
+public class WarmUp {
+    private static final String[] PLAYER_NAMES = {
+            Constants.NAME_PLAYER_ONE,
+            Constants.NAME_PLAYER_TWO,
+            Constants.NAME_PLAYER_THREE,
+            Constants.NAME_PLAYER_FOUR};
+    private static final PlayerDirection[] DIRECTIONS = PlayerDirection.values();
+    private final GameLogic gameLogic = GameLogic.createDetached();
+    private final MapBuilder mapBuilder = new MapBuilder();
+    private final Gson gson = new Gson();
+    private final PrintWriter out = new PrintWriter(OutputStream.nullOutputStream(), true);
+    private final SplittableRandom random = new SplittableRandom(Constants.WARM_UP_SEED);
+
+    /**
+     * Plays games until the JIT has settled or WARM_UP_MAX_DURATION has passed
+     */
+    public void run() {
+        CompilationMXBean compilation = ManagementFactory.getCompilationMXBean();
+        boolean compilationMonitored = compilation != null && compilation.isCompilationTimeMonitoringSupported();
+        long start = System.currentTimeMillis();
+        long deadline = start + Constants.WARM_UP_MAX_DURATION;
+        long previousCompilationTime = -1;
+        int games = 0;
+        int ticks = 0;
+        int gameTicks = 0;
+        Field[] map = null;
+        while (System.currentTimeMillis() < deadline) {
+            if (map == null || gameTicks >= Constants.WARM_UP_GAME_TICKS) {
+                map = mapBuilder.generateMap().generatePlayers(PLAYER_NAMES).generateRandomMaze().retrieveMap();
+                gameLogic.reset();
+                gameTicks = 0;
+                games++;
+            }
+            for (int playerId = 0; playerId < Constants.MAX_PLAYER_COUNT; playerId++) {
+                gameLogic.addPlayerAction(receiveAction(playerId));
+            }
+            int playerCount = gameLogic.simulateTick(map, Constants.GAME_LOGIC_TICK_DURATION, System.nanoTime());
+            if (ticks % Constants.WARM_UP_SNAPSHOT_INTERVAL == 0) {
+                out.println(gson.toJson(map));
+            }
+            if (playerCount <= 1) {
+                map = null;
+            }
+            ticks++;
+            gameTicks++;
+            if (ticks >= Constants.WARM_UP_MIN_TICKS && ticks % Constants.WARM_UP_ROUND_TICKS == 0) {
+                if (!compilationMonitored) {
+                    break;
+                }
+                long compilationTime = compilation.getTotalCompilationTime();
+                if (compilationTime == previousCompilationTime) {
+                    break;
+                }
+                previousCompilationTime = compilationTime;
+            }
+        }
+        LogHelper.info("Warm-up finished! Ticks {} Games {}", ticks, games);
+        LogHelper.info("Warm-up took {} ms", System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Creates a random action of the given player and passes it through json the same way a client input is parsed
+     *
+     * @param playerId int id of the player
+     * @return Action parsed from json
+     */
+    private Action receiveAction(int playerId) {
+        Action action = new Action();
+        action.setPlayerId(playerId);
+        action.setPlayerDirection(DIRECTIONS[random.nextInt(DIRECTIONS.length)]);
+        action.setBombPlanted(random.nextInt(Constants.WARM_UP_BOMB_ODDS) == 0);
+        return gson.fromJson(JsonParser.parseString(gson.toJson(action)), Action.class);
+    }
+}
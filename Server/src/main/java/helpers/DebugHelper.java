@@ -4,21 +4,30 @@ import proxy.Field;
 import proxy.Player;
 
 /**
- * DebugHelper provides static methods used for printing maps and tick-stats to the server-console
+ * DebugHelper provides static methods used for logging maps and tick-stats as debug records
  */
 public class DebugHelper {
 
+    private static final StringBuilder mapText = new StringBuilder();
+
     /**
-     * Prints the map to the console in a human-readable way
+     * Logs the map as debug record in a human-readable way.
+     * The text is built in a reused StringBuilder, so this must only be called by the thread executing the ticks.
      *
      * @param map Field-Array of the game representing the map
      */
     public static void printMapHumanReadable(Field[] map) {
+        if (!LogHelper.isEnabled(LogLevel.DEBUG)) {
+            return;
+        }
         int length = map.length;
         int width = (int) Math.sqrt(length);
         int i = 0;
+        StringBuilder f = mapText;
+        f.setLength(0);
+        f.append(System.lineSeparator());
         for (Field field : map) {
-            StringBuilder f = new StringBuilder("|");
+            f.append("|");
             if (field.getX() < 10) {
                 f.append(" ");
             }
@@ -65,26 +74,26 @@ public class DebugHelper {
                     case GRASS -> f.append("g0");
                 }
             }
-            System.out.print(f);
             if (i % width == width - 1) {
-                System.out.println();
+                f.append(System.lineSeparator());
             }
             i++;
         }
-        System.out.println();
-        System.out.println("______________".repeat(width));
-        System.out.println();
+        f.append(System.lineSeparator());
+        f.append("______________".repeat(width));
+        LogHelper.debug(f.toString());
     }
 
     /**
-     * Takes start-time, end-time and sleep-time of a loop and prints them to the server console
+     * Takes start-time, end-time and sleep-time of a loop and logs them as debug record
      *
      * @param start     Long start-time of loop
      * @param end       Long end-time of loop
      * @param sleepTime Long time slept of loop
      */
     public static void printTickStats(long start, long end, long sleepTime) {
-        System.out.println("time used: " + (end - start) +
-                "ms | time slept: " + sleepTime + "ms");
+        if (LogHelper.isEnabled(LogLevel.DEBUG)) {
+            LogHelper.debug("time used: {}ms | time slept: {}ms", end - start, sleepTime);
+        }
     }
 }
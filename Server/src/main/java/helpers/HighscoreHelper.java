@@ -1,8 +1,10 @@
 package helpers;
 
 import config.Constants;
+import models.MatchResult;
 
 import java.io.*;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
 
@@ -18,6 +20,17 @@ public class HighscoreHelper {
      * @param scoreboards ArrayList of Integers representing scoreboards
      */
     public static void writeScoreboardByColor(ArrayList<Integer[]> scoreboards) {
+        writeScoreboardByColor(scoreboards, new File(Constants.FILE_LOCATION_SCOREBOARD_COLOR));
+    }
+
+    /**
+     * Writes a list of scoreboards by color to the given csv-file and forces it to the disk
+     *
+     * @param scoreboards ArrayList of Integers representing scoreboards
+     * @param csvFile     File to write, usually a temporary file renamed to the default location afterwards
+     * @return true if the file has been written completely
+     */
+    public static boolean writeScoreboardByColor(ArrayList<Integer[]> scoreboards, File csvFile) {
         ArrayList<String[]> csvData = new ArrayList<>();
         String[] headers = new String[]{"Blue", "Red", "Green", "Yellow"};
         Integer[] totals = new Integer[Constants.MAX_PLAYER_COUNT];
@@ -38,19 +51,7 @@ public class HighscoreHelper {
         csvData.add(headers);
         csvData.addAll(lines);
         csvData.add(totalsLine);
-        File csvFile = new File(Constants.FILE_LOCATION_SCOREBOARD_COLOR);
-        try (PrintWriter pw = new PrintWriter(csvFile)) {
-            for (String[] line : csvData) {
-                StringBuilder csvLine = new StringBuilder();
-                for (int i = 0; i < Constants.MAX_PLAYER_COUNT; i++) {
-                    csvLine.append(line[i]);
-                    csvLine.append(Constants.CSV_SEPARATOR);
-                }
-                pw.println(csvLine);
-            }
-        } catch (FileNotFoundException e) {
-            e.printStackTrace();
-        }
+        return writeCsv(csvData, csvFile);
     }
 
     /**
@@ -64,13 +65,14 @@ public class HighscoreHelper {
         ArrayList<Integer[]> scoreboards = new ArrayList<>();
         ArrayList<String[]> lines = new ArrayList<>();
         if (new File(Constants.FILE_LOCATION_SCOREBOARD_COLOR).exists()) {
-            try (BufferedReader br = new BufferedReader(new FileReader(Constants.FILE_LOCATION_SCOREBOARD_COLOR))) {
+            try (BufferedReader br = new BufferedReader(
+                    new FileReader(Constants.FILE_LOCATION_SCOREBOARD_COLOR, StandardCharsets.UTF_8))) {
                 String line;
                 while ((line = br.readLine()) != null) {
                     lines.add(line.split(Constants.CSV_SEPARATOR));
                 }
             } catch (IOException e) {
-                e.printStackTrace();
+                LogHelper.error("Scoreboard not accessible: {}", e);
             }
             for (int i = 0; i < lines.size(); i++) {
                 String[] line = lines.get(i);
@@ -97,9 +99,31 @@ public class HighscoreHelper {
      * @param scoreboardsByName ArrayList of Strings representing playerNames and scoreboards
      */
     public static void writeScoreboardByName(ArrayList<String[]> scoreboardsByName) {
-        File csvFile = new File(Constants.FILE_LOCATION_SCOREBOARD_NAME);
-        try (PrintWriter pw = new PrintWriter(csvFile)) {
-            for (String[] line : scoreboardsByName) {
+        writeScoreboardByName(scoreboardsByName, new File(Constants.FILE_LOCATION_SCOREBOARD_NAME));
+    }
+
+    /**
+     * Writes a list of scoreboards by playerName to the given csv-file and forces it to the disk
+     *
+     * @param scoreboardsByName ArrayList of Strings representing playerNames and scoreboards
+     * @param csvFile           File to write, usually a temporary file renamed to the default location afterwards
+     * @return true if the file has been written completely
+     */
+    public static boolean writeScoreboardByName(ArrayList<String[]> scoreboardsByName, File csvFile) {
+        return writeCsv(scoreboardsByName, csvFile);
+    }
+
+    /**
+     * Writes one csv-line per row and forces the file to the disk
+     *
+     * @param lines   ArrayList of rows with one value per player
+     * @param csvFile File to write
+     * @return true if the file has been written completely
+     */
+    private static boolean writeCsv(ArrayList<String[]> lines, File csvFile) {
+        try (FileOutputStream fos = new FileOutputStream(csvFile);
+             PrintWriter pw = new PrintWriter(new BufferedWriter(new OutputStreamWriter(fos, StandardCharsets.UTF_8)))) {
+            for (String[] line : lines) {
                 StringBuilder csvLine = new StringBuilder();
                 for (int i = 0; i < Constants.MAX_PLAYER_COUNT; i++) {
                     csvLine.append(line[i]);
@@ -107,8 +131,16 @@ public class HighscoreHelper {
                 }
                 pw.println(csvLine);
             }
-        } catch (FileNotFoundException e) {
-            e.printStackTrace();
+            pw.flush();
+            if (pw.checkError()) {
+                LogHelper.error("Scoreboard not writable: {}", csvFile);
+                return false;
+            }
+            fos.getFD().sync();
+            return true;
+        } catch (IOException e) {
+            LogHelper.error("Scoreboard not accessible: {}", e);
+            return false;
         }
     }
 
@@ -121,7 +153,8 @@ public class HighscoreHelper {
     public static ArrayList<String[]> readScoreboardByName() {
         ArrayList<String[]> lines = new ArrayList<>();
         if (new File(Constants.FILE_LOCATION_SCOREBOARD_NAME).exists()) {
-            try (BufferedReader br = new BufferedReader(new FileReader(Constants.FILE_LOCATION_SCOREBOARD_NAME))) {
+            try (BufferedReader br = new BufferedReader(
+                    new FileReader(Constants.FILE_LOCATION_SCOREBOARD_NAME, StandardCharsets.UTF_8))) {
                 String line;
                 while ((line = br.readLine()) != null) {
                     String[] csvLine = line.split(Constants.CSV_SEPARATOR);
@@ -136,9 +169,77 @@ public class HighscoreHelper {
                     lines.add(csvData);
                 }
             } catch (IOException e) {
-                e.printStackTrace();
+                LogHelper.error("Scoreboard not accessible: {}", e);
             }
         }
         return lines;
     }
+
+    /**
+     * Formats a matchResult as a single line of the scoreboard-log:
+     * sequence, timestamp, one name per player and one score per player
+     *
+     * @param matchResult MatchResult to format
+     * @return String line without line separator
+     */
+    public static String formatMatchRecord(MatchResult matchResult) {
+        StringBuilder line = new StringBuilder();
+        line.append(matchResult.getSequence()).append(Constants.CSV_SEPARATOR);
+        line.append(matchResult.getTimestamp()).append(Constants.CSV_SEPARATOR);
+        for (int i = 0; i < Constants.MAX_PLAYER_COUNT; i++) {
+            line.append(matchResult.getNames()[i]).append(Constants.CSV_SEPARATOR);
+        }
+        for (int i = 0; i < Constants.MAX_PLAYER_COUNT; i++) {
+            line.append(matchResult.getScores()[i]).append(Constants.CSV_SEPARATOR);
+        }
+        return line.toString();
+    }
+
+    /**
+     * Parses a single line of the scoreboard-log
+     *
+     * @param line String line written by formatMatchRecord
+     * @return MatchResult or null if the line is incomplete
+     */
+    public static MatchResult parseMatchRecord(String line) {
+        String[] values = line.split(Constants.CSV_SEPARATOR);
+        if (values.length < 2 + 2 * Constants.MAX_PLAYER_COUNT) {
+            return null;
+        }
+        try {
+            String[] names = new String[Constants.MAX_PLAYER_COUNT];
+            Integer[] scores = new Integer[Constants.MAX_PLAYER_COUNT];
+            for (int i = 0; i < Constants.MAX_PLAYER_COUNT; i++) {
+                names[i] = values[2 + i];
+                scores[i] = Integer.valueOf(values[2 + Constants.MAX_PLAYER_COUNT + i]);
+            }
+            return new MatchResult(Long.parseLong(values[0]), Long.parseLong(values[1]), names, scores);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Reads all complete records of a scoreboard-log
+     *
+     * @param file File of the scoreboard-log
+     * @return ArrayList of MatchResults in the order they have been appended
+     */
+    public static ArrayList<MatchResult> readMatchRecords(File file) {
+        ArrayList<MatchResult> matchResults = new ArrayList<>();
+        if (file.exists()) {
+            try (BufferedReader br = new BufferedReader(new FileReader(file, StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = br.readLine()) != null) {
+                    MatchResult matchResult = parseMatchRecord(line);
+                    if (matchResult != null) {
+                        matchResults.add(matchResult);
+                    }
+                }
+            } catch (IOException e) {
+                LogHelper.error("Scoreboard not accessible: {}", e);
+            }
+        }
+        return matchResults;
+    }
 }
@@ -0,0 +1,292 @@
+package helpers;
+
+import config.Constants;
+import models.LogRateLimit;
+import models.LogRecord;
+
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * LogHelper provides static methods used for logging without blocking the calling thread.
+ * Records are handed to a LogRingBuffer and written to the console by a background log-writer.
+ * Disabled levels return before anything is stored, the level can be set with -Dbombaclap.logLevel=DEBUG.
+ * Arguments which are a Throwable are formatted with toString and their stack trace is written below the record.
+ */
+public class LogHelper {
+    private static final LogRingBuffer buffer = new LogRingBuffer(Constants.LOG_BUFFER_CAPACITY);
+    private static volatile LogLevel level = initialLevel();
+
+    static {
+        Thread writer = new Thread(LogHelper::writeLoop, "log-writer");
+        writer.setDaemon(true);
+        writer.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(LogHelper::drain, "log-writer-shutdown"));
+    }
+
+    /**
+     * Changes the minimum level of records that are logged
+     *
+     * @param newLevel LogLevel to log from now on
+     */
+    public static void setLevel(LogLevel newLevel) {
+        level = newLevel;
+    }
+
+    /**
+     * Returns whether records of the given level are logged.
+     * Callers should check this before building expensive arguments.
+     *
+     * @param recordLevel LogLevel of the record
+     * @return true if records of the level are logged, else false
+     */
+    public static boolean isEnabled(LogLevel recordLevel) {
+        return recordLevel.compareTo(level) >= 0 && level != LogLevel.OFF;
+    }
+
+    /**
+     * Logs a debug record without arguments
+     *
+     * @param template String message
+     */
+    public static void debug(String template) {
+        log(LogLevel.DEBUG, template, null, null, null);
+    }
+
+    /**
+     * Logs a debug record
+     *
+     * @param template       String message with a {} for each argument
+     * @param firstArgument  Object first argument of the template
+     * @param secondArgument Object second argument of the template
+     */
+    public static void debug(String template, Object firstArgument, Object secondArgument) {
+        log(LogLevel.DEBUG, template, firstArgument, secondArgument, null);
+    }
+
+    /**
+     * Logs an info record
+     *
+     * @param template      String message with a {} for the argument
+     * @param firstArgument Object argument of the template
+     */
+    public static void info(String template, Object firstArgument) {
+        log(LogLevel.INFO, template, firstArgument, null, null);
+    }
+
+    /**
+     * Logs an info record
+     *
+     * @param template       String message with a {} for each argument
+     * @param firstArgument  Object first argument of the template
+     * @param secondArgument Object second argument of the template
+     */
+    public static void info(String template, Object firstArgument, Object secondArgument) {
+        log(LogLevel.INFO, template, firstArgument, secondArgument, null);
+    }
+
+    /**
+     * Logs a warning record
+     *
+     * @param template      String message with a {} for the argument
+     * @param firstArgument Object argument of the template
+     */
+    public static void warn(String template, Object firstArgument) {
+        log(LogLevel.WARN, template, firstArgument, null, null);
+    }
+
+    /**
+     * Logs a warning record with the stack trace of the given throwable
+     *
+     * @param template  String message with a {} for the throwable
+     * @param throwable Throwable argument of the template
+     */
+    public static void warn(String template, Throwable throwable) {
+        log(LogLevel.WARN, template, throwable, null, null);
+    }
+
+    /**
+     * Logs a warning record
+     *
+     * @param template       String message with a {} for each argument
+     * @param firstArgument  Object first argument of the template
+     * @param secondArgument Object second argument of the template
+     * @param thirdArgument  Object third argument of the template
+     */
+    public static void warn(String template, Object firstArgument, Object secondArgument, Object thirdArgument) {
+        log(LogLevel.WARN, template, firstArgument, secondArgument, thirdArgument);
+    }
+
+    /**
+     * Logs an error record
+     *
+     * @param template      String message with a {} for the argument
+     * @param firstArgument Object argument of the template
+     */
+    public static void error(String template, Object firstArgument) {
+        log(LogLevel.ERROR, template, firstArgument, null, null);
+    }
+
+    /**
+     * Logs an error record with the stack trace of the given throwable
+     *
+     * @param template  String message with a {} for the throwable
+     * @param throwable Throwable argument of the template
+     */
+    public static void error(String template, Throwable throwable) {
+        log(LogLevel.ERROR, template, throwable, null, null);
+    }
+
+    /**
+     * Logs a record if the given rateLimit allows it.
+     * The amount of records suppressed before is appended to the next record that passes.
+     *
+     * @param rateLimit      LogRateLimit shared by all records of the same kind
+     * @param recordLevel    LogLevel of the record
+     * @param template       String message with a {} for each argument
+     * @param firstArgument  Object first argument of the template
+     * @param secondArgument Object second argument of the template
+     */
+    public static void rateLimited(LogRateLimit rateLimit, LogLevel recordLevel, String template,
+                                   Object firstArgument, Object secondArgument) {
+        if (!isEnabled(recordLevel)) {
+            return;
+        }
+        int suppressed = rateLimit.tryAcquire(System.currentTimeMillis());
+        if (suppressed > 0) {
+            log(recordLevel, template + " ({} similar messages suppressed)", firstArgument, secondArgument, suppressed);
+        } else if (suppressed == 0) {
+            log(recordLevel, template, firstArgument, secondArgument, null);
+        }
+    }
+
+    /**
+     * Hands a record to the log-writer if its level is enabled
+     *
+     * @param recordLevel    LogLevel of the record
+     * @param template       String message with a {} for each argument
+     * @param firstArgument  Object first argument of the template, may be null
+     * @param secondArgument Object second argument of the template, may be null
+     * @param thirdArgument  Object third argument of the template, may be null
+     */
+    private static void log(LogLevel recordLevel, String template,
+                            Object firstArgument, Object secondArgument, Object thirdArgument) {
+        if (!isEnabled(recordLevel)) {
+            return;
+        }
+        buffer.offer(recordLevel, System.currentTimeMillis(), Thread.currentThread().getName(),
+                template, firstArgument, secondArgument, thirdArgument);
+    }
+
+    /**
+     * Determines the level at startup, DEBUG_MODE enables debug records by default
+     *
+     * @return LogLevel from the system property bombaclap.logLevel or the default level
+     */
+    private static LogLevel initialLevel() {
+        LogLevel defaultLevel = Constants.DEBUG_MODE ? LogLevel.DEBUG : LogLevel.INFO;
+        try {
+            return LogLevel.valueOf(System.getProperty("bombaclap.logLevel", defaultLevel.name()).toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return defaultLevel;
+        }
+    }
+
+    /**
+     * Log-writer run-function, writes all published records and parks shortly whenever the buffer is empty
+     */
+    private static void writeLoop() {
+        while (true) {
+            if (!drain()) {
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(Constants.LOG_WRITER_IDLE_DURATION));
+            }
+        }
+    }
+
+    /**
+     * Writes all records published up to now
+     *
+     * @return true if at least one record has been written, else false
+     */
+    private static synchronized boolean drain() {
+        StringBuilder out = new StringBuilder();
+        StringBuilder err = new StringBuilder();
+        long dropped = buffer.takeDropped();
+        if (dropped > 0) {
+            err.append(Instant.now()).append(" WARN  [log-writer] ")
+                    .append(dropped).append(" log records dropped, buffer full").append(System.lineSeparator());
+        }
+        LogRecord record;
+        while ((record = buffer.peek()) != null) {
+            format(record, record.getLevel().compareTo(LogLevel.WARN) >= 0 ? err : out);
+            buffer.release();
+        }
+        print(System.out, out);
+        print(System.err, err);
+        return out.length() > 0 || err.length() > 0;
+    }
+
+    /**
+     * Formats a record as a single line with timestamp, level and thread, followed by the stack traces
+     * of its Throwable arguments
+     *
+     * @param record LogRecord to format
+     * @param line   StringBuilder the line is appended to
+     */
+    private static void format(LogRecord record, StringBuilder line) {
+        line.append(Instant.ofEpochMilli(record.getTimestamp()))
+                .append(' ')
+                .append(String.format("%-5s", record.getLevel()))
+                .append(" [").append(record.getThreadName()).append("] ");
+        String template = record.getTemplate();
+        Object[] arguments = {record.getFirstArgument(), record.getSecondArgument(), record.getThirdArgument()};
+        int argument = 0;
+        int from = 0;
+        int placeholder;
+        while ((placeholder = template.indexOf("{}", from)) != -1 && argument < arguments.length) {
+            line.append(template, from, placeholder);
+            appendArgument(line, arguments[argument++]);
+            from = placeholder + 2;
+        }
+        line.append(template, from, template.length()).append(System.lineSeparator());
+        for (Object throwable : arguments) {
+            if (throwable instanceof Throwable) {
+                StringWriter trace = new StringWriter();
+                ((Throwable) throwable).printStackTrace(new PrintWriter(trace));
+                line.append(trace);
+            }
+        }
+    }
+
+    /**
+     * Appends an argument, arrays are written with their content
+     *
+     * @param line     StringBuilder the argument is appended to
+     * @param argument Object to append
+     */
+    private static void appendArgument(StringBuilder line, Object argument) {
+        if (argument instanceof Object[] array) {
+            line.append(Arrays.toString(array));
+        } else {
+            line.append(argument);
+        }
+    }
+
+    /**
+     * Prints the given text to the given stream if there is any
+     *
+     * @param stream PrintStream to write to
+     * @param text   StringBuilder with complete lines
+     */
+    private static void print(PrintStream stream, StringBuilder text) {
+        if (text.length() > 0) {
+            stream.print(text);
+            stream.flush();
+        }
+    }
+}
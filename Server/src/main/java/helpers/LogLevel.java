@@ -0,0 +1,8 @@
+package helpers;
+
+/**
+ * LogLevel-Enum ordered by severity, OFF disables logging completely
+ */
+public enum LogLevel {
+    DEBUG, INFO, WARN, ERROR, OFF
+}
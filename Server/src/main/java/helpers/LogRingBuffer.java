@@ -0,0 +1,102 @@
+package helpers;
+
+import models.LogRecord;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * LogRingBuffer used to hand LogRecords from many producing threads to the single log-writer without locks.
+ * All slots are allocated once, a full buffer drops new records instead of blocking the producer.
+ */
+public class LogRingBuffer {
+    private final LogRecord[] slots;
+    private final AtomicLongArray published;
+    private final int mask;
+    private final AtomicLong claimed = new AtomicLong();
+    private final AtomicLong consumed = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+
+    /**
+     * Creates a LogRingBuffer
+     *
+     * @param capacity int amount of slots, rounded up to the next power of two
+     */
+    public LogRingBuffer(int capacity) {
+        int size = Integer.highestOneBit(Math.max(capacity - 1, 1)) << 1;
+        slots = new LogRecord[size];
+        published = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            slots[i] = new LogRecord();
+            published.set(i, -1);
+        }
+        mask = size - 1;
+    }
+
+    /**
+     * Copies the given values into the next free slot and publishes it to the log-writer
+     *
+     * @param level          LogLevel of the record
+     * @param timestamp      long creation time of the record in milliseconds
+     * @param threadName     String name of the logging thread
+     * @param template       String message with a {} for each argument
+     * @param firstArgument  Object first argument of the template, may be null
+     * @param secondArgument Object second argument of the template, may be null
+     * @param thirdArgument  Object third argument of the template, may be null
+     * @return true if the record has been published, false if the buffer was full and the record has been dropped
+     */
+    public boolean offer(LogLevel level, long timestamp, String threadName, String template,
+                         Object firstArgument, Object secondArgument, Object thirdArgument) {
+        long sequence;
+        do {
+            sequence = claimed.get();
+            if (sequence - consumed.get() >= slots.length) {
+                dropped.incrementAndGet();
+                return false;
+            }
+        } while (!claimed.compareAndSet(sequence, sequence + 1));
+        LogRecord record = slots[(int) sequence & mask];
+        record.setLevel(level);
+        record.setTimestamp(timestamp);
+        record.setThreadName(threadName);
+        record.setTemplate(template);
+        record.setFirstArgument(firstArgument);
+        record.setSecondArgument(secondArgument);
+        record.setThirdArgument(thirdArgument);
+        published.lazySet((int) sequence & mask, sequence);
+        return true;
+    }
+
+    /**
+     * Returns the next published record without removing it.
+     * Must only be called by the log-writer.
+     *
+     * @return LogRecord or null if no record has been published yet
+     */
+    public LogRecord peek() {
+        long sequence = consumed.get();
+        if (published.get((int) sequence & mask) != sequence) {
+            return null;
+        }
+        return slots[(int) sequence & mask];
+    }
+
+    /**
+     * Releases the record returned by peek, so its slot can be reused.
+     * Must only be called by the log-writer.
+     */
+    public void release() {
+        long sequence = consumed.get();
+        slots[(int) sequence & mask].clear();
+        consumed.lazySet(sequence + 1);
+    }
+
+    /**
+     * Returns the amount of records dropped because the buffer was full and resets it.
+     *
+     * @return long amount of dropped records
+     */
+    public long takeDropped() {
+        return dropped.getAndSet(0);
+    }
+}
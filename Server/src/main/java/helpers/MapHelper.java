@@ -3,49 +3,11 @@ package helpers;
 import config.Constants;
 import proxy.Field;
 
-import java.io.BufferedReader;
-import java.io.File;
-import java.io.FileReader;
-import java.io.IOException;
-import java.util.ArrayList;
-
 /**
  * MapHelper provides static methods used for changes to map outside of gameLogic
  */
 public class MapHelper {
 
-    /**
-     * Reads a csv-file from the given fileLocation and transforms it into a list Integers
-     *
-     * @param fileLocation path to the csv-file as String
-     * @return ArrayList of Integers representing a BlockType
-     */
-    public static ArrayList<Integer> readMap(String fileLocation) {
-        ArrayList<Integer> blockCodes = new ArrayList<>();
-        ArrayList<String[]> lines = new ArrayList<>();
-        if (new File(fileLocation).exists()) {
-            try (BufferedReader br = new BufferedReader(new FileReader(fileLocation))) {
-                String line;
-                while ((line = br.readLine()) != null) {
-                    lines.add(line.split(Constants.CSV_SEPARATOR));
-                }
-            } catch (IOException e) {
-                e.printStackTrace();
-            }
-            for (String[] line : lines) {
-                for (String code : line) {
-                    try {
-                        blockCodes.add(Integer.parseInt(code));
-                    } catch (NumberFormatException e) {
-                        blockCodes.add(Constants.DEFAULT_BLOCK_TYPE_CODE);
-                    }
-
-                }
-            }
-        }
-        return blockCodes;
-    }
-
     /**
      * Takes an amount of playerNames equal to Constants.MAX_PLAYER_AMOUNT
      * from the given playerNames-Array and adds those playerNames to the startPositions
@@ -82,4 +44,23 @@ public class MapHelper {
             }
         }
     }
+
+    /**
+     * Checks whether the player with the given playerId is still standing somewhere in the map
+     *
+     * @param map      Field-Array of the game representing the map
+     * @param playerId int id of the player
+     * @return true if the player is alive, false if the player is dead or the id belongs to no player
+     */
+    public static boolean isPlayerAlive(Field[] map, int playerId) {
+        if (playerId < 0 || playerId >= Constants.MAX_PLAYER_COUNT) {
+            return false;
+        }
+        for (Field field : map) {
+            if (field.getPlayers()[playerId] != null) {
+                return true;
+            }
+        }
+        return false;
+    }
 }
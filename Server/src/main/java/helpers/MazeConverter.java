@@ -0,0 +1,72 @@
+package helpers;
+
+import config.Constants;
+import models.MazeTemplate;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * MazeConverter converts maze-files between the csv- and the binary maze format.
+ * Usage: java -cp Bombaclap-Server.jar helpers.MazeConverter [file or folder] [output file]
+ * A csv-file is converted to a binary maze-file next to it and vice versa,
+ * a folder converts every csv-file it contains. Without arguments FOLDER_LOCATION_MAZES is converted.
+ */
+public class MazeConverter {
+
+    /**
+     * Converts the given file or folder
+     *
+     * @param args optional input file or folder and optional output file
+     */
+    public static void main(final String[] args) {
+        Path input = Paths.get(args.length > 0 ? args[0] : Constants.FOLDER_LOCATION_MAZES);
+        try {
+            if (Files.isDirectory(input)) {
+                try (DirectoryStream<Path> files = Files.newDirectoryStream(input, "*" + Constants.MAZE_CSV_SUFFIX)) {
+                    for (Path file : files) {
+                        convert(file, swapSuffix(file));
+                    }
+                }
+            } else {
+                convert(input, args.length > 1 ? Paths.get(args[1]) : swapSuffix(input));
+            }
+        } catch (IOException e) {
+            LogHelper.error("Maze not converted: {}", e);
+        }
+    }
+
+    /**
+     * Converts a single maze-file, the format of the output is determined by its suffix
+     *
+     * @param input  Path of the maze-file to read
+     * @param output Path of the maze-file to write
+     * @throws IOException thrown if a file isn't readable or writable
+     */
+    public static void convert(Path input, Path output) throws IOException {
+        MazeTemplate template = MazeFileHelper.readMaze(input);
+        if (output.getFileName().toString().endsWith(Constants.MAZE_BINARY_SUFFIX)) {
+            MazeFileHelper.writeBinaryMaze(template, output);
+        } else {
+            MazeFileHelper.writeCsvMaze(template, output);
+        }
+        LogHelper.info("Maze converted: {} -> {}", input, output);
+    }
+
+    /**
+     * Returns the path of the converted file, the suffix of csv-files becomes MAZE_BINARY_SUFFIX and vice versa
+     *
+     * @param file Path of the maze-file
+     * @return Path of the converted maze-file
+     */
+    private static Path swapSuffix(Path file) {
+        String name = file.getFileName().toString();
+        boolean binary = name.endsWith(Constants.MAZE_BINARY_SUFFIX);
+        int suffixStart = name.lastIndexOf('.');
+        String baseName = suffixStart > 0 ? name.substring(0, suffixStart) : name;
+        return file.resolveSibling(baseName + (binary ? Constants.MAZE_CSV_SUFFIX : Constants.MAZE_BINARY_SUFFIX));
+    }
+}
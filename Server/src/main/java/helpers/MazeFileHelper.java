@@ -0,0 +1,244 @@
+package helpers;
+
+import config.Constants;
+import models.MazeTemplate;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+/**
+ * MazeFileHelper provides static methods used for reading and writing maze-files.
+ * Mazes are stored either as csv-file of blockCodes or in the binary maze format:
+ * <pre>
+ * int   magic "BMAZ"
+ * short version
+ * short width
+ * short height
+ * byte  bits per cell, 2, 4 or 8
+ * byte  amount of spawn points
+ * int[] field index of every spawn point
+ * byte[] blockCodes packed from the most significant bit on, rows first
+ * int   CRC32 of everything before
+ * </pre>
+ */
+public class MazeFileHelper {
+    private static final int MAGIC = 0x424D_415A;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = Integer.BYTES + Short.BYTES * 3 + 2;
+    private static final int[] DEFAULT_SPAWNS = {
+            Constants.STARTPOSITION_PLAYER_ONE,
+            Constants.STARTPOSITION_PLAYER_TWO,
+            Constants.STARTPOSITION_PLAYER_THREE,
+            Constants.STARTPOSITION_PLAYER_FOUR};
+
+    /**
+     * Returns whether the given file has the suffix of a csv- or binary maze-file.
+     *
+     * @param file Path of the file
+     * @return true if the file is a maze-file, else false
+     */
+    public static boolean isMazeFile(Path file) {
+        String name = file.getFileName().toString();
+        return name.endsWith(Constants.MAZE_CSV_SUFFIX) || name.endsWith(Constants.MAZE_BINARY_SUFFIX);
+    }
+
+    /**
+     * Reads a maze-file, files with MAZE_BINARY_SUFFIX are read in the binary maze format, every other file as csv.
+     *
+     * @param file Path of the maze-file
+     * @return MazeTemplate of the maze
+     * @throws IOException thrown if the file isn't readable or not a valid maze
+     */
+    public static MazeTemplate readMaze(Path file) throws IOException {
+        if (file.getFileName().toString().endsWith(Constants.MAZE_BINARY_SUFFIX)) {
+            return readBinaryMaze(file);
+        }
+        return readCsvMaze(file);
+    }
+
+    /**
+     * Reads a csv-file and transforms it into a compact array of blockCodes.
+     * Cells are separated by CSV_SEPARATOR or line breaks, unparsable cells become DEFAULT_BLOCK_TYPE_CODE.
+     * The width is the amount of cells in the first line, spawn points are the default startPositions.
+     *
+     * @param file Path of the csv-file
+     * @return MazeTemplate of the maze
+     * @throws IOException thrown if the file isn't readable
+     */
+    public static MazeTemplate readCsvMaze(Path file) throws IOException {
+        byte[] content = Files.readAllBytes(file);
+        byte[] cells = new byte[Constants.MAP_SIZE];
+        byte separator = (byte) Constants.CSV_SEPARATOR.charAt(0);
+        int count = 0;
+        int width = 0;
+        int code = 0;
+        int length = 0;
+        boolean valid = true;
+        for (int i = 0; i <= content.length; i++) {
+            byte b = i < content.length ? content[i] : (byte) '\n';
+            if (b == separator || b == '\n') {
+                if (b == separator || length > 0) {
+                    if (count == cells.length) {
+                        cells = Arrays.copyOf(cells, cells.length * 2);
+                    }
+                    cells[count++] = (byte) (valid && length > 0 && code <= Byte.MAX_VALUE ?
+                            code : Constants.DEFAULT_BLOCK_TYPE_CODE);
+                }
+                if (b == '\n' && width == 0) {
+                    width = count;
+                }
+                code = 0;
+                length = 0;
+                valid = true;
+            } else if (b != '\r') {
+                if (b >= '0' && b <= '9') {
+                    if (code <= Byte.MAX_VALUE) {
+                        code = code * 10 + b - '0';
+                    }
+                } else {
+                    valid = false;
+                }
+                length++;
+            }
+        }
+        int height = width == 0 ? 0 : count / width;
+        return new MazeTemplate(file.getFileName().toString(), width, height, DEFAULT_SPAWNS,
+                count == cells.length ? cells : Arrays.copyOf(cells, count));
+    }
+
+    /**
+     * Reads a file in the binary maze format through a memory mapping
+     *
+     * @param file Path of the binary maze-file
+     * @return MazeTemplate of the maze
+     * @throws IOException thrown if the file isn't readable, has an unknown version or a wrong checksum
+     */
+    public static MazeTemplate readBinaryMaze(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_SIZE + Integer.BYTES || size > Integer.MAX_VALUE) {
+                throw new IOException("Invalid maze size " + size + ": " + file);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            int checksumOffset = (int) size - Integer.BYTES;
+            CRC32 crc = new CRC32();
+            crc.update(buffer.duplicate().limit(checksumOffset));
+            if ((int) crc.getValue() != buffer.getInt(checksumOffset)) {
+                throw new IOException("Invalid maze checksum: " + file);
+            }
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException("Not a maze-file: " + file);
+            }
+            int version = buffer.getShort();
+            if (version != VERSION) {
+                throw new IOException("Unsupported maze version " + version + ": " + file);
+            }
+            int width = buffer.getShort();
+            int height = buffer.getShort();
+            int bitsPerCell = buffer.get();
+            int spawnCount = buffer.get() & 0xFF;
+            if (width <= 0 || height <= 0 || (bitsPerCell != 2 && bitsPerCell != 4 && bitsPerCell != 8)
+                    || packedLength(width * height, bitsPerCell) + spawnCount * Integer.BYTES != checksumOffset - HEADER_SIZE) {
+                throw new IOException("Invalid maze header: " + file);
+            }
+            int[] spawns = new int[spawnCount];
+            for (int i = 0; i < spawnCount; i++) {
+                spawns[i] = buffer.getInt();
+            }
+            byte[] packed = new byte[packedLength(width * height, bitsPerCell)];
+            buffer.get(packed);
+            if (bitsPerCell == Byte.SIZE) {
+                return new MazeTemplate(file.getFileName().toString(), width, height, spawns, packed);
+            }
+            byte[] cells = new byte[width * height];
+            int mask = (1 << bitsPerCell) - 1;
+            int cell = 0;
+            for (byte cellBits : packed) {
+                for (int shift = Byte.SIZE - bitsPerCell; shift >= 0 && cell < cells.length; shift -= bitsPerCell) {
+                    cells[cell++] = (byte) ((cellBits >>> shift) & mask);
+                }
+            }
+            return new MazeTemplate(file.getFileName().toString(), width, height, spawns, cells);
+        }
+    }
+
+    /**
+     * Writes the given template in the binary maze format, using the smallest amount of bits that fits every blockCode
+     *
+     * @param template MazeTemplate to write
+     * @param file     Path of the binary maze-file
+     * @throws IOException thrown if the file isn't writable or the template doesn't fit into the format
+     */
+    public static void writeBinaryMaze(MazeTemplate template, Path file) throws IOException {
+        int width = template.getWidth();
+        int height = template.getHeight();
+        int cellCount = template.cellCount();
+        int spawnCount = template.spawnCount();
+        if (width <= 0 || width > Short.MAX_VALUE || height <= 0 || height > Short.MAX_VALUE
+                || (long) width * height != cellCount || spawnCount > 0xFF) {
+            throw new IOException("Maze doesn't fit into the binary maze format: " + template.getName());
+        }
+        int maxCode = 0;
+        for (int i = 0; i < cellCount; i++) {
+            if (template.cellAt(i) < 0) {
+                throw new IOException("Invalid blockCode " + template.cellAt(i) + ": " + template.getName());
+            }
+            maxCode = Math.max(maxCode, template.cellAt(i));
+        }
+        int bitsPerCell = maxCode < 4 ? 2 : maxCode < 16 ? 4 : 8;
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + spawnCount * Integer.BYTES
+                + packedLength(cellCount, bitsPerCell) + Integer.BYTES);
+        buffer.putInt(MAGIC)
+                .putShort((short) VERSION)
+                .putShort((short) width)
+                .putShort((short) height)
+                .put((byte) bitsPerCell)
+                .put((byte) spawnCount);
+        for (int i = 0; i < spawnCount; i++) {
+            buffer.putInt(template.spawnAt(i));
+        }
+        int cellsPerByte = Byte.SIZE / bitsPerCell;
+        for (int i = 0; i < cellCount; i += cellsPerByte) {
+            int packed = 0;
+            for (int j = 0; j < cellsPerByte; j++) {
+                int cell = i + j < cellCount ? template.cellAt(i + j) : 0;
+                packed |= cell << (Byte.SIZE - bitsPerCell * (j + 1));
+            }
+            buffer.put((byte) packed);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), 0, buffer.position());
+        buffer.putInt((int) crc.getValue());
+        Files.write(file, buffer.array());
+    }
+
+    /**
+     * Writes the given template as csv-file with one line per row
+     *
+     * @param template MazeTemplate to write
+     * @param file     Path of the csv-file
+     * @throws IOException thrown if the file isn't writable
+     */
+    public static void writeCsvMaze(MazeTemplate template, Path file) throws IOException {
+        int cellCount = template.cellCount();
+        StringBuilder csv = new StringBuilder(cellCount * 4);
+        for (int i = 0; i < cellCount; i++) {
+            csv.append(template.cellAt(i));
+            csv.append((i + 1) % template.getWidth() == 0 ? "\n" : Constants.CSV_SEPARATOR);
+        }
+        Files.write(file, csv.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static int packedLength(int cellCount, int bitsPerCell) {
+        int cellsPerByte = Byte.SIZE / bitsPerCell;
+        return (cellCount + cellsPerByte - 1) / cellsPerByte;
+    }
+}
@@ -0,0 +1,9 @@
+package highscore;
+
+/**
+ * FsyncPolicy-Enum deciding when persisted matches are forced to the disk:
+ * NONE leaves it to the operating system, BATCH forces once per written batch, EVERY forces every single match
+ */
+public enum FsyncPolicy {
+    NONE, BATCH, EVERY
+}
@@ -0,0 +1,718 @@
+package highscore;
+
+import config.Constants;
+import helpers.HighscoreHelper;
+import helpers.LogHelper;
+import models.MatchResult;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * HighscoreStore-Singleton used for persisting the scores of finished matches.
+ * Every server process appends its matches to its own segment-log, so processes never write the same log.
+ * The running totals of all processes are kept in a fixed-size shared index which is updated under a
+ * LedgerLock, so persisting a match depends neither on the size of the history nor on the amount of processes.
+ * Once enough matches have been appended, the segment-log is rotated and folded into the
+ * scoreboard-csv-files by a background compactor, which holds the lock of the scoreboard-files meanwhile.
+ * The compactor writes temporary csv-files and only renames them once its index covers the folded matches,
+ * so the index tells whether a match is part of the csv-files, the csv-rows themselves carry no sequence.
+ */
+public class HighscoreStore {
+    private static final Object instanceLock = new Object();
+    private static final int INDEX_VERSION = 2;
+    private static final int SEGMENT_INDEX_SIZE = Integer.BYTES * 2 + Long.BYTES * 3;
+    private static final int TOTALS_INDEX_SIZE = Integer.BYTES * 2 + Long.BYTES * (1 + Constants.MAX_PLAYER_COUNT);
+    private static final String COMPACTING_SUFFIX = ".compacting";
+    private static final String TEMPORARY_SUFFIX = ".tmp";
+    private static String segment = String.valueOf(Constants.PORT);
+    private static HighscoreStore instance;
+    private final Object storeLock = new Object();
+    private final ArrayList<MatchResult> untotalledMatches = new ArrayList<>();
+    private final ByteBuffer segmentBuffer = ByteBuffer.allocate(SEGMENT_INDEX_SIZE);
+    private final ByteBuffer totalsBuffer = ByteBuffer.allocate(TOTALS_INDEX_SIZE);
+    private final long[] totals = new long[Constants.MAX_PLAYER_COUNT];
+    private File logFile;
+    private File compactingFile;
+    private FileChannel segmentChannel;
+    private FileChannel totalsChannel;
+    private FileOutputStream logStream;
+    private Writer logWriter;
+    private long sequence;
+    private long compactedSequence;
+    private long leaderboardSequence;
+    private long matchCount;
+    private int pendingMatches;
+    private boolean compacting;
+
+    /**
+     * Private constructor to achieve Singleton-Pattern
+     */
+    private HighscoreStore() {
+        open();
+    }
+
+    /**
+     * Returns the only existing HighscoreStore-Instance or
+     * creates an instance if it doesn't exist yet and recovers its state from disk.
+     *
+     * @return unique instance of HighscoreStore
+     */
+    public static HighscoreStore getInstance() {
+        synchronized (instanceLock) {
+            if (instance == null) {
+                instance = new HighscoreStore();
+            }
+            return instance;
+        }
+    }
+
+    /**
+     * Sets the segment the matches of this process are appended to, has to be called before getInstance
+     *
+     * @param name String name of the segment, usually the port of the server
+     */
+    public static void setSegment(String name) {
+        synchronized (instanceLock) {
+            segment = name;
+        }
+    }
+
+    /**
+     * Appends a batch of finished matches with a single flush and adds them to the shared totals.
+     * The matches get the next sequences, which are only taken once the whole batch has been written.
+     * If the log isn't accessible, whatever has been written of the batch is cut off again and the sequences
+     * of the matches are cleared, so the caller can append the same batch again later.
+     * The storeLock is released before the shared totals are locked, a compactor takes them in the opposite order.
+     *
+     * @param matchResults List of MatchResults in the order the matches have finished
+     * @param fsyncPolicy  FsyncPolicy deciding when log and index are forced to the disk
+     * @return true if the batch has been written, false if the log isn't accessible
+     */
+    public boolean appendAll(List<MatchResult> matchResults, FsyncPolicy fsyncPolicy) {
+        synchronized (storeLock) {
+            if (segmentChannel == null) {
+                return false;
+            }
+            long logLength = -1;
+            try {
+                logLength = logStream.getChannel().size();
+                long nextSequence = sequence;
+                for (MatchResult matchResult : matchResults) {
+                    matchResult.setSequence(++nextSequence);
+                    logWriter.write(HighscoreHelper.formatMatchRecord(matchResult));
+                    logWriter.write(System.lineSeparator());
+                    if (fsyncPolicy == FsyncPolicy.EVERY) {
+                        logWriter.flush();
+                        logStream.getChannel().force(false);
+                    }
+                }
+                logWriter.flush();
+                if (fsyncPolicy == FsyncPolicy.BATCH) {
+                    logStream.getChannel().force(false);
+                }
+                sequence = nextSequence;
+            } catch (IOException e) {
+                LogHelper.error("Scoreboard not accessible: {}", e);
+                discardPartialBatch(logLength);
+                for (MatchResult matchResult : matchResults) {
+                    matchResult.setSequence(0);
+                }
+                return false;
+            }
+        }
+        addToTotals(matchResults, fsyncPolicy != FsyncPolicy.NONE);
+        synchronized (storeLock) {
+            writeSegmentIndex(fsyncPolicy != FsyncPolicy.NONE);
+            pendingMatches += matchResults.size();
+            if (pendingMatches >= Constants.SCOREBOARD_COMPACTION_THRESHOLD) {
+                startCompaction();
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Returns the total score of every color over the matches of all server processes
+     *
+     * @return long[] totals by color or null if the shared index is locked by another process
+     */
+    public long[] getTotals() {
+        return LedgerLock.TOTALS.call(() -> {
+            readTotals();
+            return totals.clone();
+        });
+    }
+
+    /**
+     * Returns the amount of matches persisted by all server processes
+     *
+     * @return long amount of matches or -1 if the shared index is locked by another process
+     */
+    public long getMatchCount() {
+        Long count = LedgerLock.TOTALS.call(() -> {
+            readTotals();
+            return matchCount;
+        });
+        return count == null ? -1 : count;
+    }
+
+    /**
+     * Returns the sequence of the last match of this segment that has been applied to the leaderboard
+     *
+     * @return long sequence of the last applied match
+     */
+    public long getLeaderboardSequence() {
+        synchronized (storeLock) {
+            return leaderboardSequence;
+        }
+    }
+
+    /**
+     * Marks the matches of this segment up to the given sequence as applied to the leaderboard
+     *
+     * @param appliedSequence long sequence of the last applied match
+     */
+    public void setLeaderboardSequence(long appliedSequence) {
+        synchronized (storeLock) {
+            leaderboardSequence = Math.max(leaderboardSequence, appliedSequence);
+            writeSegmentIndex(false);
+        }
+    }
+
+    /**
+     * Reads all matches of this segment that have been appended after the match with the given sequence
+     * and haven't been removed from the segment-log by the compactor yet
+     *
+     * @param afterSequence long sequence of the last known match
+     * @return ArrayList of MatchResults in the order they have been appended
+     */
+    public ArrayList<MatchResult> readMatchesAfter(long afterSequence) {
+        synchronized (storeLock) {
+            if (segmentChannel == null) {
+                return new ArrayList<>();
+            }
+            return readSegmentMatchesAfter(segment, afterSequence);
+        }
+    }
+
+    /**
+     * Reads the matches of every segment that haven't been folded into the scoreboard-csv-files yet.
+     * Has to be called while holding LedgerLock.SCOREBOARD_FILES, so no compactor changes them meanwhile.
+     *
+     * @return ArrayList of MatchResults grouped by segment
+     */
+    public ArrayList<MatchResult> readUncompactedMatches() {
+        synchronized (storeLock) {
+            recoverScoreboardFiles();
+            ArrayList<MatchResult> matchResults = new ArrayList<>();
+            File[] indexFiles = new File(".").listFiles((directory, name) ->
+                    name.startsWith(Constants.SCOREBOARD_SEGMENT_PREFIX)
+                            && name.endsWith(Constants.SCOREBOARD_SEGMENT_INDEX_SUFFIX));
+            if (indexFiles == null) {
+                return matchResults;
+            }
+            for (File indexFile : indexFiles) {
+                String name = indexFile.getName();
+                String otherSegment = name.substring(Constants.SCOREBOARD_SEGMENT_PREFIX.length(),
+                        name.length() - Constants.SCOREBOARD_SEGMENT_INDEX_SUFFIX.length());
+                long otherCompactedSequence = segmentChannel != null && otherSegment.equals(segment)
+                        ? compactedSequence : readCompactedSequence(indexFile);
+                matchResults.addAll(readSegmentMatchesAfter(otherSegment, otherCompactedSequence));
+            }
+            return matchResults;
+        }
+    }
+
+    /**
+     * Opens segment-log and indices, bootstraps the shared totals from the scoreboard-csv-files on first use
+     * and replays records of this segment that have been appended after its index was written the last time.
+     * If no segment can be locked, the store stays closed and refuses every batch.
+     */
+    private void open() {
+        try {
+            totalsChannel = FileChannel.open(new File(Constants.FILE_LOCATION_SCOREBOARD_TOTALS).toPath(),
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            FileChannel lockedChannel = lockSegment();
+            if (lockedChannel == null) {
+                LogHelper.error("No scoreboard segment available, matches are not persisted: {}", segment);
+                return;
+            }
+            segmentChannel = lockedChannel;
+            logFile = segmentFile(segment, Constants.SCOREBOARD_SEGMENT_LOG_SUFFIX);
+            compactingFile = segmentFile(segment, Constants.SCOREBOARD_SEGMENT_LOG_SUFFIX + COMPACTING_SUFFIX);
+            readSegmentIndex();
+            LedgerLock.TOTALS.run(() -> {
+                if (!readTotals()) {
+                    bootstrapTotals();
+                }
+            });
+            ArrayList<MatchResult> unreplayed = new ArrayList<>();
+            replay(compactingFile, unreplayed);
+            pendingMatches = replay(logFile, unreplayed);
+            if (!unreplayed.isEmpty()) {
+                addToTotals(unreplayed, false);
+            }
+            writeSegmentIndex(false);
+            openLog();
+        } catch (IOException e) {
+            LogHelper.error("Scoreboard not accessible: {}", e);
+            return;
+        }
+        if (compactingFile.exists() || pendingMatches >= Constants.SCOREBOARD_COMPACTION_THRESHOLD) {
+            startCompaction();
+        }
+    }
+
+    /**
+     * Opens and locks the index of this segment. If another process holds it, the next free segment
+     * is used instead, so two processes never append to the same segment-log.
+     *
+     * @return FileChannel of the locked index or null if no segment could be locked
+     * @throws IOException thrown if an index can't be opened
+     */
+    private FileChannel lockSegment() throws IOException {
+        String name = segment;
+        for (int attempt = 1; attempt <= Constants.SCOREBOARD_SEGMENT_ATTEMPTS; attempt++) {
+            FileChannel channel = FileChannel.open(segmentFile(name, Constants.SCOREBOARD_SEGMENT_INDEX_SUFFIX).toPath(),
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            if (channel.tryLock(SEGMENT_INDEX_SIZE, 1, false) != null) {
+                if (!name.equals(segment)) {
+                    LogHelper.warn("Scoreboard segment is used by another process, using segment: {}", name);
+                    segment = name;
+                }
+                return channel;
+            }
+            channel.close();
+            name = segment + "-" + attempt;
+        }
+        return null;
+    }
+
+    /**
+     * Opens the segment-log for appending
+     *
+     * @throws IOException thrown if the log can't be opened
+     */
+    private void openLog() throws IOException {
+        logStream = new FileOutputStream(logFile, true);
+        logWriter = new BufferedWriter(new OutputStreamWriter(logStream, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Cuts the segment-log back to its length before a batch that couldn't be written and reopens it,
+     * so no incomplete record is left in front of the records of the next batch
+     *
+     * @param logLength long length of the log before the batch, -1 if it is unknown
+     */
+    private void discardPartialBatch(long logLength) {
+        try {
+            logWriter.close();
+        } catch (IOException e) {
+            LogHelper.warn("Scoreboard-log closed with unwritten records: {}", e.getMessage());
+        }
+        if (logLength >= 0) {
+            try (FileChannel channel = FileChannel.open(logFile.toPath(), StandardOpenOption.WRITE)) {
+                channel.truncate(logLength);
+            } catch (IOException e) {
+                LogHelper.error("Scoreboard-log could not be truncated: {}", e);
+            }
+        }
+        try {
+            openLog();
+        } catch (IOException e) {
+            LogHelper.error("Scoreboard not accessible: {}", e);
+        }
+    }
+
+    /**
+     * Collects every record of the given log that isn't covered by the segment index yet
+     *
+     * @param file       File of the log to replay
+     * @param unreplayed ArrayList the records that haven't been added to the totals are collected in
+     * @return int amount of records that haven't been compacted yet
+     */
+    private int replay(File file, ArrayList<MatchResult> unreplayed) {
+        int uncompacted = 0;
+        for (MatchResult matchResult : HighscoreHelper.readMatchRecords(file)) {
+            if (matchResult.getSequence() > compactedSequence) {
+                uncompacted++;
+            }
+            if (matchResult.getSequence() > sequence) {
+                sequence = matchResult.getSequence();
+                unreplayed.add(matchResult);
+            }
+        }
+        return uncompacted;
+    }
+
+    /**
+     * Adds the given matches to the shared totals while holding LedgerLock.TOTALS.
+     * If the lock can't be taken, the matches are added together with the next batch.
+     *
+     * @param matchResults List of MatchResults to add
+     * @param force        true if the shared index has to be forced to the disk
+     */
+    private void addToTotals(List<MatchResult> matchResults, boolean force) {
+        synchronized (untotalledMatches) {
+            untotalledMatches.addAll(matchResults);
+            boolean added = LedgerLock.TOTALS.run(() -> {
+                readTotals();
+                for (MatchResult matchResult : untotalledMatches) {
+                    for (int i = 0; i < Constants.MAX_PLAYER_COUNT; i++) {
+                        totals[i] += matchResult.getScores()[i];
+                    }
+                    matchCount++;
+                }
+                writeTotals(force);
+            });
+            if (added) {
+                untotalledMatches.clear();
+            } else {
+                LogHelper.warn("Scoreboard totals locked, adding matches with the next batch: {}",
+                        untotalledMatches.size());
+            }
+        }
+    }
+
+    /**
+     * Sums up the legacy scoreboard-csv-file by color, used once if no shared index exists yet.
+     * The index isn't written if the scoreboard-files are locked, so the next process bootstraps it again.
+     */
+    private void bootstrapTotals() {
+        Arrays.fill(totals, 0);
+        matchCount = 0;
+        boolean read = LedgerLock.SCOREBOARD_FILES.run(() -> {
+            recoverScoreboardFiles();
+            for (Integer[] scoreboard : HighscoreHelper.readScoreboardByColor()) {
+                for (int i = 0; i < Constants.MAX_PLAYER_COUNT; i++) {
+                    totals[i] += scoreboard[i];
+                }
+                matchCount++;
+            }
+        });
+        if (read) {
+            writeTotals(true);
+        }
+    }
+
+    /**
+     * Reads the shared index, has to be called while holding LedgerLock.TOTALS
+     *
+     * @return true if a valid index has been read, false if it is missing or of another version
+     */
+    private boolean readTotals() {
+        if (!read(totalsChannel, totalsBuffer)) {
+            return false;
+        }
+        matchCount = totalsBuffer.getLong();
+        for (int i = 0; i < Constants.MAX_PLAYER_COUNT; i++) {
+            totals[i] = totalsBuffer.getLong();
+        }
+        return true;
+    }
+
+    /**
+     * Overwrites the shared index in place, has to be called while holding LedgerLock.TOTALS
+     *
+     * @param force true if the index has to be forced to the disk
+     */
+    private void writeTotals(boolean force) {
+        totalsBuffer.clear();
+        totalsBuffer.putInt(INDEX_VERSION).putInt(Constants.MAX_PLAYER_COUNT).putLong(matchCount);
+        for (long total : totals) {
+            totalsBuffer.putLong(total);
+        }
+        write(totalsChannel, totalsBuffer, force);
+    }
+
+    /**
+     * Reads the index of this segment, a missing index leaves every sequence at zero
+     */
+    private void readSegmentIndex() {
+        if (read(segmentChannel, segmentBuffer)) {
+            sequence = segmentBuffer.getLong();
+            compactedSequence = segmentBuffer.getLong();
+            leaderboardSequence = segmentBuffer.getLong();
+        }
+    }
+
+    /**
+     * Overwrites the index of this segment in place, it always has the same size
+     *
+     * @param force true if the index has to be forced to the disk
+     * @return true if the index has been written
+     */
+    private boolean writeSegmentIndex(boolean force) {
+        if (segmentChannel == null) {
+            return false;
+        }
+        segmentBuffer.clear();
+        segmentBuffer.putInt(INDEX_VERSION).putInt(Constants.MAX_PLAYER_COUNT)
+                .putLong(sequence).putLong(compactedSequence).putLong(leaderboardSequence);
+        return write(segmentChannel, segmentBuffer, force);
+    }
+
+    /**
+     * Reads the compacted sequence from the index of another segment
+     *
+     * @param indexFile File of the segment index
+     * @return long sequence of the last compacted match of the segment
+     */
+    private long readCompactedSequence(File indexFile) {
+        try (FileChannel channel = FileChannel.open(indexFile.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate(SEGMENT_INDEX_SIZE);
+            if (read(channel, buffer)) {
+                buffer.getLong();
+                return buffer.getLong();
+            }
+        } catch (IOException e) {
+            LogHelper.error("Scoreboard segment not accessible: {}", e);
+        }
+        return 0;
+    }
+
+    /**
+     * Reads rotated and current log of the given segment
+     *
+     * @param name          String name of the segment
+     * @param afterSequence long sequence of the last known match
+     * @return ArrayList of MatchResults in the order they have been appended
+     */
+    private static ArrayList<MatchResult> readSegmentMatchesAfter(String name, long afterSequence) {
+        ArrayList<MatchResult> matchResults = new ArrayList<>();
+        File[] files = new File[]{
+                segmentFile(name, Constants.SCOREBOARD_SEGMENT_LOG_SUFFIX + COMPACTING_SUFFIX),
+                segmentFile(name, Constants.SCOREBOARD_SEGMENT_LOG_SUFFIX)};
+        for (File file : files) {
+            for (MatchResult matchResult : HighscoreHelper.readMatchRecords(file)) {
+                if (matchResult.getSequence() > afterSequence) {
+                    matchResults.add(matchResult);
+                }
+            }
+        }
+        return matchResults;
+    }
+
+    /**
+     * Reads a whole index into the given buffer and checks its header
+     *
+     * @param channel FileChannel of the index
+     * @param buffer  ByteBuffer sized like the index, positioned behind the header afterwards
+     * @return true if the index is complete and of the current version
+     */
+    private static boolean read(FileChannel channel, ByteBuffer buffer) {
+        buffer.clear();
+        try {
+            int read = 0;
+            while (buffer.hasRemaining() && read >= 0) {
+                read = channel.read(buffer, buffer.position());
+            }
+        } catch (IOException e) {
+            LogHelper.error("Scoreboard index not accessible: {}", e);
+            return false;
+        }
+        if (buffer.hasRemaining()) {
+            return false;
+        }
+        buffer.flip();
+        return buffer.getInt() == INDEX_VERSION && buffer.getInt() == Constants.MAX_PLAYER_COUNT;
+    }
+
+    /**
+     * Overwrites an index in place
+     *
+     * @param channel FileChannel of the index
+     * @param buffer  ByteBuffer holding the whole index, not flipped yet
+     * @param force   true if the index has to be forced to the disk
+     * @return true if the index has been written
+     */
+    private static boolean write(FileChannel channel, ByteBuffer buffer, boolean force) {
+        buffer.flip();
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer, buffer.position());
+            }
+            if (force) {
+                channel.force(false);
+            }
+            return true;
+        } catch (IOException e) {
+            LogHelper.error("Scoreboard index not accessible: {}", e);
+            return false;
+        }
+    }
+
+    private static File segmentFile(String name, String suffix) {
+        return new File(Constants.SCOREBOARD_SEGMENT_PREFIX + name + suffix);
+    }
+
+    private static File temporaryFile(String location, String name) {
+        return new File(location + "." + name + TEMPORARY_SUFFIX);
+    }
+
+    /**
+     * Rotates the segment-log and folds the rotated records into the scoreboard-csv-files on a background thread.
+     * Has to be called while holding the storeLock.
+     */
+    private void startCompaction() {
+        if (compacting) {
+            return;
+        }
+        if (!compactingFile.exists()) {
+            try {
+                logWriter.close();
+                if (!logFile.renameTo(compactingFile)) {
+                    LogHelper.warn("Scoreboard-log could not be rotated: {}", logFile);
+                }
+                openLog();
+            } catch (IOException e) {
+                LogHelper.error("Scoreboard not accessible: {}", e);
+                return;
+            }
+            pendingMatches = 0;
+        }
+        compacting = true;
+        Thread compactor = new Thread(this::compact, "highscore-compactor");
+        compactor.setDaemon(true);
+        compactor.start();
+    }
+
+    /**
+     * Folds the records of the rotated segment-log into both scoreboard-csv-files while holding
+     * LedgerLock.SCOREBOARD_FILES, so compactors of other processes can't overwrite them meanwhile.
+     * The csv-files are written to temporary files first, which are renamed only after the compacted sequence
+     * has been forced to the segment index. A crash before that leaves the csv-files untouched and the rotated
+     * records are folded in again, a crash afterwards is finished by recoverScoreboardFiles.
+     * If the scoreboard-files can't be locked, the compaction is started again by the next batch.
+     */
+    private void compact() {
+        boolean locked = LedgerLock.SCOREBOARD_FILES.run(() -> {
+            recoverScoreboardFiles();
+            long lastSequence;
+            synchronized (storeLock) {
+                lastSequence = compactedSequence;
+            }
+            ArrayList<MatchResult> matchResults = HighscoreHelper.readMatchRecords(compactingFile);
+            ArrayList<Integer[]> scoreboardsByColor = HighscoreHelper.readScoreboardByColor();
+            ArrayList<String[]> scoreboardsByName = HighscoreHelper.readScoreboardByName();
+            boolean folded = false;
+            for (MatchResult matchResult : matchResults) {
+                if (matchResult.getSequence() <= lastSequence) {
+                    continue;
+                }
+                Integer[] scores = matchResult.getScores();
+                scoreboardsByColor.add(scores);
+                scoreboardsByName.add(matchResult.getNames());
+                scoreboardsByName.add(Arrays.stream(scores).map(String::valueOf).toArray(String[]::new));
+                lastSequence = matchResult.getSequence();
+                folded = true;
+            }
+            File colorFile = temporaryFile(Constants.FILE_LOCATION_SCOREBOARD_COLOR, segment);
+            File nameFile = temporaryFile(Constants.FILE_LOCATION_SCOREBOARD_NAME, segment);
+            if (folded && !(HighscoreHelper.writeScoreboardByColor(scoreboardsByColor, colorFile)
+                    && HighscoreHelper.writeScoreboardByName(scoreboardsByName, nameFile)
+                    && commitCompactedSequence(lastSequence))) {
+                deleteFile(colorFile);
+                deleteFile(nameFile);
+                synchronized (storeLock) {
+                    compacting = false;
+                }
+                return;
+            }
+            renameFile(colorFile, new File(Constants.FILE_LOCATION_SCOREBOARD_COLOR));
+            renameFile(nameFile, new File(Constants.FILE_LOCATION_SCOREBOARD_NAME));
+            synchronized (storeLock) {
+                if (!compactingFile.delete()) {
+                    LogHelper.warn("Rotated scoreboard-log could not be deleted: {}", compactingFile);
+                }
+                compacting = false;
+                LogHelper.info("Compacted scoreboard segment up to match {}", compactedSequence);
+            }
+        });
+        if (!locked) {
+            synchronized (storeLock) {
+                compacting = false;
+            }
+        }
+    }
+
+    /**
+     * Forces the new compacted sequence to the segment index, the old one is kept if the index isn't writable
+     *
+     * @param lastSequence long sequence of the last folded match
+     * @return true if the index covers the folded matches
+     */
+    private boolean commitCompactedSequence(long lastSequence) {
+        synchronized (storeLock) {
+            long previousSequence = compactedSequence;
+            compactedSequence = lastSequence;
+            if (writeSegmentIndex(true)) {
+                return true;
+            }
+            compactedSequence = previousSequence;
+            writeSegmentIndex(false);
+            return false;
+        }
+    }
+
+    /**
+     * Finishes compactions of any process that have been interrupted while the temporary csv-files existed.
+     * If the index of the segment already covers its rotated log, the temporary files are complete and renamed,
+     * otherwise they are discarded and the rotated log is folded in again by the next compactor of the segment.
+     * Has to be called while holding LedgerLock.SCOREBOARD_FILES.
+     */
+    private void recoverScoreboardFiles() {
+        String[] locations = {Constants.FILE_LOCATION_SCOREBOARD_COLOR, Constants.FILE_LOCATION_SCOREBOARD_NAME};
+        for (String location : locations) {
+            File[] temporaryFiles = new File(".").listFiles((directory, name) ->
+                    name.startsWith(location + ".") && name.endsWith(TEMPORARY_SUFFIX));
+            if (temporaryFiles == null) {
+                continue;
+            }
+            for (File temporaryFile : temporaryFiles) {
+                String name = temporaryFile.getName();
+                String otherSegment = name.substring(location.length() + 1, name.length() - TEMPORARY_SUFFIX.length());
+                long otherCompactedSequence = readCompactedSequence(
+                        segmentFile(otherSegment, Constants.SCOREBOARD_SEGMENT_INDEX_SUFFIX));
+                long rotatedSequence = 0;
+                for (MatchResult matchResult : HighscoreHelper.readMatchRecords(
+                        segmentFile(otherSegment, Constants.SCOREBOARD_SEGMENT_LOG_SUFFIX + COMPACTING_SUFFIX))) {
+                    rotatedSequence = Math.max(rotatedSequence, matchResult.getSequence());
+                }
+                if (otherCompactedSequence >= rotatedSequence) {
+                    LogHelper.warn("Finishing interrupted compaction of scoreboard segment: {}", otherSegment);
+                    renameFile(temporaryFile, new File(location));
+                } else {
+                    deleteFile(temporaryFile);
+                }
+            }
+        }
+    }
+
+    private static void renameFile(File source, File target) {
+        if (!source.exists()) {
+            return;
+        }
+        try {
+            Files.move(source.toPath(), target.toPath(),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            LogHelper.error("Scoreboard could not be replaced: {}", e);
+        }
+    }
+
+    private static void deleteFile(File file) {
+        if (file.exists() && !file.delete()) {
+            LogHelper.warn("Temporary scoreboard could not be deleted: {}", file);
+        }
+    }
+}
@@ -0,0 +1,538 @@
+package highscore;
+
+import config.Constants;
+import helpers.HighscoreHelper;
+import helpers.LogHelper;
+import models.LeaderboardSnapshot;
+import models.MatchResult;
+import models.PlayerStanding;
+import proxy.LeaderboardEntry;
+import proxy.LeaderboardQuery;
+import proxy.LeaderboardResponse;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * Leaderboard-Singleton used for answering rank, top-N and history queries per playerName.
+ * The aggregates of every playerName are stored in fixed-size records of a memory-mapped index,
+ * which is shared by all server processes and updated in place under LedgerLock.LEADERBOARD whenever a match finishes.
+ * Ordered sets of all standings are kept in memory, so queries never scan the scoreboard-files.
+ * After every change the ranks are computed in a single pass and published as an immutable LeaderboardSnapshot,
+ * queries only read the latest snapshot and never wait for the index or its lock.
+ * Every update increments the generation in the header, the leaderboard-refresher thread reloads the sets
+ * every LEADERBOARD_REFRESH_INTERVAL once it sees a newer generation written by another process.
+ */
+public class Leaderboard {
+    private static final Object instanceLock = new Object();
+    private static final int MAGIC = 0x4C42_4F41;
+    private static final int VERSION = 2;
+    private static final int HEADER_SIZE = 32;
+    private static final int NAME_BYTES = 32;
+    private static final int RECORD_SIZE = NAME_BYTES + Long.BYTES * 3 + Integer.BYTES * 4
+            + Integer.BYTES * Constants.LEADERBOARD_HISTORY_LENGTH;
+    private static final int RECORD_COUNT_OFFSET = 8;
+    private static final int GENERATION_OFFSET = 16;
+    private static final int TOTAL_OFFSET = NAME_BYTES;
+    private static final int WEEKLY_TOTAL_OFFSET = TOTAL_OFFSET + Long.BYTES;
+    private static final int LAST_PLAYED_OFFSET = WEEKLY_TOTAL_OFFSET + Long.BYTES;
+    private static final int WEEK_ID_OFFSET = LAST_PLAYED_OFFSET + Long.BYTES;
+    private static final int MATCHES_OFFSET = WEEK_ID_OFFSET + Integer.BYTES;
+    private static final int WINS_OFFSET = MATCHES_OFFSET + Integer.BYTES;
+    private static final int HISTORY_COUNT_OFFSET = WINS_OFFSET + Integer.BYTES;
+    private static final int HISTORY_OFFSET = HISTORY_COUNT_OFFSET + Integer.BYTES;
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+    private static Leaderboard instance;
+    private final Object leaderboardLock = new Object();
+    private final Map<String, PlayerStanding> standings = new HashMap<>();
+    private final ArrayList<MatchResult> unappliedMatches = new ArrayList<>();
+    private final TreeSet<PlayerStanding> byTotal = new TreeSet<>(
+            Comparator.comparingLong(PlayerStanding::getTotal).reversed().thenComparing(PlayerStanding::getName));
+    private final TreeSet<PlayerStanding> byWeeklyTotal = new TreeSet<>(
+            Comparator.comparingInt(PlayerStanding::getWeekId).reversed()
+                    .thenComparing(Comparator.comparingLong(PlayerStanding::getWeeklyTotal).reversed())
+                    .thenComparing(PlayerStanding::getName));
+    private FileChannel channel;
+    private MappedByteBuffer index;
+    private int capacity;
+    private long generation;
+    private volatile LeaderboardSnapshot snapshot = LeaderboardSnapshot.EMPTY;
+
+    /**
+     * Private constructor to achieve Singleton-Pattern
+     */
+    private Leaderboard() {
+        open();
+        if (index != null) {
+            Thread refresher = new Thread(this::refreshLoop, "leaderboard-refresher");
+            refresher.setDaemon(true);
+            refresher.start();
+        }
+    }
+
+    /**
+     * Returns the only existing Leaderboard-Instance or
+     * creates an instance if it doesn't exist yet and loads the index.
+     *
+     * @return unique instance of Leaderboard
+     */
+    public static Leaderboard getInstance() {
+        synchronized (instanceLock) {
+            if (instance == null) {
+                instance = new Leaderboard();
+            }
+            return instance;
+        }
+    }
+
+    /**
+     * Adds the scores of a finished match of this process to the aggregates of every participating playerName.
+     * If the index is locked by another process, the match is applied together with the next one.
+     *
+     * @param matchResult MatchResult of the finished match
+     */
+    public void record(MatchResult matchResult) {
+        HighscoreStore highscoreStore = HighscoreStore.getInstance();
+        synchronized (leaderboardLock) {
+            if (index == null || matchResult.getSequence() <= highscoreStore.getLeaderboardSequence()) {
+                return;
+            }
+            unappliedMatches.add(matchResult);
+            boolean applied = LedgerLock.LEADERBOARD.run(() -> {
+                reloadIfChanged();
+                for (MatchResult unappliedMatch : unappliedMatches) {
+                    apply(unappliedMatch.getNames(), unappliedMatch.getScores(), unappliedMatch.getTimestamp());
+                }
+                publish();
+            });
+            if (!applied) {
+                LogHelper.warn("Leaderboard locked, applying matches with the next one: {}", unappliedMatches.size());
+                return;
+            }
+            unappliedMatches.clear();
+            highscoreStore.setLeaderboardSequence(matchResult.getSequence());
+            publishSnapshot();
+        }
+    }
+
+    /**
+     * Answers a query of a client from the latest snapshot, never blocks
+     *
+     * @param query LeaderboardQuery sent by the client
+     * @return LeaderboardResponse containing the requested entries
+     */
+    public LeaderboardResponse query(LeaderboardQuery query) {
+        int limit = Math.max(1, Math.min(query.getLimit(), Constants.LEADERBOARD_QUERY_LIMIT));
+        LeaderboardEntry[] entries = switch (query.getQueryType()) {
+            case TOP -> top(limit);
+            case WEEKLY_TOP -> weeklyTop(limit);
+            case PLAYER -> {
+                LeaderboardEntry entry = player(query.getPlayerName());
+                yield entry == null ? new LeaderboardEntry[0] : new LeaderboardEntry[]{entry};
+            }
+        };
+        return new LeaderboardResponse(query.getQueryType(), entries);
+    }
+
+    /**
+     * Returns the playerNames with the highest totals
+     *
+     * @param limit int maximum amount of entries
+     * @return LeaderboardEntry[] ordered by rank
+     */
+    public LeaderboardEntry[] top(int limit) {
+        LeaderboardEntry[] top = snapshot.getTop();
+        return Arrays.copyOf(top, Math.min(limit, top.length));
+    }
+
+    /**
+     * Returns the playerNames with the highest totals of the current week
+     *
+     * @param limit int maximum amount of entries
+     * @return LeaderboardEntry[] ordered by weekly rank
+     */
+    public LeaderboardEntry[] weeklyTop(int limit) {
+        LeaderboardSnapshot current = snapshot;
+        if (current.getWeekId() != weekId(System.currentTimeMillis())) {
+            return new LeaderboardEntry[0];
+        }
+        LeaderboardEntry[] weeklyTop = current.getWeeklyTop();
+        return Arrays.copyOf(weeklyTop, Math.min(limit, weeklyTop.length));
+    }
+
+    /**
+     * Returns rank, aggregates and recent scores of the given playerName
+     *
+     * @param playerName String name of the player
+     * @return LeaderboardEntry of the player or null if the player hasn't finished a match yet
+     */
+    public LeaderboardEntry player(String playerName) {
+        return playerName == null ? null : snapshot.getPlayers().get(playerName);
+    }
+
+    /**
+     * Maps the index and loads every record into memory.
+     * A missing index is rebuilt from the scoreboard-csv-file by name and the uncompacted matches of all processes,
+     * matches of this process that haven't been applied yet are replayed from the highscoreStore.
+     */
+    private void open() {
+        HighscoreStore highscoreStore = HighscoreStore.getInstance();
+        File file = new File(Constants.FILE_LOCATION_LEADERBOARD_INDEX);
+        try {
+            channel = FileChannel.open(file.toPath(),
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        } catch (IOException e) {
+            LogHelper.error("Leaderboard not accessible: {}", e);
+            return;
+        }
+        Boolean opened = LedgerLock.LEADERBOARD.call(() -> {
+            try {
+                capacity = Constants.LEADERBOARD_INITIAL_CAPACITY;
+                if (channel.size() >= HEADER_SIZE) {
+                    map(Math.max(capacity, (int) ((channel.size() - HEADER_SIZE) / RECORD_SIZE)));
+                    if (index.getInt(0) == MAGIC && index.getInt(4) == VERSION) {
+                        reload();
+                        return true;
+                    }
+                }
+                map(capacity);
+                index.putInt(0, 0);
+                index.putInt(RECORD_COUNT_OFFSET, 0);
+                if (!bootstrap(highscoreStore)) {
+                    return false;
+                }
+                index.putInt(0, MAGIC);
+                index.putInt(4, VERSION);
+                publish();
+                return true;
+            } catch (IOException e) {
+                LogHelper.error("Leaderboard not accessible: {}", e);
+                return false;
+            }
+        });
+        if (!Boolean.TRUE.equals(opened)) {
+            LogHelper.error("Leaderboard not available: {}", file);
+            index = null;
+            return;
+        }
+        synchronized (leaderboardLock) {
+            publishSnapshot();
+        }
+        for (MatchResult matchResult : highscoreStore.readMatchesAfter(highscoreStore.getLeaderboardSequence())) {
+            record(matchResult);
+        }
+    }
+
+    /**
+     * Refresher-Thread loop, checks the generation of the index every LEADERBOARD_REFRESH_INTERVAL
+     */
+    private void refreshLoop() {
+        while (true) {
+            try {
+                Thread.sleep(Constants.LEADERBOARD_REFRESH_INTERVAL);
+            } catch (InterruptedException e) {
+                return;
+            }
+            refresh();
+        }
+    }
+
+    /**
+     * Reloads the in-memory sets and publishes a new snapshot
+     * if another process has updated the index since they have been loaded
+     */
+    private void refresh() {
+        synchronized (leaderboardLock) {
+            if (index.getLong(GENERATION_OFFSET) != generation && LedgerLock.LEADERBOARD.run(this::reloadIfChanged)) {
+                publishSnapshot();
+            }
+        }
+    }
+
+    /**
+     * Reloads the in-memory sets if the generation of the index has changed,
+     * has to be called while holding LedgerLock.LEADERBOARD
+     */
+    private void reloadIfChanged() {
+        if (index.getLong(GENERATION_OFFSET) != generation) {
+            try {
+                reload();
+            } catch (IOException e) {
+                LogHelper.error("Leaderboard not accessible: {}", e);
+            }
+        }
+    }
+
+    /**
+     * Loads every record of the index into memory, the mapping grows if another process has added records
+     *
+     * @throws IOException thrown if the index can't be mapped
+     */
+    private void reload() throws IOException {
+        int recordCount = index.getInt(RECORD_COUNT_OFFSET);
+        if (recordCount > capacity) {
+            while (capacity < recordCount) {
+                capacity *= 2;
+            }
+            map(capacity);
+        }
+        standings.clear();
+        byTotal.clear();
+        byWeeklyTotal.clear();
+        for (int slot = 0; slot < recordCount; slot++) {
+            load(slot);
+        }
+        generation = index.getLong(GENERATION_OFFSET);
+    }
+
+    /**
+     * Ranks all standings in a single pass and publishes them as a new snapshot,
+     * has to be called while holding the leaderboardLock
+     */
+    private void publishSnapshot() {
+        int limit = Constants.LEADERBOARD_QUERY_LIMIT;
+        LeaderboardEntry[] top = new LeaderboardEntry[Math.min(limit, byTotal.size())];
+        Map<String, LeaderboardEntry> players = new HashMap<>(standings.size() * 4 / 3 + 1);
+        int rank = 0;
+        for (PlayerStanding standing : byTotal) {
+            rank++;
+            if (rank <= top.length) {
+                top[rank - 1] = toEntry(standing, rank);
+            }
+            LeaderboardEntry entry = toEntry(standing, rank);
+            entry.setHistory(readHistory(standing.getSlot()));
+            players.put(standing.getName(), entry);
+        }
+        int week = byWeeklyTotal.isEmpty() ? Integer.MIN_VALUE : byWeeklyTotal.first().getWeekId();
+        ArrayList<LeaderboardEntry> weeklyTop = new ArrayList<>(limit);
+        for (PlayerStanding standing : byWeeklyTotal) {
+            if (weeklyTop.size() == limit || standing.getWeekId() != week) {
+                break;
+            }
+            weeklyTop.add(toEntry(standing, weeklyTop.size() + 1));
+        }
+        snapshot = new LeaderboardSnapshot(top, week, weeklyTop.toArray(new LeaderboardEntry[0]),
+                Collections.unmodifiableMap(players));
+    }
+
+    /**
+     * Marks the index as changed for every other process, has to be called while holding LedgerLock.LEADERBOARD
+     */
+    private void publish() {
+        generation = index.getLong(GENERATION_OFFSET) + 1;
+        index.putLong(GENERATION_OFFSET, generation);
+    }
+
+    /**
+     * Rebuilds the aggregates from the alternating name and score rows of the scoreboard-csv-file by name
+     * and the matches of all processes that haven't been folded into it yet
+     *
+     * @param highscoreStore HighscoreStore of this process
+     * @return true if the aggregates have been rebuilt, false if the scoreboard-files are locked
+     */
+    private boolean bootstrap(HighscoreStore highscoreStore) {
+        ArrayList<String[]> lines = new ArrayList<>();
+        ArrayList<MatchResult> uncompacted = new ArrayList<>();
+        boolean read = LedgerLock.SCOREBOARD_FILES.run(() -> {
+            lines.addAll(HighscoreHelper.readScoreboardByName());
+            uncompacted.addAll(highscoreStore.readUncompactedMatches());
+        });
+        if (!read) {
+            return false;
+        }
+        for (int i = 0; i + 1 < lines.size(); i += 2) {
+            Integer[] scores = new Integer[Constants.MAX_PLAYER_COUNT];
+            for (int j = 0; j < Constants.MAX_PLAYER_COUNT; j++) {
+                try {
+                    scores[j] = Integer.valueOf(lines.get(i + 1)[j]);
+                } catch (NumberFormatException e) {
+                    scores[j] = 0;
+                }
+            }
+            apply(lines.get(i), scores, 0);
+        }
+        long lastSequence = 0;
+        for (MatchResult matchResult : uncompacted) {
+            apply(matchResult.getNames(), matchResult.getScores(), matchResult.getTimestamp());
+        }
+        for (MatchResult matchResult : highscoreStore.readMatchesAfter(0)) {
+            lastSequence = Math.max(lastSequence, matchResult.getSequence());
+        }
+        highscoreStore.setLeaderboardSequence(lastSequence);
+        return true;
+    }
+
+    /**
+     * Adds the scores of a single match to the aggregates in the index and in memory
+     *
+     * @param names     String[] names of the players by color
+     * @param scores    Integer[] scores of the players by color
+     * @param timestamp long end of the match in milliseconds, 0 if unknown
+     */
+    private void apply(String[] names, Integer[] scores, long timestamp) {
+        int winningScore = Integer.MIN_VALUE;
+        for (int i = 0; i < Constants.MAX_PLAYER_COUNT; i++) {
+            if (isPlayer(names[i]) && scores[i] > winningScore) {
+                winningScore = scores[i];
+            }
+        }
+        int week = weekId(timestamp);
+        for (int i = 0; i < Constants.MAX_PLAYER_COUNT; i++) {
+            if (!isPlayer(names[i])) {
+                continue;
+            }
+            PlayerStanding standing = standings.get(names[i]);
+            if (standing == null) {
+                standing = createStanding(names[i]);
+                if (standing == null) {
+                    continue;
+                }
+            } else {
+                byTotal.remove(standing);
+                byWeeklyTotal.remove(standing);
+            }
+            standing.setTotal(standing.getTotal() + scores[i]);
+            standing.setMatches(standing.getMatches() + 1);
+            if (scores[i] == winningScore) {
+                standing.setWins(standing.getWins() + 1);
+            }
+            if (timestamp > 0) {
+                if (standing.getWeekId() != week) {
+                    standing.setWeekId(week);
+                    standing.setWeeklyTotal(0);
+                }
+                standing.setWeeklyTotal(standing.getWeeklyTotal() + scores[i]);
+                standing.setLastPlayed(Math.max(standing.getLastPlayed(), timestamp));
+            }
+            store(standing, scores[i]);
+            byTotal.add(standing);
+            byWeeklyTotal.add(standing);
+        }
+    }
+
+    /**
+     * Reserves the next record of the index for the given playerName, the index grows if it is full
+     *
+     * @param name String name of the player
+     * @return PlayerStanding of the new record or null if the index can't grow
+     */
+    private PlayerStanding createStanding(String name) {
+        int slot = index.getInt(RECORD_COUNT_OFFSET);
+        if (slot == capacity) {
+            try {
+                capacity *= 2;
+                map(capacity);
+            } catch (IOException e) {
+                LogHelper.error("Leaderboard not accessible: {}", e);
+                return null;
+            }
+        }
+        byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+        int length = Math.min(nameBytes.length, NAME_BYTES - 1);
+        int offset = recordOffset(slot);
+        index.put(offset, (byte) length);
+        index.put(offset + 1, nameBytes, 0, length);
+        index.putInt(RECORD_COUNT_OFFSET, slot + 1);
+        PlayerStanding standing = new PlayerStanding(name, slot, 0, 0, 0, 0, 0, 0);
+        standings.put(name, standing);
+        return standing;
+    }
+
+    /**
+     * Writes the aggregates of the given standing to its record and appends the score to its history
+     *
+     * @param standing PlayerStanding to write
+     * @param score    int score of the latest match
+     */
+    private void store(PlayerStanding standing, int score) {
+        int offset = recordOffset(standing.getSlot());
+        index.putLong(offset + TOTAL_OFFSET, standing.getTotal());
+        index.putLong(offset + WEEKLY_TOTAL_OFFSET, standing.getWeeklyTotal());
+        index.putLong(offset + LAST_PLAYED_OFFSET, standing.getLastPlayed());
+        index.putInt(offset + WEEK_ID_OFFSET, standing.getWeekId());
+        index.putInt(offset + MATCHES_OFFSET, standing.getMatches());
+        index.putInt(offset + WINS_OFFSET, standing.getWins());
+        int historyCount = index.getInt(offset + HISTORY_COUNT_OFFSET);
+        index.putInt(offset + HISTORY_OFFSET
+                + historyCount % Constants.LEADERBOARD_HISTORY_LENGTH * Integer.BYTES, score);
+        index.putInt(offset + HISTORY_COUNT_OFFSET, historyCount + 1);
+    }
+
+    /**
+     * Loads the record at the given slot into memory
+     *
+     * @param slot int slot of the record
+     */
+    private void load(int slot) {
+        int offset = recordOffset(slot);
+        byte[] nameBytes = new byte[index.get(offset)];
+        index.get(offset + 1, nameBytes);
+        PlayerStanding standing = new PlayerStanding(
+                new String(nameBytes, StandardCharsets.UTF_8), slot,
+                index.getLong(offset + TOTAL_OFFSET),
+                index.getLong(offset + WEEKLY_TOTAL_OFFSET),
+                index.getInt(offset + WEEK_ID_OFFSET),
+                index.getInt(offset + MATCHES_OFFSET),
+                index.getInt(offset + WINS_OFFSET),
+                index.getLong(offset + LAST_PLAYED_OFFSET));
+        standings.put(standing.getName(), standing);
+        byTotal.add(standing);
+        byWeeklyTotal.add(standing);
+    }
+
+    /**
+     * Reads the recent scores of the record at the given slot
+     *
+     * @param slot int slot of the record
+     * @return int[] scores ordered from oldest to newest
+     */
+    private int[] readHistory(int slot) {
+        int offset = recordOffset(slot);
+        int historyCount = index.getInt(offset + HISTORY_COUNT_OFFSET);
+        int length = Math.min(historyCount, Constants.LEADERBOARD_HISTORY_LENGTH);
+        int[] history = new int[length];
+        for (int i = 0; i < length; i++) {
+            int position = (historyCount - length + i) % Constants.LEADERBOARD_HISTORY_LENGTH;
+            history[i] = index.getInt(offset + HISTORY_OFFSET + position * Integer.BYTES);
+        }
+        return history;
+    }
+
+    /**
+     * Maps header and the given amount of records
+     *
+     * @param records int amount of records
+     * @throws IOException thrown if the index can't be mapped
+     */
+    private void map(int records) throws IOException {
+        index = channel.map(FileChannel.MapMode.READ_WRITE, 0, recordOffset(records));
+    }
+
+    private LeaderboardEntry toEntry(PlayerStanding standing, int rank) {
+        return new LeaderboardEntry(standing.getName(), rank, standing.getTotal(), standing.getWeeklyTotal(),
+                standing.getMatches(), standing.getWins(), standing.getLastPlayed(), null);
+    }
+
+    private static int recordOffset(int slot) {
+        return HEADER_SIZE + slot * RECORD_SIZE;
+    }
+
+    private static boolean isPlayer(String name) {
+        return name != null && !name.isEmpty() && !name.equals("null");
+    }
+
+    /**
+     * Returns the week of the given timestamp, weeks start on monday in UTC
+     *
+     * @param timestamp long time in milliseconds
+     * @return int weeks since the first monday before the epoch
+     */
+    private static int weekId(long timestamp) {
+        return (int) Math.floorDiv(Math.floorDiv(timestamp, MILLIS_PER_DAY) + 3, 7);
+    }
+}
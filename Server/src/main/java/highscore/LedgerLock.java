@@ -0,0 +1,118 @@
+package highscore;
+
+import config.Constants;
+import helpers.LogHelper;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * LedgerLock-Enum used for sharing highscore-files between all server processes of a working directory.
+ * Every constant locks its own byte of the lock-file, so appending in one process never waits for a compaction in another.
+ * File locks belong to the whole process, so every constant also has its own lock within the process,
+ * which keeps two threads of this process from holding the same byte at once.
+ * The operating system may report a deadlock while threads of two processes hold different bytes, such an attempt
+ * is retried. If the byte still can't be locked, the action doesn't run and the caller has to defer it.
+ * Locks must always be taken in declaration order to avoid deadlocks between processes.
+ */
+public enum LedgerLock {
+    LEADERBOARD, TOTALS, SCOREBOARD_FILES;
+
+    private static FileChannel channel;
+    private final ReentrantLock processLock = new ReentrantLock();
+
+    /**
+     * Runs the given action while holding the lock in this and every other process
+     *
+     * @param action Supplier to run
+     * @param <T>    type of the result
+     * @return result of the action or null if the lock couldn't be taken and the action hasn't run
+     */
+    public <T> T call(Supplier<T> action) {
+        processLock.lock();
+        try {
+            FileLock fileLock = acquire();
+            if (fileLock == null) {
+                return null;
+            }
+            try {
+                return action.get();
+            } finally {
+                release(fileLock);
+            }
+        } finally {
+            processLock.unlock();
+        }
+    }
+
+    /**
+     * Runs the given action while holding the lock in this and every other process
+     *
+     * @param action Runnable to run
+     * @return true if the action has run, false if the lock couldn't be taken
+     */
+    public boolean run(Runnable action) {
+        return call(() -> {
+            action.run();
+            return Boolean.TRUE;
+        }) != null;
+    }
+
+    /**
+     * Locks the byte of this constant, retries LEDGER_LOCK_ATTEMPTS times if the lock-file isn't accessible
+     *
+     * @return FileLock or null if the lock couldn't be taken
+     */
+    private FileLock acquire() {
+        FileChannel lockChannel = lockChannel();
+        for (int attempt = 1; lockChannel != null; attempt++) {
+            try {
+                return lockChannel.lock(ordinal(), 1, false);
+            } catch (IOException e) {
+                if (attempt >= Constants.LEDGER_LOCK_ATTEMPTS) {
+                    LogHelper.error("Ledger lock not accessible: {}", e);
+                    return null;
+                }
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(Constants.LEDGER_LOCK_RETRY_DURATION));
+            }
+        }
+        return null;
+    }
+
+    private static void release(FileLock fileLock) {
+        if (fileLock == null) {
+            return;
+        }
+        try {
+            fileLock.release();
+        } catch (IOException e) {
+            LogHelper.error("Ledger lock not released: {}", e);
+        }
+    }
+
+    /**
+     * Opens the lock-file on first use, the same channel is used by all constants
+     *
+     * @return FileChannel of the lock-file or null if it isn't accessible
+     */
+    private static FileChannel lockChannel() {
+        synchronized (LedgerLock.class) {
+            if (channel == null) {
+                try {
+                    channel = FileChannel.open(new File(Constants.FILE_LOCATION_SCOREBOARD_LOCK).toPath(),
+                            StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+                } catch (IOException e) {
+                    LogHelper.error("Ledger lock not accessible: {}", e);
+                }
+            }
+            return channel;
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package highscore;
+
+import config.Constants;
+import helpers.LogHelper;
+import metrics.ServerMetrics;
+import models.MatchResult;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PersistenceQueue-Singleton used for persisting finished matches without blocking the room.
+ * Matches are put on a bounded queue and written by a dedicated highscore-writer thread,
+ * which takes everything that has piled up in the meantime and commits it as a single batch.
+ * A batch that couldn't be written is written again every PERSISTENCE_RETRY_DURATION, so a temporarily
+ * inaccessible disk doesn't lose it. Meanwhile the writer takes nothing else from the queue,
+ * so a full queue pushes back on the rooms instead of piling up matches in memory.
+ * A shutdown hook lets the writer drain the queue before the process exits.
+ */
+public class PersistenceQueue {
+    private static final Object instanceLock = new Object();
+    private static PersistenceQueue instance;
+    private final BlockingQueue<MatchResult> queue = new ArrayBlockingQueue<>(Constants.PERSISTENCE_QUEUE_CAPACITY);
+    private final Object writeLock = new Object();
+    private final FsyncPolicy fsyncPolicy = parseFsyncPolicy();
+    private final Thread writer = new Thread(this::writeLoop, "highscore-writer");
+    private volatile boolean running = true;
+    private volatile int unwrittenCount;
+
+    /**
+     * Private constructor to achieve Singleton-Pattern
+     */
+    private PersistenceQueue() {
+        writer.setDaemon(true);
+        writer.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(this::shutdown, "highscore-writer-shutdown"));
+    }
+
+    /**
+     * Returns the only existing PersistenceQueue-Instance or
+     * creates an instance if it doesn't exist yet and starts the writer.
+     *
+     * @return unique instance of PersistenceQueue
+     */
+    public static PersistenceQueue getInstance() {
+        synchronized (instanceLock) {
+            if (instance == null) {
+                instance = new PersistenceQueue();
+            }
+            return instance;
+        }
+    }
+
+    /**
+     * Queues the scores of a finished match. Names and scores are copied, so the caller can reset them right away.
+     * If the queue stays full for PERSISTENCE_QUEUE_OFFER_TIMEOUT the match is written by the calling thread.
+     *
+     * @param names  String[] names of the players by color
+     * @param scores Integer[] scores of the players by color
+     */
+    public void submit(String[] names, Integer[] scores) {
+        MatchResult matchResult = new MatchResult(0, System.currentTimeMillis(),
+                Arrays.copyOf(names, Constants.MAX_PLAYER_COUNT), Arrays.copyOf(scores, Constants.MAX_PLAYER_COUNT));
+        try {
+            if (running && queue.offer(matchResult, Constants.PERSISTENCE_QUEUE_OFFER_TIMEOUT, TimeUnit.MILLISECONDS)) {
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        ServerMetrics.getInstance().persistenceFallback();
+        LogHelper.warn("Persistence queue full, writing match synchronously: {}", queue.size());
+        if (!write(List.of(matchResult))) {
+            LogHelper.error("Match not persisted, scoreboard not accessible: {}", matchResult);
+        }
+    }
+
+    /**
+     * Writer-Thread loop, waits for the first match and commits it together with every match queued meanwhile.
+     * A batch that couldn't be written is kept and written again after a retry duration,
+     * no further matches are taken from the queue until it has been written.
+     */
+    private void writeLoop() {
+        ArrayList<MatchResult> batch = new ArrayList<>(Constants.PERSISTENCE_BATCH_SIZE);
+        while (running || !queue.isEmpty() || !batch.isEmpty()) {
+            try {
+                if (batch.isEmpty()) {
+                    MatchResult first = queue.poll(Constants.PERSISTENCE_IDLE_DURATION, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    batch.add(first);
+                    queue.drainTo(batch, Constants.PERSISTENCE_BATCH_SIZE - 1);
+                }
+                if (write(batch)) {
+                    batch.clear();
+                    unwrittenCount = 0;
+                } else {
+                    unwrittenCount = batch.size();
+                    LogHelper.warn("Matches not persisted, writing them again later: {}", unwrittenCount);
+                    Thread.sleep(Constants.PERSISTENCE_RETRY_DURATION);
+                }
+            } catch (InterruptedException e) {
+                running = false;
+            }
+        }
+    }
+
+    /**
+     * Appends the given batch to the highscoreStore and updates the leaderboard.
+     * Batches of the writer and synchronous writes are serialized, so the leaderboard sees matches in sequence order.
+     *
+     * @param batch List of MatchResults to write
+     * @return true if the batch has been written, false if the highscoreStore isn't accessible
+     */
+    private boolean write(List<MatchResult> batch) {
+        synchronized (writeLock) {
+            if (!HighscoreStore.getInstance().appendAll(batch, fsyncPolicy)) {
+                return false;
+            }
+            Leaderboard leaderboard = Leaderboard.getInstance();
+            for (MatchResult matchResult : batch) {
+                leaderboard.record(matchResult);
+            }
+            ServerMetrics.getInstance().matchesPersisted(batch.size());
+            return true;
+        }
+    }
+
+    /**
+     * Parses PERSISTENCE_FSYNC_POLICY, an unknown policy falls back to BATCH
+     *
+     * @return FsyncPolicy used for every batch
+     */
+    private static FsyncPolicy parseFsyncPolicy() {
+        try {
+            return FsyncPolicy.valueOf(Constants.PERSISTENCE_FSYNC_POLICY.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            LogHelper.warn("Unknown fsync policy, forcing once per batch: {}", Constants.PERSISTENCE_FSYNC_POLICY);
+            return FsyncPolicy.BATCH;
+        }
+    }
+
+    /**
+     * Stops accepting matches and waits up to PERSISTENCE_SHUTDOWN_TIMEOUT for the writer to drain the queue
+     */
+    private void shutdown() {
+        running = false;
+        try {
+            writer.join(Constants.PERSISTENCE_SHUTDOWN_TIMEOUT);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!queue.isEmpty() || unwrittenCount > 0) {
+            LogHelper.error("Persistence queue not drained, matches lost: {}", queue.size() + unwrittenCount);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package metrics;
+
+import config.Constants;
+import helpers.LogHelper;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * ContinuousRecording provides a static method to start the always-on flight recording of the server.
+ * The recording can be dumped after an incident with "jcmd &lt;pid&gt; JFR.dump name=bombaclap filename=..."
+ * and is written to bombaclap-{port}.jfr when the server exits.
+ */
+public class ContinuousRecording {
+
+    /**
+     * Starts a flight recording with the low-overhead default settings of the JDK
+     * and all Bombaclap events, keeping the last JFR_MAX_AGE_MINUTES of data on disk
+     *
+     * @param port int port of the game server used to name the dump
+     */
+    public static void start(int port) {
+        try {
+            Recording recording = new Recording(Configuration.getConfiguration("default"));
+            recording.setName("bombaclap");
+            recording.setToDisk(true);
+            recording.setMaxAge(Duration.ofMinutes(Constants.JFR_MAX_AGE_MINUTES));
+            recording.setMaxSize(Constants.JFR_MAX_SIZE_BYTES);
+            recording.setDumpOnExit(true);
+            recording.setDestination(Path.of("bombaclap-" + port + ".jfr"));
+            recording.enable(TickEvent.class);
+            recording.enable(SnapshotEncodeEvent.class);
+            recording.enable(SnapshotSendEvent.class);
+            recording.enable(HandshakeEvent.class);
+            recording.start();
+        } catch (Exception e) {
+            LogHelper.warn("Flight recording not available: {}", e.getMessage());
+        }
+    }
+}
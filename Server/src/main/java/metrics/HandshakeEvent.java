@@ -0,0 +1,22 @@
+package metrics;
+
+import jdk.jfr.*;
+
+/**
+ * Flight-Recorder-Event emitted for each login attempt of a client
+ */
+@Name("bombaclap.Handshake")
+@Label("Handshake")
+@Category({"Bombaclap", "Network"})
+@Description("Login of a client from reading the LoginAction until it has been accepted or refused")
+@StackTrace(false)
+public class HandshakeEvent extends Event {
+    @Label("Player Name")
+    public String playerName;
+    @Label("Player Id")
+    public int playerId;
+    @Label("Accepted")
+    public boolean accepted;
+    @Label("Failure")
+    public String failure;
+}
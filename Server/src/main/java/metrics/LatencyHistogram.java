@@ -0,0 +1,173 @@
+package metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * LatencyHistogram-Model used for recording durations without locks.
+ * Values are sorted into log-linear buckets (HDR-style), each power of two is split into
+ * SUB_BUCKET_HALF_COUNT buckets which keeps the relative error of every reported value below ~6%.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int SUB_BUCKET_HALF_COUNT = SUB_BUCKET_COUNT / 2;
+    private static final int BUCKET_COUNT = (64 - SUB_BUCKET_BITS + 1) * SUB_BUCKET_HALF_COUNT;
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong totalCount = new AtomicLong();
+    private final AtomicLong totalSum = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Records the given value, negative values are recorded as zero
+     *
+     * @param value long value to record, usually a duration in nanoseconds
+     */
+    public void record(long value) {
+        if (value < 0) {
+            value = 0;
+        }
+        counts.incrementAndGet(bucketIndex(value));
+        totalCount.incrementAndGet();
+        totalSum.addAndGet(value);
+        if (value > max.get()) {
+            max.accumulateAndGet(value, Math::max);
+        }
+    }
+
+    /**
+     * Returns the amount of recorded values.
+     *
+     * @return long amount of recorded values
+     */
+    public long getCount() {
+        return totalCount.get();
+    }
+
+    /**
+     * Returns the sum of all recorded values.
+     *
+     * @return long sum of recorded values
+     */
+    public long getSum() {
+        return totalSum.get();
+    }
+
+    /**
+     * Returns the largest recorded value.
+     *
+     * @return long largest recorded value, 0 if nothing has been recorded
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * Returns the amount of recorded values that are smaller than or equal to the given value.
+     * The result is exact on bucket borders and rounded down to the bucket of the value otherwise.
+     *
+     * @param value long upper bound
+     * @return long amount of recorded values below the upper bound
+     */
+    public long countAtOrBelow(long value) {
+        int lastIndex = bucketIndex(Math.max(value, 0));
+        long count = 0;
+        for (int i = 0; i <= lastIndex; i++) {
+            count += counts.get(i);
+        }
+        return count;
+    }
+
+    /**
+     * Returns the value at the given percentile.
+     * The reported value is the upper end of the bucket the percentile falls into, capped by max.
+     *
+     * @param percentile double between 0 and 100
+     * @return long value at the given percentile, 0 if nothing has been recorded
+     */
+    public long getValueAtPercentile(double percentile) {
+        long[] snapshot = new long[BUCKET_COUNT];
+        long count = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            snapshot[i] = counts.get(i);
+            count += snapshot[i];
+        }
+        if (count == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(Math.min(Math.max(percentile, 0), 100) / 100 * count);
+        if (rank < 1) {
+            rank = 1;
+        }
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return Math.min(highestEquivalentValue(i), getMax());
+            }
+        }
+        return getMax();
+    }
+
+    /**
+     * Returns the cumulative amount of recorded values at or below each of the given upper bounds,
+     * all counts are taken from the same snapshot of the buckets.
+     * A bucket which reaches above an upper bound is counted for the next upper bound, so every count is exact
+     * or too small by less than the relative error of a bucket.
+     *
+     * @param upperBounds long[] ascending upper bounds
+     * @return long[] cumulative count for every upper bound, followed by the amount of all recorded values
+     */
+    public long[] cumulativeCounts(long[] upperBounds) {
+        long[] cumulative = new long[upperBounds.length + 1];
+        int bound = 0;
+        long count = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            long bucketCount = counts.get(i);
+            if (bucketCount == 0) {
+                continue;
+            }
+            long highest = highestEquivalentValue(i);
+            while (bound < upperBounds.length && highest > upperBounds[bound]) {
+                cumulative[bound++] = count;
+            }
+            count += bucketCount;
+        }
+        while (bound <= upperBounds.length) {
+            cumulative[bound++] = count;
+        }
+        return cumulative;
+    }
+
+    /**
+     * Finds the bucket of the given value
+     *
+     * @param value long positive value
+     * @return int index of the bucket
+     */
+    private static int bucketIndex(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value) - (SUB_BUCKET_BITS - 1);
+        int subBucket = (int) (value >>> exponent);
+        return exponent * SUB_BUCKET_HALF_COUNT + subBucket;
+    }
+
+    /**
+     * Returns the largest value that is sorted into the bucket at the given index
+     *
+     * @param index int index of the bucket
+     * @return long largest value of the bucket
+     */
+    private static long highestEquivalentValue(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int exponent = index / SUB_BUCKET_HALF_COUNT - 1;
+        long subBucket = index % SUB_BUCKET_HALF_COUNT + SUB_BUCKET_HALF_COUNT;
+        long lowest = subBucket << exponent;
+        long width = 1L << exponent;
+        return lowest + width - 1 < 0 ? Long.MAX_VALUE : lowest + width - 1;
+    }
+}
@@ -0,0 +1,217 @@
+package metrics;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.Executors;
+
+/**
+ * MetricsServer used to expose the metrics of the server process in the Prometheus text format.
+ * Scrapes only read atomics and MXBeans, they never take a lock that is held by the game threads.
+ * /health answers 200 once the server is ready to accept players and 503 while it is starting or warming up.
+ */
+public class MetricsServer {
+    private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+    private static final double NANOS_PER_SECOND = 1_000_000_000d;
+    /**
+     * le-boundaries of every histogram in seconds
+     */
+    private static final double[] BUCKET_BOUNDS_SECONDS = {0.00001, 0.000025, 0.00005, 0.0001, 0.00025, 0.0005,
+            0.001, 0.0025, 0.005, 0.01, 0.015, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10};
+    private static final long[] BUCKET_BOUNDS_NANOS = Arrays.stream(BUCKET_BOUNDS_SECONDS)
+            .mapToLong(bound -> Math.round(bound * NANOS_PER_SECOND)).toArray();
+    private final HttpServer httpServer;
+
+    /**
+     * Creates a MetricsServer listening on the given port
+     *
+     * @param port int port of the http endpoint
+     * @throws IOException thrown if the port can't be bound
+     */
+    public MetricsServer(int port) throws IOException {
+        httpServer = HttpServer.create(new InetSocketAddress(port), 0);
+        httpServer.createContext("/metrics", this::handleMetrics);
+        httpServer.createContext("/health", this::handleHealth);
+        httpServer.setExecutor(Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "metrics-server");
+            thread.setDaemon(true);
+            return thread;
+        }));
+    }
+
+    /**
+     * Starts answering requests
+     */
+    public void start() {
+        httpServer.start();
+    }
+
+    /**
+     * Answers a scrape of /metrics
+     *
+     * @param exchange HttpExchange of the request
+     * @throws IOException thrown if the client disconnects
+     */
+    private void handleMetrics(HttpExchange exchange) throws IOException {
+        byte[] body = render().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    /**
+     * Answers a request of /health
+     *
+     * @param exchange HttpExchange of the request
+     * @throws IOException thrown if the client disconnects
+     */
+    private void handleHealth(HttpExchange exchange) throws IOException {
+        boolean ready = ServerMetrics.getInstance().isReady();
+        byte[] body = (ready ? "ready\n" : "starting\n").getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+        exchange.sendResponseHeaders(ready ? 200 : 503, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    /**
+     * Renders all metrics of the server process
+     *
+     * @return String in the Prometheus text format
+     */
+    private String render() {
+        ServerMetrics metrics = ServerMetrics.getInstance();
+        TickProfiler profiler = TickProfiler.getInstance();
+        String roomLabel = "room=\"" + metrics.getRoom() + "\"";
+        StringBuilder out = new StringBuilder(4096);
+
+        appendType(out, "bombaclap_rooms", "gauge");
+        appendSample(out, "bombaclap_rooms", "", 1);
+        appendType(out, "bombaclap_game_running", "gauge");
+        appendSample(out, "bombaclap_game_running", roomLabel, metrics.getGameRunning());
+        appendType(out, "bombaclap_active_connections", "gauge");
+        appendSample(out, "bombaclap_active_connections", roomLabel, metrics.getActiveConnections());
+
+        appendType(out, "bombaclap_tick_duration_seconds", "histogram");
+        appendHistogram(out, "bombaclap_tick_duration_seconds", roomLabel, profiler.getTickHistogram());
+        appendType(out, "bombaclap_tick_phase_duration_seconds", "histogram");
+        for (TickPhase phase : TickPhase.values()) {
+            appendHistogram(out, "bombaclap_tick_phase_duration_seconds",
+                    roomLabel + ",phase=\"" + phase.name().toLowerCase() + "\"",
+                    profiler.getPhaseHistogram(phase));
+        }
+        appendType(out, "bombaclap_tick_overruns_total", "counter");
+        appendSample(out, "bombaclap_tick_overruns_total", roomLabel, profiler.getOverrunCount());
+
+        appendType(out, "bombaclap_overload_level", "gauge");
+        appendSample(out, "bombaclap_overload_level", roomLabel, metrics.getOverloadLevel());
+        appendType(out, "bombaclap_overload_transitions_total", "counter");
+        appendSample(out, "bombaclap_overload_transitions_total", roomLabel, metrics.getOverloadTransitions());
+
+        appendType(out, "bombaclap_snapshots_sent_total", "counter");
+        appendSample(out, "bombaclap_snapshots_sent_total", roomLabel, metrics.getSnapshotsSent());
+        appendType(out, "bombaclap_snapshot_bytes_sent_total", "counter");
+        appendSample(out, "bombaclap_snapshot_bytes_sent_total", roomLabel, metrics.getSnapshotBytesSent());
+        appendType(out, "bombaclap_snapshot_serialization_seconds", "histogram");
+        appendHistogram(out, "bombaclap_snapshot_serialization_seconds", roomLabel, metrics.getSnapshotSerialization());
+        appendType(out, "bombaclap_dropped_inputs_total", "counter");
+        appendSample(out, "bombaclap_dropped_inputs_total", roomLabel, metrics.getDroppedInputs());
+        appendType(out, "bombaclap_handshake_failures_total", "counter");
+        appendSample(out, "bombaclap_handshake_failures_total", roomLabel, metrics.getHandshakeFailures());
+
+        appendType(out, "bombaclap_map_preparation_seconds", "histogram");
+        appendHistogram(out, "bombaclap_map_preparation_seconds", roomLabel, metrics.getMapPreparation());
+        appendType(out, "bombaclap_room_pool_misses_total", "counter");
+        appendSample(out, "bombaclap_room_pool_misses_total", roomLabel, metrics.getRoomPoolMisses());
+
+        appendType(out, "bombaclap_matches_persisted_total", "counter");
+        appendSample(out, "bombaclap_matches_persisted_total", roomLabel, metrics.getMatchesPersisted());
+        appendType(out, "bombaclap_persistence_fallbacks_total", "counter");
+        appendSample(out, "bombaclap_persistence_fallbacks_total", roomLabel, metrics.getPersistenceFallbacks());
+
+        appendJvmMetrics(out);
+        return out.toString();
+    }
+
+    /**
+     * Renders garbage collection, heap and allocation metrics of the JVM
+     *
+     * @param out StringBuilder the metrics are appended to
+     */
+    private void appendJvmMetrics(StringBuilder out) {
+        appendType(out, "jvm_gc_collections_total", "counter");
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            appendSample(out, "jvm_gc_collections_total", "gc=\"" + gc.getName() + "\"", Math.max(gc.getCollectionCount(), 0));
+        }
+        appendType(out, "jvm_gc_collection_seconds_total", "counter");
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            appendSample(out, "jvm_gc_collection_seconds_total", "gc=\"" + gc.getName() + "\"", Math.max(gc.getCollectionTime(), 0) / 1000d);
+        }
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        appendType(out, "jvm_heap_used_bytes", "gauge");
+        appendSample(out, "jvm_heap_used_bytes", "", memory.getHeapMemoryUsage().getUsed());
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threads
+                && threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled()) {
+            long allocated = 0;
+            for (long bytes : threads.getThreadAllocatedBytes(threads.getAllThreadIds())) {
+                if (bytes > 0) {
+                    allocated += bytes;
+                }
+            }
+            appendType(out, "jvm_live_threads_allocated_bytes", "gauge");
+            appendSample(out, "jvm_live_threads_allocated_bytes", "", allocated);
+        }
+    }
+
+    /**
+     * Appends a cumulative histogram with durations converted from nanoseconds to seconds.
+     * Every scrape contains the same le-boundaries, so buckets can be compared between scrapes.
+     *
+     * @param out       StringBuilder the histogram is appended to
+     * @param name      String name of the metric
+     * @param labels    String labels without braces, may be empty
+     * @param histogram LatencyHistogram with durations in nanoseconds
+     */
+    private void appendHistogram(StringBuilder out, String name, String labels, LatencyHistogram histogram) {
+        long[] cumulative = histogram.cumulativeCounts(BUCKET_BOUNDS_NANOS);
+        String prefix = labels.isEmpty() ? "" : labels + ",";
+        for (int i = 0; i < BUCKET_BOUNDS_SECONDS.length; i++) {
+            appendSample(out, name + "_bucket", prefix + "le=\"" + BUCKET_BOUNDS_SECONDS[i] + "\"", cumulative[i]);
+        }
+        long count = cumulative[BUCKET_BOUNDS_SECONDS.length];
+        appendSample(out, name + "_bucket", prefix + "le=\"+Inf\"", count);
+        appendSample(out, name + "_sum", labels, histogram.getSum() / NANOS_PER_SECOND);
+        appendSample(out, name + "_count", labels, count);
+    }
+
+    private void appendType(StringBuilder out, String name, String type) {
+        out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    private void appendSample(StringBuilder out, String name, String labels, long value) {
+        appendName(out, name, labels).append(value).append('\n');
+    }
+
+    private void appendSample(StringBuilder out, String name, String labels, double value) {
+        appendName(out, name, labels).append(value).append('\n');
+    }
+
+    private StringBuilder appendName(StringBuilder out, String name, String labels) {
+        out.append(name);
+        if (!labels.isEmpty()) {
+            out.append('{').append(labels).append('}');
+        }
+        return out.append(' ');
+    }
+}
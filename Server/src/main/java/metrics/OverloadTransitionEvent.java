@@ -0,0 +1,22 @@
+package metrics;
+
+import jdk.jfr.*;
+
+/**
+ * Flight-Recorder-Event emitted whenever the OverloadController changes the overload level of the room
+ */
+@Name("bombaclap.OverloadTransition")
+@Label("Overload Transition")
+@Category({"Bombaclap", "Game"})
+@Description("Change of the overload level after sustained tick overruns or recovery")
+@StackTrace(false)
+public class OverloadTransitionEvent extends Event {
+    @Label("Room")
+    public String room;
+    @Label("From")
+    public String from;
+    @Label("To")
+    public String to;
+    @Label("Overruns In Window")
+    public int overruns;
+}
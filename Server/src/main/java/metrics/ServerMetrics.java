@@ -0,0 +1,238 @@
+package metrics;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * ServerMetrics-Singleton holding all counters and gauges of the server process.
+ * Every value is stored in an atomic so it can be read by the MetricsServer without taking a lock.
+ */
+public class ServerMetrics {
+    private static final Object instanceLock = new Object();
+    private static ServerMetrics instance;
+    private volatile String room = "";
+    private volatile boolean ready;
+    private final AtomicInteger activeConnections = new AtomicInteger();
+    private final AtomicInteger gameRunning = new AtomicInteger();
+    private final LongAdder snapshotsSent = new LongAdder();
+    private final LongAdder snapshotBytesSent = new LongAdder();
+    private final LatencyHistogram snapshotSerialization = new LatencyHistogram();
+    private final LongAdder droppedInputs = new LongAdder();
+    private final LongAdder handshakeFailures = new LongAdder();
+    private final AtomicInteger overloadLevel = new AtomicInteger();
+    private final LongAdder overloadTransitions = new LongAdder();
+    private final LongAdder matchesPersisted = new LongAdder();
+    private final LongAdder persistenceFallbacks = new LongAdder();
+    private final LatencyHistogram mapPreparation = new LatencyHistogram();
+    private final LongAdder roomPoolMisses = new LongAdder();
+
+    /**
+     * Private constructor to achieve Singleton-Pattern
+     */
+    private ServerMetrics() {
+    }
+
+    /**
+     * Returns the only existing ServerMetrics-Instance or
+     * creates an instance if it doesn't exist yet.
+     *
+     * @return unique instance of ServerMetrics
+     */
+    public static ServerMetrics getInstance() {
+        synchronized (instanceLock) {
+            if (instance == null) {
+                instance = new ServerMetrics();
+            }
+            return instance;
+        }
+    }
+
+    /**
+     * Sets the label identifying the room hosted by this process
+     *
+     * @param room String label of the room, usually the port of the server
+     */
+    public void setRoom(String room) {
+        this.room = room;
+    }
+
+    public String getRoom() {
+        return room;
+    }
+
+    /**
+     * Marks the server as ready to accept players, reported by the health endpoint
+     *
+     * @param ready true once startup and warm-up have finished
+     */
+    public void setReady(boolean ready) {
+        this.ready = ready;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Mirrors the amount of active connections of the bombermanServer
+     *
+     * @param connections int amount of active connections
+     */
+    public void setActiveConnections(int connections) {
+        activeConnections.set(connections);
+    }
+
+    /**
+     * Mirrors whether the game of the room is running
+     *
+     * @param running true if the game is running, else false
+     */
+    public void setGameRunning(boolean running) {
+        gameRunning.set(running ? 1 : 0);
+    }
+
+    /**
+     * Counts a snapshot sent to a client
+     *
+     * @param bytes              long size of the snapshot in UTF-8 bytes
+     * @param serializationNanos long time used to serialize the snapshot in nanoseconds
+     */
+    public void snapshotSent(long bytes, long serializationNanos) {
+        snapshotsSent.increment();
+        snapshotBytesSent.add(bytes);
+        snapshotSerialization.record(serializationNanos);
+    }
+
+    /**
+     * Returns the length of the given text encoded as UTF-8 without encoding it
+     *
+     * @param text CharSequence to measure
+     * @return long amount of UTF-8 bytes
+     */
+    public static long utf8Length(CharSequence text) {
+        long bytes = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                bytes++;
+            } else if (c < 0x800) {
+                bytes += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < text.length()
+                    && Character.isLowSurrogate(text.charAt(i + 1))) {
+                bytes += 4;
+                i++;
+            } else {
+                bytes += 3;
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Counts a playerAction that was received but not passed to gameLogic
+     */
+    public void inputDropped() {
+        droppedInputs.increment();
+    }
+
+    /**
+     * Counts a refused or failed login attempt
+     */
+    public void handshakeFailed() {
+        handshakeFailures.increment();
+    }
+
+    /**
+     * Mirrors the overload level of the room and counts the transition
+     *
+     * @param level int ordinal of the new OverloadLevel
+     */
+    public void overloadLevelChanged(int level) {
+        overloadLevel.set(level);
+        overloadTransitions.increment();
+    }
+
+    public int getActiveConnections() {
+        return activeConnections.get();
+    }
+
+    public int getGameRunning() {
+        return gameRunning.get();
+    }
+
+    public long getSnapshotsSent() {
+        return snapshotsSent.sum();
+    }
+
+    public long getSnapshotBytesSent() {
+        return snapshotBytesSent.sum();
+    }
+
+    public LatencyHistogram getSnapshotSerialization() {
+        return snapshotSerialization;
+    }
+
+    public long getDroppedInputs() {
+        return droppedInputs.sum();
+    }
+
+    public long getHandshakeFailures() {
+        return handshakeFailures.sum();
+    }
+
+    public int getOverloadLevel() {
+        return overloadLevel.get();
+    }
+
+    public long getOverloadTransitions() {
+        return overloadTransitions.sum();
+    }
+
+    /**
+     * Counts matches written by the persistenceQueue
+     *
+     * @param matches int amount of matches written in one batch
+     */
+    public void matchesPersisted(int matches) {
+        matchesPersisted.add(matches);
+    }
+
+    /**
+     * Counts a match that had to be written synchronously because the persistenceQueue was full
+     */
+    public void persistenceFallback() {
+        persistenceFallbacks.increment();
+    }
+
+    /**
+     * Records the time used to build the map of the next game
+     *
+     * @param nanos long duration in nanoseconds
+     */
+    public void mapPrepared(long nanos) {
+        mapPreparation.record(nanos);
+    }
+
+    /**
+     * Counts a game that had to prepare its room itself because the roomPool was empty
+     */
+    public void roomPoolMissed() {
+        roomPoolMisses.increment();
+    }
+
+    public long getMatchesPersisted() {
+        return matchesPersisted.sum();
+    }
+
+    public long getPersistenceFallbacks() {
+        return persistenceFallbacks.sum();
+    }
+
+    public LatencyHistogram getMapPreparation() {
+        return mapPreparation;
+    }
+
+    public long getRoomPoolMisses() {
+        return roomPoolMisses.sum();
+    }
+}
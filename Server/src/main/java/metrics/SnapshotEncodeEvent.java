@@ -0,0 +1,19 @@
+package metrics;
+
+import jdk.jfr.*;
+
+/**
+ * Flight-Recorder-Event emitted for each map serialized for a client
+ */
+@Name("bombaclap.SnapshotEncode")
+@Label("Snapshot Encode")
+@Category({"Bombaclap", "Network"})
+@Description("Serialization of the map into a snapshot")
+@StackTrace(false)
+public class SnapshotEncodeEvent extends Event {
+    @Label("Player Id")
+    public int playerId;
+    @Label("Size")
+    @DataAmount
+    public long bytes;
+}
@@ -0,0 +1,20 @@
+package metrics;
+
+import jdk.jfr.*;
+
+/**
+ * Flight-Recorder-Event emitted for each snapshot written to a client socket,
+ * the duration of the event is the time the sending thread was blocked
+ */
+@Name("bombaclap.SnapshotSend")
+@Label("Snapshot Send")
+@Category({"Bombaclap", "Network"})
+@Description("Write of a snapshot to the socket of a connection")
+@StackTrace(false)
+public class SnapshotSendEvent extends Event {
+    @Label("Player Id")
+    public int playerId;
+    @Label("Size")
+    @DataAmount
+    public long bytes;
+}
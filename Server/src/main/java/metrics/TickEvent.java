@@ -0,0 +1,41 @@
+package metrics;
+
+import jdk.jfr.*;
+
+/**
+ * Flight-Recorder-Event emitted for each gameLogic-tick
+ */
+@Name("bombaclap.Tick")
+@Label("Tick")
+@Category({"Bombaclap", "Game"})
+@Description("A single gameLogic-tick with the duration of each phase")
+@StackTrace(false)
+public class TickEvent extends Event {
+    @Label("Room")
+    public String room;
+    @Label("Player Actions")
+    public int playerActions;
+    @Label("Overrun")
+    public boolean overrun;
+    @Label("Input Drain")
+    @Timespan(Timespan.NANOSECONDS)
+    public long inputDrain;
+    @Label("Bomb Placement")
+    @Timespan(Timespan.NANOSECONDS)
+    public long bombPlacement;
+    @Label("Movement")
+    @Timespan(Timespan.NANOSECONDS)
+    public long movement;
+    @Label("Update Bombs")
+    @Timespan(Timespan.NANOSECONDS)
+    public long updateBombs;
+    @Label("Update Players")
+    @Timespan(Timespan.NANOSECONDS)
+    public long updatePlayers;
+    @Label("Write Scores")
+    @Timespan(Timespan.NANOSECONDS)
+    public long writeScores;
+    @Label("Publish")
+    @Timespan(Timespan.NANOSECONDS)
+    public long publish;
+}
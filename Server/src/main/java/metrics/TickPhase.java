@@ -0,0 +1,8 @@
+package metrics;
+
+/**
+ * TickPhase-Enum naming the separately timed phases of a gameLogic-tick
+ */
+public enum TickPhase {
+    INPUT_DRAIN, BOMB_PLACEMENT, MOVEMENT, UPDATE_BOMBS, UPDATE_PLAYERS, WRITE_SCORES, PUBLISH
+}
@@ -0,0 +1,165 @@
+package metrics;
+
+import helpers.LogHelper;
+
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.EnumMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * TickProfiler-Singleton used for always-on timing of gameLogic-ticks.
+ * Each server process hosts exactly one room, so this process-wide profiler is the profiler of that room.
+ * Recording is lock-free, querying is possible at runtime over JMX (bombaclap:type=TickProfiler).
+ */
+public class TickProfiler implements TickProfilerMBean {
+    private static final Object instanceLock = new Object();
+    private static TickProfiler instance;
+    private final EnumMap<TickPhase, LatencyHistogram> phases = new EnumMap<>(TickPhase.class);
+    private final LatencyHistogram ticks = new LatencyHistogram();
+    private final AtomicLong overruns = new AtomicLong();
+
+    /**
+     * Private constructor to achieve Singleton-Pattern
+     */
+    private TickProfiler() {
+        for (TickPhase phase : TickPhase.values()) {
+            phases.put(phase, new LatencyHistogram());
+        }
+    }
+
+    /**
+     * Returns the only existing TickProfiler-Instance or
+     * creates an instance if it doesn't exist yet and registers it with the platform MBeanServer.
+     *
+     * @return unique instance of TickProfiler
+     */
+    public static TickProfiler getInstance() {
+        synchronized (instanceLock) {
+            if (instance == null) {
+                instance = new TickProfiler();
+                try {
+                    ManagementFactory.getPlatformMBeanServer()
+                            .registerMBean(instance, new ObjectName("bombaclap:type=TickProfiler"));
+                } catch (Exception e) {
+                    LogHelper.warn("TickProfiler not available over JMX: {}", e.getMessage());
+                }
+            }
+            return instance;
+        }
+    }
+
+    /**
+     * Records the duration of a single phase of a tick
+     *
+     * @param phase TickPhase the duration belongs to
+     * @param nanos long duration in nanoseconds
+     */
+    public void recordPhase(TickPhase phase, long nanos) {
+        phases.get(phase).record(nanos);
+    }
+
+    /**
+     * Records the duration of a complete tick and counts it as overrun
+     * if it took longer than the given budget
+     *
+     * @param nanos       long duration in nanoseconds
+     * @param budgetNanos long intended duration of the tick in nanoseconds
+     */
+    public void recordTick(long nanos, long budgetNanos) {
+        ticks.record(nanos);
+        if (nanos > budgetNanos) {
+            overruns.incrementAndGet();
+        }
+    }
+
+    /**
+     * Returns the histogram of the given phase.
+     *
+     * @param phase TickPhase of the histogram
+     * @return LatencyHistogram with durations in nanoseconds
+     */
+    public LatencyHistogram getPhaseHistogram(TickPhase phase) {
+        return phases.get(phase);
+    }
+
+    /**
+     * Returns the histogram of complete ticks.
+     *
+     * @return LatencyHistogram with durations in nanoseconds
+     */
+    public LatencyHistogram getTickHistogram() {
+        return ticks;
+    }
+
+    @Override
+    public long getTickCount() {
+        return ticks.getCount();
+    }
+
+    @Override
+    public long getOverrunCount() {
+        return overruns.get();
+    }
+
+    @Override
+    public long getTickP50Micros() {
+        return TimeUnit.NANOSECONDS.toMicros(ticks.getValueAtPercentile(50));
+    }
+
+    @Override
+    public long getTickP99Micros() {
+        return TimeUnit.NANOSECONDS.toMicros(ticks.getValueAtPercentile(99));
+    }
+
+    @Override
+    public long getTickMaxMicros() {
+        return TimeUnit.NANOSECONDS.toMicros(ticks.getMax());
+    }
+
+    /**
+     * Returns the value at the given percentile of the phase with the given name.
+     *
+     * @param phase      String name of a TickPhase
+     * @param percentile double between 0 and 100
+     * @return long duration in microseconds
+     */
+    @Override
+    public long percentileMicros(String phase, double percentile) {
+        return TimeUnit.NANOSECONDS.toMicros(phases.get(TickPhase.valueOf(phase)).getValueAtPercentile(percentile));
+    }
+
+    /**
+     * Returns a human-readable summary of all phases and the complete tick
+     *
+     * @return String with one line per phase
+     */
+    @Override
+    public String report() {
+        StringBuilder report = new StringBuilder();
+        report.append("ticks: ").append(getTickCount())
+                .append(" | overruns: ").append(getOverrunCount())
+                .append(System.lineSeparator());
+        appendReportLine(report, "TICK", ticks);
+        for (TickPhase phase : TickPhase.values()) {
+            appendReportLine(report, phase.name(), phases.get(phase));
+        }
+        return report.toString();
+    }
+
+    /**
+     * Appends p50, p99 and max of the given histogram in microseconds to the given report
+     *
+     * @param report    StringBuilder the line is appended to
+     * @param name      String name of the histogram
+     * @param histogram LatencyHistogram to summarize
+     */
+    private void appendReportLine(StringBuilder report, String name, LatencyHistogram histogram) {
+        report.append(name)
+                .append(" p50: ").append(TimeUnit.NANOSECONDS.toMicros(histogram.getValueAtPercentile(50))).append("us")
+                .append(" | p99: ").append(TimeUnit.NANOSECONDS.toMicros(histogram.getValueAtPercentile(99))).append("us")
+                .append(" | max: ").append(TimeUnit.NANOSECONDS.toMicros(histogram.getMax())).append("us")
+                .append(System.lineSeparator());
+    }
+}
@@ -0,0 +1,20 @@
+package metrics;
+
+/**
+ * Management interface of the TickProfiler, allows querying tick-stats at runtime with any JMX-client
+ */
+public interface TickProfilerMBean {
+    long getTickCount();
+
+    long getOverrunCount();
+
+    long getTickP50Micros();
+
+    long getTickP99Micros();
+
+    long getTickMaxMicros();
+
+    long percentileMicros(String phase, double percentile);
+
+    String report();
+}
@@ -0,0 +1,26 @@
+package models;
+
+import lombok.*;
+import proxy.LeaderboardEntry;
+
+import java.util.Map;
+
+/**
+ * LeaderboardSnapshot-Model holding the ranked entries published by the leaderboard after every change.
+ * Snapshots are shared by every connection answering queries, so neither the arrays nor the entries
+ * may be modified once the snapshot has been published.
+ */
+@Getter
+@AllArgsConstructor
+@ToString
+public class LeaderboardSnapshot {
+    /**
+     * Snapshot published before the leaderboard has been loaded
+     */
+    public static final LeaderboardSnapshot EMPTY =
+            new LeaderboardSnapshot(new LeaderboardEntry[0], Integer.MIN_VALUE, new LeaderboardEntry[0], Map.of());
+    private final LeaderboardEntry[] top;
+    private final int weekId;
+    private final LeaderboardEntry[] weeklyTop;
+    private final Map<String, LeaderboardEntry> players;
+}
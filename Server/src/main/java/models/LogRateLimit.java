@@ -0,0 +1,45 @@
+package models;
+
+/**
+ * LogRateLimit-Model used to limit how often a repeated log message is written.
+ * At most maxRecords records pass per window, the others are counted and reported with the next record passing.
+ */
+public class LogRateLimit {
+    private final int maxRecords;
+    private final long windowMillis;
+    private long windowStart = 0;
+    private int recordsInWindow = 0;
+    private int suppressed = 0;
+
+    /**
+     * Creates a LogRateLimit
+     *
+     * @param maxRecords   int amount of records allowed per window
+     * @param windowMillis long length of a window in milliseconds
+     */
+    public LogRateLimit(int maxRecords, long windowMillis) {
+        this.maxRecords = maxRecords;
+        this.windowMillis = windowMillis;
+    }
+
+    /**
+     * Decides whether a record may be written now.
+     *
+     * @param now long current time in milliseconds
+     * @return -1 if the record has to be dropped, else the amount of records suppressed since the last one passed
+     */
+    public synchronized int tryAcquire(long now) {
+        if (now - windowStart >= windowMillis) {
+            windowStart = now;
+            recordsInWindow = 0;
+        }
+        if (recordsInWindow >= maxRecords) {
+            suppressed++;
+            return -1;
+        }
+        recordsInWindow++;
+        int suppressedBefore = suppressed;
+        suppressed = 0;
+        return suppressedBefore;
+    }
+}
@@ -0,0 +1,32 @@
+package models;
+
+import helpers.LogLevel;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * LogRecord-Model used as reusable slot of the LogRingBuffer.
+ * The message is stored as template with up to three arguments and only formatted by the log-writer.
+ */
+@Getter
+@Setter
+public class LogRecord {
+    private LogLevel level;
+    private long timestamp;
+    private String threadName;
+    private String template;
+    private Object firstArgument;
+    private Object secondArgument;
+    private Object thirdArgument;
+
+    /**
+     * Drops all references, so arguments can be garbage collected after the record has been written
+     */
+    public void clear() {
+        template = null;
+        threadName = null;
+        firstArgument = null;
+        secondArgument = null;
+        thirdArgument = null;
+    }
+}
@@ -0,0 +1,18 @@
+package models;
+
+import lombok.*;
+
+/**
+ * MatchResult-Model holding names and scores of all players of a finished match
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@ToString
+public class MatchResult {
+    private long sequence;
+    private long timestamp;
+    private String[] names;
+    private Integer[] scores;
+}
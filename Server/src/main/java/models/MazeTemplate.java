@@ -0,0 +1,51 @@
+package models;
+
+import lombok.*;
+
+/**
+ * MazeTemplate-Model holding the parsed blockCodes and spawn points of a maze-file.
+ * Templates are shared between all maps built from them, so cells and spawns are only handed out one by one
+ * and the arrays passed to the constructor must not be modified afterwards.
+ */
+@AllArgsConstructor
+@ToString
+public class MazeTemplate {
+    @Getter
+    private final String name;
+    @Getter
+    private final int width;
+    @Getter
+    private final int height;
+    private final int[] spawns;
+    private final byte[] cells;
+
+    /**
+     * @return amount of fields of the maze
+     */
+    public int cellCount() {
+        return cells.length;
+    }
+
+    /**
+     * @param index int index of the field, row by row
+     * @return blockCode of the field
+     */
+    public byte cellAt(int index) {
+        return cells[index];
+    }
+
+    /**
+     * @return amount of spawn points
+     */
+    public int spawnCount() {
+        return spawns.length;
+    }
+
+    /**
+     * @param index int index of the spawn point
+     * @return index of the field of the spawn point
+     */
+    public int spawnAt(int index) {
+        return spawns[index];
+    }
+}
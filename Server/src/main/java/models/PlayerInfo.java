@@ -13,10 +13,10 @@ import proxy.enums.PlayerDirection;
 @NoArgsConstructor
 @ToString
 public class PlayerInfo {
-    private Integer playerId;
-    private Integer x;
-    private Integer y;
-    private Integer index;
+    private int playerId;
+    private int x;
+    private int y;
+    private int index;
     private String name;
     private PlayerColor color;
     private PlayerDirection direction;
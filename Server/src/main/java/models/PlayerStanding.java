@@ -0,0 +1,22 @@
+package models;
+
+import lombok.*;
+
+/**
+ * PlayerStanding-Model holding the aggregates of a playerName kept in memory by the leaderboard
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+@ToString
+public class PlayerStanding {
+    private String name;
+    private int slot;
+    private long total;
+    private long weeklyTotal;
+    private int weekId;
+    private int matches;
+    private int wins;
+    private long lastPlayed;
+}
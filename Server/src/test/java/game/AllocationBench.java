@@ -0,0 +1,122 @@
+package game;
+
+import config.Constants;
+import proxy.Action;
+import proxy.Field;
+import proxy.enums.PlayerDirection;
+
+import java.lang.management.ManagementFactory;
+import java.util.SplittableRandom;
+
+/**
+ * AllocationBench used to check that maps are reused between matches and ticks allocate next to nothing.
+ * Prepares matches the same way the roomPool does, with mapBuilders taken from and returned to the mapPool,
+ * and plays ticks with random actions on a detached gameLogic like the warm-up.
+ * The bytes allocated by the calling thread are read from the ThreadMXBean after a warm-up round,
+ * the bench exits with status 1 if a match or a tick allocates more than its limit.
+ * Lives in the game package, as detached gameLogics and simulated ticks aren't accessible from outside.
+ * Compiled by mvn test, run with:
+ * java -cp Server/target/test-classes:Server/target/classes:Proxy/target/classes:[gson.jar] game.AllocationBench
+ * [matches] [ticks]
+ */
+public class AllocationBench {
+    private static final String[] PLAYER_NAMES = {
+            Constants.NAME_PLAYER_ONE,
+            Constants.NAME_PLAYER_TWO,
+            Constants.NAME_PLAYER_THREE,
+            Constants.NAME_PLAYER_FOUR};
+    private static final int ACTION_COUNT = 1024;
+    private static final long MATCH_ALLOCATION_LIMIT = 1024;
+    private static final long TICK_ALLOCATION_LIMIT = 16;
+    private final com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private final GameLogic gameLogic = GameLogic.createDetached();
+    private final Action[] actions = new Action[ACTION_COUNT];
+    private MapBuilder mapBuilder;
+    private Field[] map;
+    private int nextAction;
+
+    private AllocationBench() {
+        SplittableRandom random = new SplittableRandom(Constants.WARM_UP_SEED);
+        PlayerDirection[] directions = PlayerDirection.values();
+        for (int i = 0; i < actions.length; i++) {
+            actions[i] = new Action();
+            actions[i].setPlayerId(i % Constants.MAX_PLAYER_COUNT);
+            actions[i].setPlayerDirection(directions[random.nextInt(directions.length)]);
+            actions[i].setBombPlanted(random.nextInt(Constants.WARM_UP_BOMB_ODDS) == 0);
+        }
+    }
+
+    /**
+     * Measures the allocation per prepared match and per tick and fails if either is above its limit
+     *
+     * @param args amount of matches and ticks, 1000 and 100000 by default
+     */
+    public static void main(String[] args) {
+        int matches = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int ticks = args.length > 1 ? Integer.parseInt(args[1]) : 100000;
+        AllocationBench bench = new AllocationBench();
+        if (!bench.threads.isThreadAllocatedMemorySupported()) {
+            System.out.println("Thread allocation measurement not supported by this JVM");
+            return;
+        }
+        bench.threads.setThreadAllocatedMemoryEnabled(true);
+        bench.prepareMatches(matches);
+        bench.playTicks(ticks);
+        long matchBytes = bench.prepareMatches(matches);
+        long tickBytes = bench.playTicks(ticks);
+        System.out.printf("per match: %d B (limit %d B)%nper tick:  %d B (limit %d B)%n",
+                matchBytes / matches, MATCH_ALLOCATION_LIMIT, tickBytes / ticks, TICK_ALLOCATION_LIMIT);
+        if (matchBytes / matches > MATCH_ALLOCATION_LIMIT || tickBytes / ticks > TICK_ALLOCATION_LIMIT) {
+            System.out.println("FAILED: allocation above limit");
+            System.exit(1);
+        }
+        System.out.println("PASSED");
+    }
+
+    /**
+     * Prepares the given amount of matches like the roomPool and gameState do
+     *
+     * @param matches int amount of matches
+     * @return long bytes allocated by the calling thread
+     */
+    private long prepareMatches(int matches) {
+        MapPool mapPool = MapPool.getInstance();
+        long start = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < matches; i++) {
+            startMatch(mapPool);
+        }
+        return threads.getCurrentThreadAllocatedBytes() - start;
+    }
+
+    /**
+     * Plays the given amount of ticks, a new match is prepared whenever only one player is left
+     *
+     * @param ticks int amount of ticks
+     * @return long bytes allocated by the calling thread
+     */
+    private long playTicks(int ticks) {
+        MapPool mapPool = MapPool.getInstance();
+        if (map == null) {
+            startMatch(mapPool);
+        }
+        long start = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < ticks; i++) {
+            for (int playerId = 0; playerId < Constants.MAX_PLAYER_COUNT; playerId++) {
+                gameLogic.addPlayerAction(actions[nextAction]);
+                nextAction = (nextAction + 1) % actions.length;
+            }
+            if (gameLogic.simulateTick(map, Constants.GAME_LOGIC_TICK_DURATION, System.nanoTime()) <= 1) {
+                startMatch(mapPool);
+            }
+        }
+        return threads.getCurrentThreadAllocatedBytes() - start;
+    }
+
+    private void startMatch(MapPool mapPool) {
+        mapPool.release(mapBuilder);
+        mapBuilder = mapPool.acquire();
+        map = mapBuilder.generateMap().generatePlayers(PLAYER_NAMES).generateRandomMaze().retrieveMap();
+        gameLogic.reset();
+    }
+}